@@ -0,0 +1,120 @@
+package de.tudresden.aerospace.contrails;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
+import de.tudresden.aerospace.contrails.Modeling.SolarContrail;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Provides the parameters of the benchmarks, which are read from {@code benchmarks/config/benchmark.xml}. The
+ * benchmarks have to be run from the project root, so that the physical parameters in the {@code Parameter} folder are
+ * found.
+ */
+public class BenchmarkParameters {
+    /**
+     * Name of the solar part, as used by the command-line interface
+     */
+    public static final String SOLAR = "sol";
+
+    /**
+     * Name of the terrestrial part, as used by the command-line interface
+     */
+    public static final String TERRESTRIAL = "terr";
+
+    /**
+     * Number of photons integrated in a single invocation of the photon transport benchmarks
+     */
+    public static final int PHOTONS = 1024;
+
+    /**
+     * Reads the benchmark configuration and selects the given spectral band for both parts.
+     *
+     * @param band The spectral band index, which must be valid for the solar and terrestrial part
+     * @return The parameters
+     */
+    public static XMLParameters load(int band) {
+        File configFolder = new File(PropertiesManager.getInstance().getRootPath().toFile(), "benchmarks/config");
+        XMLParameters params = XMLParameters.unmarshal(configFolder.toString(), "benchmark.xml");
+        if (params == null) {
+            System.err.println("Could not read the benchmark configuration in " + configFolder +
+                    ", run the benchmarks from the project root");
+            System.exit(1);
+        }
+
+        params.getSolarDiffuse().setSpectralBandIndex(band);
+        params.getTerrestrialDiffuse().setSpectralBandIndex(band);
+        return params;
+    }
+
+    /**
+     * Gets the diffuse parameters of a part.
+     *
+     * @param params The parameters read by {@link #load(int)}
+     * @param part   Either {@link #SOLAR} or {@link #TERRESTRIAL}
+     * @return The diffuse parameters of the part
+     */
+    public static DiffuseParameters diffuse(XMLParameters params, String part) {
+        switch (part) {
+            case SOLAR:
+                return params.getSolarDiffuse();
+            case TERRESTRIAL:
+                return params.getTerrestrialDiffuse();
+            default:
+                throw new IllegalArgumentException("Unknown part " + part);
+        }
+    }
+
+    /**
+     * Creates the contrail of a part in multithreaded mode, which draws random numbers like the simulation does.
+     *
+     * @param params The parameters read by {@link #load(int)}
+     * @param part   Either {@link #SOLAR} or {@link #TERRESTRIAL}
+     * @return The contrail
+     */
+    public static Contrail createContrail(XMLParameters params, String part) {
+        DiffuseParameters diffuse = diffuse(params, part);
+        Contrail contrail = part.equals(SOLAR) ? new SolarContrail(diffuse) : new TerrestrialContrail(diffuse);
+        contrail.setMultiThreadedMode(true);
+        return contrail;
+    }
+
+    /**
+     * Discards everything printed to stdout, so that progress messages of the simulation do not end up in the
+     * benchmark output.
+     *
+     * @return The previous stdout, to be restored with {@link System#setOut(PrintStream)}
+     */
+    public static PrintStream silenceStdout() {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return stdout;
+    }
+}
@@ -0,0 +1,106 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.BenchmarkParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+import de.tudresden.aerospace.contrails.MonteCarlo.SolarSimulation;
+import de.tudresden.aerospace.contrails.SyntheticOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of parsing a diffuse simulation output of the given grid size with the resolution of the scattering
+ * angles used in production runs. Scores are given in milliseconds per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CustomCSVParserBenchmark {
+    /**
+     * Resolution of the scattering angles in degrees
+     */
+    private static final int RESOLUTION_S = 2;
+
+    @Param({"72x36", "360x180"})
+    public String bins;
+
+    private SyntheticOutput output;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        String[] size = bins.split("x");
+        DiffuseParameters diffuse = new DiffuseParameters(BenchmarkParameters.load(0).getSolarDiffuse());
+        diffuse.setLambda(SyntheticOutput.solarLambda(0) / 1000.0);
+        diffuse.setBinsPhi(Integer.parseInt(size[0]));
+        diffuse.setBinsTheta(Integer.parseInt(size[1]));
+        diffuse.setResolutionS(RESOLUTION_S);
+
+        output = new SyntheticOutput();
+        file = output.writeDiffuse(diffuse, SolarSimulation.suffixDiffuseSolar);
+    }
+
+    @TearDown
+    public void tearDown() {
+        output.delete();
+    }
+
+    @Benchmark
+    public List<DynamicTable<Double>> parse() {
+        return CustomCSVParser.parse(file, "\\s+");
+    }
+
+    @Benchmark
+    public List<ColumnTable> parseMapped() {
+        return MappedCSVParser.parse(file);
+    }
+
+    @Benchmark
+    public DynamicTable<Double> parseSimulation() {
+        return new SimulationParser(file, "\\s+").parse();
+    }
+
+    @Benchmark
+    public ColumnTable parseSimulationColumns() {
+        return new SimulationParser(file, "\\s+").parseColumns();
+    }
+}
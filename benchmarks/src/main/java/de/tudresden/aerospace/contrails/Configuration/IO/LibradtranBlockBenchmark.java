@@ -0,0 +1,81 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.SyntheticOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of matching the radiance of a Libradtran block to a direction of the simulation, which is done for every
+ * direction of a solar diffuse output. Scores are given in directions per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibradtranBlockBenchmark {
+    private static final int DIRECTIONS = 1024;
+
+    private LibradtranBlock block;
+    private double[] theta;
+    private double[] phi;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticOutput output = new SyntheticOutput();
+        block = LibradtranParser.parseUVSpec(output.writeUVSpec(1)).get(0);
+        output.delete();
+
+        SplittableRandom r = new SplittableRandom(12345678L);
+        theta = new double[DIRECTIONS];
+        phi = new double[DIRECTIONS];
+        for (int i = 0; i < DIRECTIONS; i++) {
+            theta[i] = r.nextDouble(Math.PI);
+            phi[i] = r.nextDouble(2 * Math.PI);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DIRECTIONS)
+    public void matchDiffuseRadiance(Blackhole bh) {
+        for (int i = 0; i < DIRECTIONS; i++)
+            bh.consume(block.matchDiffuseRadiance(theta[i], phi[i], 180.0));
+    }
+}
@@ -0,0 +1,83 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.SyntheticOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of parsing Libradtran outputs with the given number of wavelengths. Scores are given in milliseconds per
+ * file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibradtranParserBenchmark {
+    @Param({"16", "128"})
+    public int wavelengths;
+
+    private SyntheticOutput output;
+    private File uvSpec;
+    private File twoStream;
+
+    @Setup
+    public void setup() throws IOException {
+        output = new SyntheticOutput();
+        uvSpec = output.writeUVSpec(wavelengths);
+        twoStream = output.writeTwoStream(wavelengths);
+    }
+
+    @TearDown
+    public void tearDown() {
+        output.delete();
+    }
+
+    @Benchmark
+    public List<LibradtranBlock> parseUVSpec() {
+        return LibradtranParser.parseUVSpec(uvSpec);
+    }
+
+    @Benchmark
+    public List<LibradtranBlock> parseTwoStream() {
+        return LibradtranParser.parseTwoStream(twoStream);
+    }
+}
@@ -0,0 +1,117 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.BenchmarkParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the photon transport of a single thread. Scores are given in photons or evaluations of the extinction
+ * integral per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ContrailBenchmark {
+    /**
+     * Number of directions of incidence the photons are distributed over
+     */
+    private static final int DIRECTIONS = 64;
+
+    @Param({BenchmarkParameters.SOLAR, BenchmarkParameters.TERRESTRIAL})
+    public String part;
+
+    @Param({"0", "3", "6"})
+    public int band;
+
+    private Contrail contrail;
+    private PhotonResult out;
+    private SplittableRandom stream;
+
+    // Directions of incidence and arguments of the extinction integral
+    private double[] theta;
+    private double[] phi;
+    private double[] y0;
+    private double[] z0;
+    private double[] s;
+
+    @Setup
+    public void setup() {
+        contrail = BenchmarkParameters.createContrail(BenchmarkParameters.load(band), part);
+        out = new PhotonResult();
+        stream = new SplittableRandom(12345678L);
+
+        // Segments of the extinction integral start within the contrail and are at most as long as its diameter
+        double radius = contrail.getParams().getIncidentRadius();
+        SplittableRandom r = new SplittableRandom(87654321L);
+        theta = new double[BenchmarkParameters.PHOTONS];
+        phi = new double[BenchmarkParameters.PHOTONS];
+        y0 = new double[BenchmarkParameters.PHOTONS];
+        z0 = new double[BenchmarkParameters.PHOTONS];
+        s = new double[BenchmarkParameters.PHOTONS];
+        for (int i = 0; i < BenchmarkParameters.PHOTONS; i++) {
+            theta[i] = r.nextDouble(Math.PI);
+            phi[i] = r.nextDouble(2 * Math.PI);
+            double rho = radius * Math.sqrt(r.nextDouble());
+            double angle = r.nextDouble(2 * Math.PI);
+            y0[i] = rho * Math.cos(angle);
+            z0[i] = rho * Math.sin(angle);
+            s[i] = r.nextDouble(2.01 * radius);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkParameters.PHOTONS)
+    public void singlePhotonIntegration(Blackhole bh) {
+        for (int i = 0; i < BenchmarkParameters.PHOTONS; i++) {
+            contrail.singlePhotonIntegration(theta[i % DIRECTIONS], phi[i % DIRECTIONS], out, stream);
+            bh.consume(out.theta);
+            bh.consume(out.scatEvents);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkParameters.PHOTONS)
+    public void iextinction(Blackhole bh) {
+        for (int i = 0; i < BenchmarkParameters.PHOTONS; i++)
+            bh.consume(contrail.Iextinction(y0[i], z0[i], theta[i], phi[i], s[i]));
+    }
+}
@@ -0,0 +1,78 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the error function, which is evaluated in every step of the root search of the free path. Scores are
+ * given in evaluations per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorFunctionBenchmark {
+    private static final int SIZE = 1024;
+
+    @Param({"fast", "double"})
+    public String precision;
+
+    private ErfPrecision erfPrecision;
+    private double[] x;
+
+    @Setup
+    public void setup() {
+        erfPrecision = ErfPrecision.fromName(precision);
+
+        // Arguments cover the range in which the error function is not yet saturated
+        SplittableRandom r = new SplittableRandom(12345678L);
+        x = new double[SIZE];
+        for (int i = 0; i < SIZE; i++)
+            x[i] = r.nextDouble(-4.0, 4.0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void erf(Blackhole bh) {
+        for (int i = 0; i < SIZE; i++)
+            bh.consume(erfPrecision.erf(x[i]));
+    }
+}
@@ -0,0 +1,99 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.BenchmarkParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.SyntheticOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of integrating the radiative forcing over the given number of wavelengths, including parsing all simulation
+ * and Libradtran outputs and writing the result. Scores are given in milliseconds per integration. Larger grids can be
+ * selected with JMH options, e.g. {@code -p bins=360x180}, which requires several GB of temporary files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RadiativeForcingBenchmark {
+    /**
+     * Resolution of the scattering angles in degrees. The S_* columns are parsed, but not used by the integration
+     */
+    private static final int RESOLUTION_S = 2;
+
+    @Param({"16", "128"})
+    public int wavelengths;
+
+    @Param({"72x36"})
+    public String bins;
+
+    private SyntheticOutput output;
+    private String uvSpec;
+    private String twoStream;
+    private PrintStream stdout;
+
+    @Setup
+    public void setup() throws IOException {
+        String[] size = bins.split("x");
+        output = new SyntheticOutput();
+        output.writeSimulationRuns(wavelengths, Integer.parseInt(size[0]), Integer.parseInt(size[1]), RESOLUTION_S);
+
+        // Libradtran outputs are looked up relative to the Libradtran output directory
+        Path dirLibradtran = PropertiesManager.getInstance().getDirLibradtranOut().toPath().toAbsolutePath();
+        uvSpec = dirLibradtran.relativize(new File(output.getDir(), SyntheticOutput.UVSPEC).toPath()).toString();
+        twoStream = dirLibradtran.relativize(new File(output.getDir(), SyntheticOutput.TWOSTREAM).toPath()).toString();
+
+        stdout = BenchmarkParameters.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+        output.delete();
+    }
+
+    @Benchmark
+    public void integrateLambda() throws IOException {
+        RadiativeForcing.integrateLambda(output.getDir(), uvSpec, twoStream);
+    }
+}
@@ -0,0 +1,134 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.BenchmarkParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
+import de.tudresden.aerospace.contrails.Modeling.TransportEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the diffuse simulation on a single thread, which make the photon throughput per core comparable across
+ * releases. Scores are given in photons per second. The diffuse loop simulates the small grid of
+ * {@code benchmarks/config/benchmark.xml} including writing the output file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SimulationBenchmark {
+    /**
+     * Number of photons of a single step, a multiple of {@link RandomStreams#PHOTONS_PER_STREAM}
+     */
+    private static final int STEP_PHOTONS = 4 * RandomStreams.PHOTONS_PER_STREAM;
+
+    /**
+     * Number of photons of the diffuse loop, must match the grid and number of photons in the configuration
+     */
+    private static final int LOOP_PHOTONS = 8 * 6 * 2000;
+
+    @Param({BenchmarkParameters.SOLAR, BenchmarkParameters.TERRESTRIAL})
+    public String part;
+
+    @Param({"0", "3", "6"})
+    public int band;
+
+    @Param({"scalar", "batched", "vector"})
+    public String engine;
+
+    private Simulation sim;
+    private Contrail contrail;
+    private RandomStreams streams;
+    private File outputDir;
+    private PrintStream stdout;
+    private int taskID;
+
+    @Setup
+    public void setup() throws IOException {
+        XMLParameters params = BenchmarkParameters.load(band);
+
+        // Output files of the diffuse loop are written to a temporary directory
+        outputDir = Files.createTempDirectory("rf-contrails-benchmark").toFile();
+        params.getCommon().setOutputFilePrefix(new File(outputDir, params.getCommon().getOutputFilePrefix()).getPath());
+
+        sim = part.equals(BenchmarkParameters.SOLAR) ? new SolarSimulation(params) : new TerrestrialSimulation(params);
+        sim.setTransportEngine(TransportEngine.fromName(engine));
+        sim.setSeed(12345678L);
+        contrail = BenchmarkParameters.createContrail(params, part);
+        streams = sim.createStreams(sim.suffixDiffuse);
+
+        if (sim.commonParams.getNumPhotons() * sim.diffuseParams.getBinsTheta() * sim.diffuseParams.getBinsPhi()
+                != LOOP_PHOTONS)
+            throw new IllegalStateException("Number of photons of the diffuse loop does not match the configuration");
+
+        stdout = BenchmarkParameters.silenceStdout();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+
+        File[] files = outputDir.listFiles();
+        if (files != null) {
+            for (File f : files)
+                f.delete();
+        }
+        outputDir.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEP_PHOTONS)
+    public void computeSingleStep(Blackhole bh) {
+        // A new task in every invocation draws fresh random numbers from the streams
+        bh.consume(sim.new ComputeSingleStep(taskID++, contrail, 0, STEP_PHOTONS, sim.diffuseParams.getResolutionS(),
+                1.1, 0.4, streams).call());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP_PHOTONS)
+    public void diffuseLoop() {
+        sim.simulateDiffuseRadiation(contrail, 1, false);
+    }
+}
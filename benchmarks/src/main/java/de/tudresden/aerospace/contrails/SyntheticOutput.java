@@ -0,0 +1,356 @@
+package de.tudresden.aerospace.contrails;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.IO.DynamicTable;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.CommonParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.MonteCarlo.SolarSimulation;
+import de.tudresden.aerospace.contrails.MonteCarlo.TerrestrialSimulation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic simulation and Libradtran outputs for benchmarks of the post-processing. Files have the format of
+ * real outputs, but contain random values, so that outputs of any size can be created without running the simulation.
+ */
+public class SyntheticOutput {
+    /**
+     * Number of photons written to the parameters of synthetic simulation outputs
+     */
+    public static final int NUM_PHOTONS = 100000;
+
+    /**
+     * Number of zenith angles (umu) of a block of the synthetic UVSpec output, as in typical Libradtran runs
+     */
+    public static final int NUM_UMU = 18;
+
+    /**
+     * Number of azimuth angles (phi) of a block of the synthetic UVSpec output, as in typical Libradtran runs
+     */
+    public static final int NUM_PHI = 36;
+
+    /**
+     * Name of the synthetic UVSpec output
+     */
+    public static final String UVSPEC = "synthetic_uvspec.out";
+
+    /**
+     * Name of the synthetic TwoStream output
+     */
+    public static final String TWOSTREAM = "synthetic_twostream.out";
+
+    private static final String PREFIX = "synthetic";
+
+    private final File dir;
+    private final XMLParameters params;
+    private final SplittableRandom r = new SplittableRandom(12345678L);
+
+    /**
+     * Creates the generator, which writes all files into a new temporary directory.
+     *
+     * @throws IOException If the directory cannot be created
+     */
+    public SyntheticOutput() throws IOException {
+        this.dir = Files.createTempDirectory("rf-contrails-benchmark").toFile();
+        this.params = BenchmarkParameters.load(0);
+    }
+
+    /**
+     * Gets the directory the files are written into.
+     *
+     * @return The directory
+     */
+    public File getDir() {
+        return dir;
+    }
+
+    /**
+     * Gets the wavelength of a synthetic solar output in nm. Wavelengths are 10 nm apart, starting at 300 nm.
+     *
+     * @param index The index of the wavelength
+     * @return The wavelength in nm
+     */
+    public static double solarLambda(int index) {
+        return 300.0 + 10.0 * index;
+    }
+
+    /**
+     * Gets the wavelength of a synthetic terrestrial output in nm. Wavelengths are 100 nm apart, starting at 3000 nm.
+     *
+     * @param index The index of the wavelength
+     * @return The wavelength in nm
+     */
+    public static double terrestrialLambda(int index) {
+        return 3000.0 + 100.0 * index;
+    }
+
+    /**
+     * Writes the solar direct, solar diffuse and terrestrial diffuse outputs for a number of wavelengths, together
+     * with the matching Libradtran outputs {@link #UVSPEC} and {@link #TWOSTREAM}, like a complete set of simulation
+     * runs to integrate the radiative forcing from.
+     *
+     * @param wavelengths The number of wavelengths
+     * @param binsPhi     The number of azimuth angles of the diffuse outputs
+     * @param binsTheta   The number of zenith angles of the diffuse outputs
+     * @param resolutionS The resolution of the scattering angles of the diffuse outputs
+     */
+    public void writeSimulationRuns(int wavelengths, int binsPhi, int binsTheta, int resolutionS) {
+        for (int i = 0; i < wavelengths; i++) {
+            double lambdaSol = solarLambda(i) / 1000.0;
+            double lambdaTerr = terrestrialLambda(i) / 1000.0;
+            writeDirect(diffuse(i, lambdaSol, binsPhi, binsTheta, resolutionS));
+            writeDiffuse(diffuse(i, lambdaSol, binsPhi, binsTheta, resolutionS),
+                    SolarSimulation.suffixDiffuseSolar);
+            writeDiffuse(diffuse(i, lambdaTerr, binsPhi, binsTheta, resolutionS),
+                    TerrestrialSimulation.suffixDiffuseTerrestrial);
+        }
+
+        writeUVSpec(wavelengths);
+        writeTwoStream(wavelengths);
+    }
+
+    /**
+     * Creates the diffuse parameters of a synthetic output.
+     *
+     * @param band        The spectral band index, which has to be unique within a set of outputs
+     * @param lambda      The wavelength in microns
+     * @param binsPhi     The number of azimuth angles
+     * @param binsTheta   The number of zenith angles
+     * @param resolutionS The resolution of the scattering angles
+     * @return The parameters
+     */
+    private DiffuseParameters diffuse(int band, double lambda, int binsPhi, int binsTheta, int resolutionS) {
+        DiffuseParameters diffuse = new DiffuseParameters(params.getSolarDiffuse());
+        diffuse.setSpectralBandIndex(band);
+        diffuse.setLambda(lambda);
+        diffuse.setBinsPhi(binsPhi);
+        diffuse.setBinsTheta(binsTheta);
+        diffuse.setResolutionS(resolutionS);
+        return diffuse;
+    }
+
+    /**
+     * Writes a synthetic diffuse simulation output, like the diffuse simulation does.
+     *
+     * @param diffuse The parameters of the output
+     * @param suffix  The suffix of the simulated part, e.g. {@link SolarSimulation#suffixDiffuseSolar}
+     * @return The file written
+     */
+    public File writeDiffuse(DiffuseParameters diffuse, String suffix) {
+        File file = outputFile(diffuse, suffix);
+        int numS = 180 / diffuse.getResolutionS();
+
+        List<String> colNames = new ArrayList<>(Arrays.asList("theta", "phi", "num_abs", "num_scattered",
+                "num_scattered_up", "num_scattered_down", "correction_factor", "average_scattered", "num_affected"));
+        for (int i = diffuse.getResolutionS(); i <= 180; i += diffuse.getResolutionS())
+            colNames.add("S_" + i);
+
+        try (Writer w = openOutput(file, diffuse)) {
+            w.write(new DynamicTable<Double>("DIFFUSE_SCATTERED_RADIATION", colNames).toString(" "));
+
+            double dTheta = Math.PI / diffuse.getBinsTheta();
+            double dPhi = 2 * Math.PI / diffuse.getBinsPhi();
+            for (int iTheta = 0; iTheta < diffuse.getBinsTheta(); iTheta++) {
+                for (int iPhi = 0; iPhi < diffuse.getBinsPhi(); iPhi++) {
+                    double theta = (0.5 + iTheta) * dTheta;
+                    double phi = (0.5 + iPhi) * dPhi;
+                    double factor = correctionFactor(diffuse, theta, phi);
+                    int nScatUp = r.nextInt(NUM_PHOTONS / 20);
+                    int nScatDown = r.nextInt(NUM_PHOTONS / 20);
+
+                    w.write(theta + " " + phi + " " + r.nextInt(NUM_PHOTONS / 100) + " " + (nScatUp + nScatDown) +
+                            " " + nScatUp + " " + nScatDown + " " + factor + " " + (1.0 + r.nextDouble()) + " " +
+                            r.nextInt(NUM_PHOTONS / 5) + " ");
+                    for (int i = 0; i < numS - 1; i++)
+                        w.write(r.nextInt(NUM_PHOTONS / numS) * factor + " ");
+                    w.write(r.nextInt(NUM_PHOTONS / numS) * factor + "\n");
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing synthetic output " + file);
+            System.exit(1);
+        }
+
+        return file;
+    }
+
+    /**
+     * Writes a synthetic solar direct simulation output, like the direct simulation does.
+     *
+     * @param diffuse The parameters of the output
+     * @return The file written
+     */
+    public File writeDirect(DiffuseParameters diffuse) {
+        File file = outputFile(diffuse, SolarSimulation.suffixDirect);
+        double sza = params.getSolarDirect().getSza();
+        double phi0 = params.getSolarDirect().getPhi0();
+
+        List<String> colNames = Arrays.asList("sza", "phi0", "num_absorbed", "num_scattered", "num_scattered_up",
+                "num_scattered_down", "correction_factor");
+        DynamicTable<Double> table = new DynamicTable<>("DIRECT_SCATTERED_RADIATION", colNames);
+        double nScatUp = r.nextInt(NUM_PHOTONS / 20);
+        double nScatDown = r.nextInt(NUM_PHOTONS / 20);
+        table.addRow(Arrays.asList(sza, phi0, (double) r.nextInt(NUM_PHOTONS / 100), nScatUp + nScatDown, nScatUp,
+                nScatDown, correctionFactor(diffuse, sza, phi0)));
+
+        try (Writer w = openOutput(file, diffuse)) {
+            w.write(table.toString(" "));
+        } catch (IOException e) {
+            System.err.println("Error writing synthetic output " + file);
+            System.exit(1);
+        }
+
+        return file;
+    }
+
+    /**
+     * Writes a synthetic output of the Libradtran UVSpec solver with radiances for all solar wavelengths of
+     * {@link #writeSimulationRuns(int, int, int, int)}.
+     *
+     * @param wavelengths The number of wavelengths
+     * @return The file written
+     */
+    public File writeUVSpec(int wavelengths) {
+        File file = new File(dir, UVSPEC);
+        try (Writer w = new BufferedWriter(new FileWriter(file))) {
+            for (int i = 0; i < wavelengths; i++) {
+                // Block header: lambda edir edn eup uavgdir uavgdn uavgup, starting with two spaces
+                w.write(String.format(Locale.US, "  %.3f", solarLambda(i)));
+                for (int j = 0; j < 6; j++)
+                    w.write(String.format(Locale.US, "  %e", 1000 * r.nextDouble()));
+                w.write("\n");
+
+                // Table header: phi in degrees
+                w.write("        ");
+                for (int j = 0; j < NUM_PHI; j++)
+                    w.write(String.format(Locale.US, "  %.3f", (0.5 + j) * 360.0 / NUM_PHI));
+                w.write("\n");
+
+                // Table rows: umu u0u uu(phi)
+                for (int j = 0; j < NUM_UMU; j++) {
+                    w.write(String.format(Locale.US, "%.4f", Math.cos(Math.PI * (NUM_UMU - j - 0.5) / NUM_UMU)));
+                    for (int k = 0; k < NUM_PHI + 1; k++)
+                        w.write(String.format(Locale.US, "  %e", 100 * r.nextDouble()));
+                    w.write("\n");
+                }
+                w.write("\n");
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing synthetic output " + file);
+            System.exit(1);
+        }
+
+        return file;
+    }
+
+    /**
+     * Writes a synthetic output of the Libradtran TwoStream solver with irradiances for all terrestrial wavelengths of
+     * {@link #writeSimulationRuns(int, int, int, int)}.
+     *
+     * @param wavelengths The number of wavelengths
+     * @return The file written
+     */
+    public File writeTwoStream(int wavelengths) {
+        File file = new File(dir, TWOSTREAM);
+        try (Writer w = new BufferedWriter(new FileWriter(file))) {
+            // Lines: lambda edir edn eup uavg
+            for (int i = 0; i < wavelengths; i++)
+                w.write(String.format(Locale.US, " %.3f  %e  %e  %e  %e\n", terrestrialLambda(i), 0.0,
+                        1e-5 * r.nextDouble(), 1e-5 * r.nextDouble(), 1e-5 * r.nextDouble()));
+        } catch (IOException e) {
+            System.err.println("Error writing synthetic output " + file);
+            System.exit(1);
+        }
+
+        return file;
+    }
+
+    /**
+     * Deletes all files written and the directory.
+     */
+    public void delete() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files)
+                f.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Gets the file of a simulation output, named like the simulation names its outputs.
+     *
+     * @param diffuse The parameters of the output
+     * @param suffix  The suffix of the simulated part
+     * @return The file
+     */
+    private File outputFile(DiffuseParameters diffuse, String suffix) {
+        // The spectral band index keeps files of the same part in the order of their wavelengths
+        String name = String.format(Locale.US, "%s%03d%s_%.2f.csv", PREFIX, diffuse.getSpectralBandIndex(), suffix,
+                diffuse.getLambda());
+        return new File(dir, name);
+    }
+
+    /**
+     * Opens a simulation output and writes the parameters as comment, like the simulation does.
+     *
+     * @param file    The file to open
+     * @param diffuse The diffuse parameters of the output
+     * @return The writer
+     * @throws IOException If the file cannot be opened
+     */
+    private Writer openOutput(File file, DiffuseParameters diffuse) throws IOException {
+        CommonParameters common = new CommonParameters(params.getCommon());
+        common.setNumPhotons(NUM_PHOTONS);
+
+        Writer w = new BufferedWriter(new FileWriter(file));
+        w.write(common.toCommentString());
+        w.write(diffuse.toCommentString() + "\n");
+        return w;
+    }
+
+    /**
+     * Computes the correction factor of a direction of incidence like the simulation does.
+     *
+     * @param diffuse The parameters of the output
+     * @param theta   The angle to the z-axis
+     * @param phi     The angle to the x-axis
+     * @return The correction factor
+     */
+    private static double correctionFactor(DiffuseParameters diffuse, double theta, double phi) {
+        double alpha = Math.acos(Math.sin(theta) * Math.cos(phi));
+        return 2.0 * diffuse.getIncidentRadius() * Math.sin(alpha) / NUM_PHOTONS;
+    }
+}
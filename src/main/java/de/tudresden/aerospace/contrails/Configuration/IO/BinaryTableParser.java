@@ -0,0 +1,180 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses tables written by {@link BinaryTableWriter}. Files are memory-mapped and values are read directly from the
+ * mapped buffer, so no text has to be parsed. An incomplete last row, e.g. of a simulation that is still running, is
+ * ignored.
+ */
+public class BinaryTableParser {
+    /**
+     * Checks whether a file is a binary table by reading its first bytes.
+     *
+     * @param file The file to check
+     * @return {@code true} if the file starts with {@link BinaryTableWriter#MAGIC}, {@code false} otherwise
+     */
+    public static boolean isBinary(File file) {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining() && ch.read(buf) >= 0);
+
+            return !buf.hasRemaining() && buf.getInt(0) == BinaryTableWriter.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a binary table. Every line of the comments in the header is passed to the given callback.
+     *
+     * @param file            The file to parse
+     * @param commentCallback A callback function that handles structured comments, may be {@code null}
+     * @return The parsed table, which is empty if the file cannot be read
+     */
+    public static DynamicTable<Double> parse(File file, Consumer<String> commentCallback) {
+        return parseColumns(file, commentCallback).toDynamicTable();
+    }
+
+    /**
+     * Parses a binary table into primitive columns. Every line of the comments in the header is passed to the given
+     * callback.
+     *
+     * @param file            The file to parse
+     * @param commentCallback A callback function that handles structured comments, may be {@code null}
+     * @return The parsed table, which is empty if the file cannot be read
+     */
+    public static ColumnTable parseColumns(File file, Consumer<String> commentCallback) {
+        DynamicTable<Double> header = new DynamicTable<>();
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] colTypes = parseHeader(buf, header, commentCallback);
+            if (colTypes == null)
+                return ColumnTable.of(header);
+
+            int numRows = buf.remaining() / BinaryTableWriter.rowSize(colTypes);
+            double[][] columns = new double[colTypes.length][numRows];
+            for (int i = 0; i < numRows; i++) {
+                for (int j = 0; j < colTypes.length; j++)
+                    columns[j][i] = colTypes[j] == BinaryTableWriter.INT ? buf.getInt() : buf.getDouble();
+            }
+            return new ColumnTable(header.getName(), header.getColumnNames(), columns);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return ColumnTable.of(header);
+    }
+
+    /**
+     * Parses only the comments in the header of a binary table. For quickly checking parameters without parsing file
+     * contents.
+     *
+     * @param file            The file to parse
+     * @param commentCallback A callback function that handles structured comments
+     */
+    public static void parseComments(File file, Consumer<String> commentCallback) {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            parseHeader(buf, new DynamicTable<>(), commentCallback);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parses the header of a binary table and sets the name and column names of the given table. Leaves the position
+     * of the buffer at the first row.
+     *
+     * @param buf             The buffer containing the file, with little-endian byte order
+     * @param table           The table to initialize
+     * @param commentCallback A callback function that handles structured comments, may be {@code null}
+     * @return The types of the columns or {@code null} if the header is invalid
+     */
+    private static byte[] parseHeader(ByteBuffer buf, DynamicTable<Double> table, Consumer<String> commentCallback) {
+        try {
+            if (buf.getInt() != BinaryTableWriter.MAGIC) {
+                System.err.println("Not a binary table");
+                return null;
+            }
+
+            int version = buf.getInt();
+            if (version != BinaryTableWriter.VERSION) {
+                System.err.println("Unsupported version " + version + " of binary table");
+                return null;
+            }
+
+            String comments = getString(buf);
+            if (commentCallback != null) {
+                for (String l : comments.split("\n"))
+                    commentCallback.accept(l);
+            }
+
+            table.setName(getString(buf));
+
+            int numCols = buf.getInt();
+            byte[] colTypes = new byte[numCols];
+            List<String> colNames = new ArrayList<>(numCols);
+            for (int i = 0; i < numCols; i++) {
+                colTypes[i] = buf.get();
+                colNames.add(getString(buf));
+            }
+            table.setColumnNames(colNames);
+
+            return colTypes;
+        } catch (BufferUnderflowException e) {
+            System.err.println("Binary table header is incomplete");
+            return null;
+        }
+    }
+
+    /**
+     * Reads a string, which is stored as its length in bytes followed by its UTF-8 encoding.
+     *
+     * @param buf The buffer to read from
+     * @return The string
+     */
+    private static String getString(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
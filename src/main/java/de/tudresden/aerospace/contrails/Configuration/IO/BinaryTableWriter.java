@@ -0,0 +1,166 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a table in a compact binary format, which is read by {@link BinaryTableParser}. Values are stored in
+ * little-endian rows of fixed width, so rows can be appended one at a time and the file can be truncated to any number
+ * of complete rows, e.g. when resuming from a checkpoint. The layout of a file is:
+ * <ol>
+ *     <li>{@link #MAGIC} and {@link #VERSION} as ints</li>
+ *     <li>The comments as string, e.g. the parameters in the format of {@code toCommentString()}</li>
+ *     <li>The table name as string</li>
+ *     <li>The number of columns as int, followed by the type ({@link #DOUBLE} or {@link #INT}) as byte and the name as
+ *     string of every column</li>
+ *     <li>The rows, where values of double columns take 8 bytes and values of int columns 4 bytes</li>
+ * </ol>
+ * Strings are stored as their length in bytes as int, followed by their UTF-8 encoding.
+ */
+public class BinaryTableWriter implements Closeable, Flushable {
+    /**
+     * Identifies binary tables, reads "RFCB" in little-endian byte order
+     */
+    public static final int MAGIC = 0x42434652;
+
+    /**
+     * Version of the layout
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Type of columns with 64-bit floating point values
+     */
+    public static final byte DOUBLE = 'D';
+
+    /**
+     * Type of columns with 32-bit integer values
+     */
+    public static final byte INT = 'I';
+
+    private final OutputStream out;
+    private final byte[] colTypes;
+    private final ByteBuffer row;
+
+    /**
+     * Opens the writer for the given file.
+     *
+     * @param file     The file to write to
+     * @param colTypes The types of the columns, either {@link #DOUBLE} or {@link #INT}
+     * @param append   Whether to append rows to an existing table. Otherwise, the file is overwritten and the header
+     *                 has to be written with {@link #writeHeader(String, String, List)} first
+     * @throws IOException If the file cannot be opened
+     */
+    public BinaryTableWriter(File file, byte[] colTypes, boolean append) throws IOException {
+        this.out = new BufferedOutputStream(new FileOutputStream(file, append));
+        this.colTypes = colTypes;
+        this.row = ByteBuffer.allocate(rowSize(colTypes)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the size of a row in bytes.
+     *
+     * @param colTypes The types of the columns
+     * @return The size of a row in bytes
+     */
+    public static int rowSize(byte[] colTypes) {
+        int size = 0;
+        for (byte t : colTypes)
+            size += t == INT ? Integer.BYTES : Double.BYTES;
+
+        return size;
+    }
+
+    /**
+     * Writes the header of the table.
+     *
+     * @param comments The comments, lines are separated by line breaks
+     * @param name     The name of the table
+     * @param colNames The names of the columns, one for every column type
+     * @throws IOException If the header cannot be written
+     */
+    public void writeHeader(String comments, String name, List<String> colNames) throws IOException {
+        if (colNames.size() != colTypes.length)
+            throw new IllegalArgumentException("Got " + colNames.size() + " column names for " + colTypes.length +
+                    " columns");
+
+        byte[] bComments = comments.getBytes(StandardCharsets.UTF_8);
+        byte[] bName = name.getBytes(StandardCharsets.UTF_8);
+        byte[][] bColNames = new byte[colNames.size()][];
+        int size = 5 * Integer.BYTES + bComments.length + bName.length;
+        for (int i = 0; i < bColNames.length; i++) {
+            bColNames[i] = colNames.get(i).getBytes(StandardCharsets.UTF_8);
+            size += 1 + Integer.BYTES + bColNames[i].length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(bComments.length).put(bComments);
+        header.putInt(bName.length).put(bName);
+        header.putInt(colTypes.length);
+        for (int i = 0; i < colTypes.length; i++)
+            header.put(colTypes[i]).putInt(bColNames[i].length).put(bColNames[i]);
+
+        out.write(header.array());
+    }
+
+    /**
+     * Writes a row of the table. Values of int columns are converted to int.
+     *
+     * @param values The values of the row, one for every column
+     * @throws IOException If the row cannot be written
+     */
+    public void writeRow(double[] values) throws IOException {
+        row.clear();
+        for (int i = 0; i < colTypes.length; i++) {
+            if (colTypes[i] == INT)
+                row.putInt((int) values[i]);
+            else
+                row.putDouble(values[i]);
+        }
+
+        out.write(row.array(), 0, row.position());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
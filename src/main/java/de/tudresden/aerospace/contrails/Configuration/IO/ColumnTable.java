@@ -0,0 +1,239 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a table of double values, which are stored in primitive arrays per column. In contrast to
+ * {@link DynamicTable}, values are not boxed, so large simulation outputs can be held and accessed column-wise without
+ * copying.
+ */
+public class ColumnTable {
+    private final String name;
+    private final List<String> colNames;
+    private final double[][] columns;
+    private final int numRows;
+
+    /**
+     * Creates the table with the given columns.
+     *
+     * @param name     The name of the table
+     * @param colNames The names of the columns
+     * @param columns  The values of the columns, which must all have the same length
+     */
+    public ColumnTable(String name, List<String> colNames, double[][] columns) {
+        if (colNames.size() != columns.length)
+            throw new IllegalArgumentException("Got " + colNames.size() + " column names for " + columns.length +
+                    " columns");
+
+        this.name = name;
+        this.colNames = colNames;
+        this.columns = columns;
+        this.numRows = columns.length == 0 ? 0 : columns[0].length;
+        for (double[] c : columns) {
+            if (c.length != numRows)
+                throw new IllegalArgumentException("Length of columns does not match");
+        }
+    }
+
+    /**
+     * Creates the table from a {@link DynamicTable}, copying its values.
+     *
+     * @param table The table to copy
+     * @return The table with primitive columns
+     */
+    public static ColumnTable of(DynamicTable<Double> table) {
+        double[][] columns = new double[table.getColumnNames().size()][table.getRows().size()];
+        for (int i = 0; i < table.getRows().size(); i++) {
+            List<Double> row = table.getRow(i);
+            for (int j = 0; j < columns.length; j++)
+                columns[j][i] = row.get(j);
+        }
+
+        return new ColumnTable(table.getName(), table.getColumnNames(), columns);
+    }
+
+    /**
+     * Gets the name of the table.
+     *
+     * @return The name of the table as a {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the names of the table's columns.
+     *
+     * @return The names as a {@link List} of strings
+     */
+    public List<String> getColumnNames() {
+        return colNames;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The number of rows
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return The number of columns
+     */
+    public int getNumColumns() {
+        return columns.length;
+    }
+
+    /**
+     * Gets the value stored at the given index pair.
+     *
+     * @param row The row index of the element
+     * @param col The column index of the element
+     * @return The value at the given index pair
+     * @throws IndexOutOfBoundsException If the supplied index pair is not within the table's bounds
+     */
+    public double getValue(int row, int col) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= numRows || col < 0 || col >= columns.length)
+            throw new IndexOutOfBoundsException();
+        return columns[col][row];
+    }
+
+    /**
+     * Gets the column with the given column index. The array is not copied and must not be modified.
+     *
+     * @param index The index of the column to get
+     * @return The column values
+     * @throws IndexOutOfBoundsException If the supplied index is not within the table's bounds
+     */
+    public double[] getColumn(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= columns.length)
+            throw new IndexOutOfBoundsException();
+        return columns[index];
+    }
+
+    /**
+     * Gets a flattened representation of the table like {@link DynamicTable#getFlattened(int, int)}, which contains
+     * the rows of the specified columns concatenated.
+     *
+     * @param columnStartIndex The column index starting from which (inclusive) columns will be included in the output
+     * @param columnEndIndex The column index up to which (non-inclusive) columns will be included in the output
+     * @return The array containing the concatenated table
+     * @throws IndexOutOfBoundsException If the supplied index pair is not within the table's bounds
+     */
+    public double[] getFlattened(int columnStartIndex, int columnEndIndex) throws IndexOutOfBoundsException {
+        if (columnStartIndex < 0 || columnStartIndex > columns.length ||
+                columnEndIndex < columnStartIndex || columnEndIndex > columns.length)
+            throw new IndexOutOfBoundsException();
+
+        int width = columnEndIndex - columnStartIndex;
+        double[] res = new double[numRows * width];
+        for (int j = 0; j < width; j++) {
+            double[] c = columns[columnStartIndex + j];
+            for (int i = 0; i < numRows; i++)
+                res[i * width + j] = c[i];
+        }
+        return res;
+    }
+
+    /**
+     * Converts the table into a {@link DynamicTable}, boxing all values.
+     *
+     * @return The table with boxed values
+     */
+    public DynamicTable<Double> toDynamicTable() {
+        DynamicTable<Double> table = new DynamicTable<>(name, new ArrayList<>(colNames));
+        List<List<Double>> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            Double[] row = new Double[columns.length];
+            for (int j = 0; j < columns.length; j++)
+                row[j] = columns[j][i];
+            rows.add(Arrays.asList(row));
+        }
+        table.setRows(rows);
+
+        return table;
+    }
+
+    /**
+     * Collects the values of a table row by row into growing primitive columns.
+     */
+    static class Builder {
+        private final String name;
+        private final List<String> colNames;
+        private double[][] columns;
+        private int numRows = 0;
+
+        /**
+         * Creates the builder.
+         *
+         * @param name     The name of the table
+         * @param colNames The names of the columns
+         * @param capacity The initial number of rows to allocate
+         */
+        Builder(String name, List<String> colNames, int capacity) {
+            this.name = name;
+            this.colNames = colNames;
+            this.columns = new double[colNames.size()][Math.max(capacity, 1)];
+        }
+
+        /**
+         * Sets a value of the current row.
+         *
+         * @param col   The column index of the value
+         * @param value The value
+         */
+        void set(int col, double value) {
+            if (numRows == columns[col].length)
+                columns[col] = Arrays.copyOf(columns[col], 2 * numRows);
+            columns[col][numRows] = value;
+        }
+
+        /**
+         * Finishes the current row, all of its values must be set.
+         */
+        void endRow() {
+            numRows++;
+        }
+
+        /**
+         * Builds the table from all finished rows.
+         *
+         * @return The table
+         */
+        ColumnTable build() {
+            double[][] res = new double[columns.length][];
+            for (int j = 0; j < columns.length; j++)
+                res[j] = columns[j].length == numRows ? columns[j] : Arrays.copyOf(columns[j], numRows);
+
+            return new ColumnTable(name, colNames, res);
+        }
+    }
+}
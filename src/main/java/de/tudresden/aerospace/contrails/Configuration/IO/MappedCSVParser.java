@@ -0,0 +1,339 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses files in the custom CSV format of {@link CustomCSVParser} into tables with primitive columns. The file is
+ * memory-mapped and numbers are parsed directly from its bytes, so no strings are created for lines or values. Only
+ * comments and the header are converted to strings. Values have to be separated by whitespaces.
+ */
+public class MappedCSVParser {
+    /**
+     * Maximum size of a mapped region of the file, larger files are parsed in several regions
+     */
+    private static final long MAX_REGION = Integer.MAX_VALUE;
+
+    /**
+     * Initial number of rows allocated for a table
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Powers of ten, which are exactly representable as doubles
+     */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Consumer<String> commentCallback;
+    private final List<String> header = new ArrayList<>();
+    private final List<ColumnTable> res = new ArrayList<>();
+    private String currentName = "";
+    private ColumnTable.Builder currentTable = null;
+    private int lineNo = 1;
+
+    private MappedCSVParser(Consumer<String> commentCallback) {
+        this.commentCallback = commentCallback;
+    }
+
+    /**
+     * Parses a file with custom CSV format. Allows the user to specify custom logic for comments.
+     *
+     * @param file The file to parse
+     * @param commentCallback A callback function that handles structured comments, may be {@code null}
+     * @return The tables in the order of the file
+     */
+    public static List<ColumnTable> parse(File file, Consumer<String> commentCallback) {
+        MappedCSVParser parser = new MappedCSVParser(commentCallback);
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            long pos = 0;
+            while (pos < size) {
+                long length = Math.min(size - pos, MAX_REGION);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, length);
+
+                // Regions end after the last complete line, unless they reach the end of the file
+                int end = (int) length;
+                if (pos + length < size) {
+                    while (end > 0 && buf.get(end - 1) != '\n')
+                        end--;
+                    if (end == 0)
+                        throw new IOException("Line " + parser.lineNo + " is too long");
+                }
+
+                int start = 0;
+                while (start < end) {
+                    int eol = start;
+                    while (eol < end && buf.get(eol) != '\n')
+                        eol++;
+
+                    parser.parseLine(buf, start, eol);
+                    parser.lineNo++;
+                    start = eol + 1;
+                }
+                pos += end;
+            }
+
+            // Done, add last table
+            parser.finishTable();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Error reading file at line " + parser.lineNo);
+            e.printStackTrace();
+        }
+
+        return parser.res;
+    }
+
+    /**
+     * Parses a file with custom CSV format.
+     *
+     * @param file The file to parse
+     * @return The tables in the order of the file
+     */
+    public static List<ColumnTable> parse(File file) {
+        return parse(file, null);
+    }
+
+    /**
+     * Parses a single line of the file.
+     *
+     * @param buf   The buffer containing the line
+     * @param start The index of the first character of the line
+     * @param end   The index after the last character of the line
+     */
+    private void parseLine(ByteBuffer buf, int start, int end) {
+        if (end > start && buf.get(end - 1) == '\r')
+            end--;
+
+        // Set table name
+        if (startsWith(buf, start, end, "//TABLE")) {
+            String name = getString(buf, start + "//TABLE".length(), end).trim();
+            if (!currentName.isEmpty() || currentTable != null) {
+                // n-th table, append current table to results
+                finishTable();
+            }
+            currentName = name;
+            return;
+        }
+
+        // Skip empty lines
+        int p = skipWhitespace(buf, start, end);
+        if (p == end)
+            return;
+
+        // Handle comments
+        if (startsWith(buf, p, end, "//")) {
+            if (commentCallback != null)
+                commentCallback.accept(getString(buf, start, end));
+            return;
+        }
+
+        // Header has to be first in file
+        if (header.isEmpty()) {
+            while (p < end) {
+                int q = skipToken(buf, p, end);
+                header.add(getString(buf, p, q));
+                p = skipWhitespace(buf, q, end);
+            }
+            return;
+        }
+
+        if (currentTable == null)
+            currentTable = new ColumnTable.Builder(currentName, new ArrayList<>(header), INITIAL_CAPACITY);
+
+        // Read values
+        int col = 0;
+        while (p < end) {
+            int q = skipToken(buf, p, end);
+            if (col == header.size())
+                throw new IllegalArgumentException("Length of row does not match the number of columns");
+            currentTable.set(col++, parseDouble(buf, p, q));
+            p = skipWhitespace(buf, q, end);
+        }
+
+        if (col != header.size())
+            throw new IllegalArgumentException("Length of row does not match the number of columns");
+        currentTable.endRow();
+    }
+
+    /**
+     * Adds the current table to the results and starts a new one.
+     */
+    private void finishTable() {
+        if (currentTable == null)
+            currentTable = new ColumnTable.Builder(currentName, new ArrayList<>(header), 0);
+
+        res.add(currentTable.build());
+        currentTable = null;
+        currentName = "";
+    }
+
+    /**
+     * Parses a decimal number like {@link Double#parseDouble(String)}. Numbers with up to 18 significant digits and
+     * small exponents are computed exactly from their digits, others fall back to {@link Double#parseDouble(String)}.
+     *
+     * @param buf   The buffer containing the number
+     * @param start The index of the first character of the number
+     * @param end   The index after the last character of the number
+     * @return The parsed value
+     * @throws NumberFormatException If the characters are not a number
+     */
+    static double parseDouble(ByteBuffer buf, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        byte c = buf.get(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0; // Significant digits
+        int exponent = 0;
+        boolean any = false;
+
+        // Integer part
+        while (i < end && (c = buf.get(i)) >= '0' && c <= '9') {
+            mantissa = 10 * mantissa + (c - '0');
+            if (mantissa != 0)
+                digits++;
+            any = true;
+            i++;
+            if (digits > 18)
+                return parseDoubleSlow(buf, start, end);
+        }
+
+        // Fractional part
+        if (i < end && buf.get(i) == '.') {
+            i++;
+            while (i < end && (c = buf.get(i)) >= '0' && c <= '9') {
+                mantissa = 10 * mantissa + (c - '0');
+                if (mantissa != 0)
+                    digits++;
+                exponent--;
+                any = true;
+                i++;
+                if (digits > 18)
+                    return parseDoubleSlow(buf, start, end);
+            }
+        }
+
+        // Exponent
+        if (any && i < end && ((c = buf.get(i)) == 'e' || c == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && ((c = buf.get(i)) == '-' || c == '+')) {
+                negativeExponent = c == '-';
+                i++;
+            }
+
+            int e = 0;
+            boolean anyExponent = false;
+            while (i < end && (c = buf.get(i)) >= '0' && c <= '9') {
+                if (e < 10000)
+                    e = 10 * e + (c - '0');
+                anyExponent = true;
+                i++;
+            }
+            if (!anyExponent)
+                return parseDoubleSlow(buf, start, end);
+            exponent += negativeExponent ? -e : e;
+        }
+
+        // Anything else, e.g. NaN or Infinity
+        if (!any || i != end)
+            return parseDoubleSlow(buf, start, end);
+
+        if (mantissa == 0)
+            return negative ? -0.0 : 0.0;
+
+        // Mantissa and power of ten are exact, so the result is correctly rounded
+        if (mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22) {
+            double d = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+            return negative ? -d : d;
+        }
+
+        return parseDoubleSlow(buf, start, end);
+    }
+
+    /**
+     * Parses a number with {@link Double#parseDouble(String)}.
+     *
+     * @param buf   The buffer containing the number
+     * @param start The index of the first character of the number
+     * @param end   The index after the last character of the number
+     * @return The parsed value
+     * @throws NumberFormatException If the characters are not a number
+     */
+    private static double parseDoubleSlow(ByteBuffer buf, int start, int end) {
+        return Double.parseDouble(getString(buf, start, end));
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\f' || c == 0x0B;
+    }
+
+    private static int skipWhitespace(ByteBuffer buf, int start, int end) {
+        while (start < end && isWhitespace(buf.get(start)))
+            start++;
+        return start;
+    }
+
+    private static int skipToken(ByteBuffer buf, int start, int end) {
+        while (start < end && !isWhitespace(buf.get(start)))
+            start++;
+        return start;
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int start, int end, String prefix) {
+        if (end - start < prefix.length())
+            return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf.get(start + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static String getString(ByteBuffer buf, int start, int end) {
+        byte[] b = new byte[end - start];
+        buf.get(start, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
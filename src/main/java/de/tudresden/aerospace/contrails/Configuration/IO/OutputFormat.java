@@ -0,0 +1,79 @@
+package de.tudresden.aerospace.contrails.Configuration.IO;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects the file format of diffuse simulation outputs.
+ */
+public enum OutputFormat {
+    /**
+     * Space-separated text with the parameters as comments, see {@link CustomCSVParser}
+     */
+    TEXT("text", ".csv"),
+
+    /**
+     * Binary rows of little-endian values with the parameters in the header, see {@link BinaryTableWriter}
+     */
+    BINARY("binary", ".bin");
+
+    private final String name;
+    private final String extension;
+
+    OutputFormat(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the name of the format as used on the command line.
+     *
+     * @return The name of the format
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the file extension of outputs in this format, including the dot.
+     *
+     * @return The file extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Finds the format with the given command line name.
+     *
+     * @param name The name of the format
+     * @return The matching {@link OutputFormat} or {@code null} if there is none
+     */
+    public static OutputFormat fromName(String name) {
+        for (OutputFormat f : values()) {
+            if (f.name.equals(name))
+                return f;
+        }
+
+        return null;
+    }
+}
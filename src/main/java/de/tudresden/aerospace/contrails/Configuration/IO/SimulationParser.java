@@ -26,16 +26,20 @@ import de.tudresden.aerospace.contrails.Configuration.Parameters.CommonParameter
 import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.DirectParameters;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.ParameterNames;
+import neureka.Shape;
 import neureka.Tensor;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
 /**
  * Parses an output file of the simulation. The output format can be parsed with {@link CustomCSVParser}, but parameters
- * of the simulation are serialized to comments and need additional parsing logic, which this class provides.
+ * of the simulation are serialized to comments and need additional parsing logic, which this class provides. Outputs
+ * in the {@link OutputFormat#BINARY} format are parsed with {@link BinaryTableParser}. Text outputs with whitespace
+ * delimiters are parsed with {@link MappedCSVParser}.
  */
 public class SimulationParser {
     /**
@@ -53,12 +57,23 @@ public class SimulationParser {
         NUM_AFFECTED
     }
 
+    /**
+     * Name of the column of the expected weight escaping upwards, only present with next-event estimation
+     */
+    public static final String EXPECTED_UP = "expected_up";
+
+    /**
+     * Name of the column of the expected weight escaping downwards, only present with next-event estimation
+     */
+    public static final String EXPECTED_DOWN = "expected_down";
+
     private final File simulationFile;
     private final String delimiter;
     private CommonParameters commonParameters;
     private DiffuseParameters diffuseParameters;
     private DirectParameters directParameters;
 
+    private ColumnTable columns = null;
     private DynamicTable<Double> parseResult = null;
 
     /**
@@ -77,14 +92,54 @@ public class SimulationParser {
     }
 
     /**
-     * Gets the parse result after parsing with {@link SimulationParser#parse()}.
+     * Gets the parse result after parsing with {@link SimulationParser#parse()} or
+     * {@link SimulationParser#parseColumns()}.
      *
      * @return The parse result or {@code null} if the file has not been parsed yet
      */
     public DynamicTable<Double> getParseResult() {
+        if (parseResult == null && columns != null)
+            parseResult = columns.toDynamicTable();
         return parseResult;
     }
 
+    /**
+     * Gets the parse result with primitive columns after parsing with {@link SimulationParser#parse()} or
+     * {@link SimulationParser#parseColumns()}.
+     *
+     * @return The parse result or {@code null} if the file has not been parsed yet
+     */
+    public ColumnTable getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets a column of the parsed data. The returned array is not copied and must not be modified.
+     *
+     * @param index The index of the column
+     * @return The column values or {@code null} if the file has not been parsed yet
+     */
+    public double[] getColumn(TableIndex index) {
+        if (columns == null)
+            return null;
+
+        return columns.getColumn(index.ordinal());
+    }
+
+    /**
+     * Gets a column of the parsed data by its name. The returned array is not copied and must not be modified.
+     *
+     * @param name The name of the column
+     * @return The column values or {@code null} if the file has not been parsed yet or has no column of this name
+     */
+    public double[] getColumn(String name) {
+        if (columns == null)
+            return null;
+
+        int index = columns.getColumnNames().indexOf(name);
+        return index < 0 ? null : columns.getColumn(index);
+    }
+
     /**
      * Gets the flattened parsed data table from the parse result, only containing columns within the given range.
      *
@@ -93,10 +148,10 @@ public class SimulationParser {
      * @return The flattened parsed data table within the given column range, as a flattened {@link List}
      */
     public List<Double> getRangeList(int columnStartIndex, int columnEndIndex) {
-        if (parseResult == null)
+        if (columns == null)
             return null;
 
-        return parseResult.getFlattened(columnStartIndex, columnEndIndex);
+        return Arrays.stream(columns.getFlattened(columnStartIndex, columnEndIndex)).boxed().toList();
     }
 
     /**
@@ -107,14 +162,11 @@ public class SimulationParser {
      * @return The parsed data table within the given column range, as a {@link Tensor} which matches the table shape
      */
     public Tensor<Double> getRangeTensor(int columnStartIndex, int columnEndIndex) {
-        if (parseResult == null)
+        if (columns == null)
             return null;
 
-        List<Double> flattenedValues = parseResult.getFlattened(columnStartIndex, columnEndIndex);
-
-        return Tensor.ofDoubles()
-                .withShape(parseResult.getRows().size(), columnEndIndex - columnStartIndex)
-                .andFill(flattenedValues);
+        return Tensor.of(Shape.of(columns.getNumRows(), columnEndIndex - columnStartIndex),
+                columns.getFlattened(columnStartIndex, columnEndIndex));
     }
 
     /**
@@ -124,7 +176,10 @@ public class SimulationParser {
      * @return The parsed data table within the given column range, as a {@link Tensor} which matches the table shape
      */
     public Tensor<Double> getValueTensor(int columnStartIndex) {
-        return getRangeTensor(columnStartIndex, parseResult.getColumnNames().size());
+        if (columns == null)
+            return null;
+
+        return getRangeTensor(columnStartIndex, columns.getNumColumns());
     }
 
     /**
@@ -177,15 +232,33 @@ public class SimulationParser {
     /**
      * Parses the simulation file and returns the parsed result table. Also initializes the parameters from specially
      * formatted comment strings, which can then be retrieved with {@link SimulationParser#getCommonParameters()},
-     * {@link SimulationParser#getDirectParameters()} and {@link SimulationParser#getDiffuseParameters()}.
+     * {@link SimulationParser#getDirectParameters()} and {@link SimulationParser#getDiffuseParameters()}. Files in the
+     * binary format of {@link BinaryTableWriter} are detected and memory-mapped, the delimiter is ignored for them.
      *
      * @return The parsed {@link DynamicTable}
      */
     public DynamicTable<Double> parse() {
-        DynamicTable<Double> table = CustomCSVParser.parse(simulationFile, delimiter, this::commentHandler).get(0);
-        parseResult = table;
+        parseColumns();
+        return getParseResult();
+    }
 
-        return parseResult;
+    /**
+     * Parses the simulation file like {@link SimulationParser#parse()}, but keeps the values in primitive columns
+     * without creating a {@link DynamicTable}. Text files with whitespace delimiters are parsed with
+     * {@link MappedCSVParser}, other delimiters fall back to {@link CustomCSVParser}.
+     *
+     * @return The parsed {@link ColumnTable}
+     */
+    public ColumnTable parseColumns() {
+        parseResult = null;
+        if (BinaryTableParser.isBinary(simulationFile))
+            columns = BinaryTableParser.parseColumns(simulationFile, this::commentHandler);
+        else if (delimiter.isBlank() || delimiter.equals("\\s+"))
+            columns = MappedCSVParser.parse(simulationFile, this::commentHandler).get(0);
+        else
+            columns = ColumnTable.of(CustomCSVParser.parse(simulationFile, delimiter, this::commentHandler).get(0));
+
+        return columns;
     }
 
     /**
@@ -194,6 +267,11 @@ public class SimulationParser {
      * @return The {@link DiffuseParameters} object containing the diffuse parameters of the simulation file
      */
     public DiffuseParameters parseParametersOnly() {
+        if (BinaryTableParser.isBinary(simulationFile)) {
+            BinaryTableParser.parseComments(simulationFile, this::commentHandler);
+            return diffuseParameters;
+        }
+
         try{
             Scanner scanner = new Scanner(simulationFile);
 
@@ -231,6 +309,18 @@ public class SimulationParser {
                         case ParameterNames.PSI:
                             commonParameters.setPsi(Double.parseDouble(arr[1]));
                             break;
+                        case ParameterNames.ADAPTIVE_TARGET_ERROR:
+                            commonParameters.setAdaptiveTargetError(Double.parseDouble(arr[1]));
+                            break;
+                        case ParameterNames.ADAPTIVE_MIN_PHOTONS:
+                            commonParameters.setAdaptiveMinPhotons(Integer.parseInt(arr[1]));
+                            break;
+                        case ParameterNames.ADAPTIVE_MAX_PHOTONS:
+                            commonParameters.setAdaptiveMaxPhotons(Integer.parseInt(arr[1]));
+                            break;
+                        case ParameterNames.DIFFUSE_SYMMETRY:
+                            commonParameters.setDiffuseSymmetry(Boolean.parseBoolean(arr[1]));
+                            break;
                         case ParameterNames.BINS_PHI:
                             diffuseParameters.setBinsPhi(Integer.parseInt(arr[1]));
                             break;
@@ -279,6 +369,39 @@ public class SimulationParser {
                         case ParameterNames.NUM_ICE:
                             diffuseParameters.setNumIceParticles(Double.parseDouble(arr[1]));
                             break;
+                        case ParameterNames.PHASE_FUNCTION:
+                            diffuseParameters.setPhaseFunction(arr[1]);
+                            break;
+                        case ParameterNames.FREE_PATH:
+                            diffuseParameters.setFreePath(arr[1]);
+                            break;
+                        case ParameterNames.ERF_PRECISION:
+                            diffuseParameters.setErfPrecision(arr[1]);
+                            break;
+                        case ParameterNames.SAMPLING:
+                            diffuseParameters.setSampling(arr[1]);
+                            break;
+                        case ParameterNames.IMPLICIT_ABSORPTION:
+                            diffuseParameters.setImplicitAbsorption(Boolean.parseBoolean(arr[1]));
+                            break;
+                        case ParameterNames.ROULETTE_THRESHOLD:
+                            diffuseParameters.setRouletteThreshold(Double.parseDouble(arr[1]));
+                            break;
+                        case ParameterNames.LAUNCH_REGION:
+                            diffuseParameters.setLaunchRegion(arr[1]);
+                            break;
+                        case ParameterNames.LAUNCH_SIGMAS:
+                            diffuseParameters.setLaunchSigmas(Double.parseDouble(arr[1]));
+                            break;
+                        case ParameterNames.FORCED_COLLISION:
+                            diffuseParameters.setForcedCollision(Boolean.parseBoolean(arr[1]));
+                            break;
+                        case ParameterNames.LAUNCH_SAMPLING:
+                            diffuseParameters.setLaunchSampling(arr[1]);
+                            break;
+                        case ParameterNames.NEXT_EVENT:
+                            diffuseParameters.setNextEvent(Boolean.parseBoolean(arr[1]));
+                            break;
                         case ParameterNames.SZA:
                             directParameters.setSza(Double.parseDouble(arr[1]));
                             break;
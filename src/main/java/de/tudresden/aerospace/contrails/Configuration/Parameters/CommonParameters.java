@@ -32,7 +32,8 @@ import jakarta.xml.bind.annotation.XmlType;
  * config files to/from Java objects. In the process, values of this class are bound to the corresponding XML values.
  */
 @XmlRootElement
-@XmlType(propOrder = {"outputFilePrefix", "numPhotons", "psi"})
+@XmlType(propOrder = {"outputFilePrefix", "numPhotons", "psi", "adaptiveTargetError", "adaptiveMinPhotons",
+        "adaptiveMaxPhotons", "diffuseSymmetry"})
 public class CommonParameters implements Cloneable {
 
     /**
@@ -92,6 +93,123 @@ public class CommonParameters implements Cloneable {
         this.psi = psi;
     }
 
+    /**
+     * Gets the target relative standard error of the adaptive mode. This parameter is optional, if it is not set, every
+     * direction is simulated with {@link #getNumPhotons()} photons.
+     *
+     * @return The target relative error or {@code null} if the adaptive mode is disabled
+     */
+    public Double getAdaptiveTargetError() {
+        return adaptiveTargetError;
+    }
+
+    /**
+     * Sets the target relative standard error of the adaptive mode to the given value.
+     *
+     * @param adaptiveTargetError The new value to set
+     */
+    @XmlElement(name = ParameterNames.ADAPTIVE_TARGET_ERROR, required = false)
+    public void setAdaptiveTargetError(Double adaptiveTargetError) {
+        this.adaptiveTargetError = adaptiveTargetError;
+    }
+
+    /**
+     * Gets the minimum number of photons per direction in adaptive mode, which is also the number of photons per
+     * round.
+     *
+     * @return The minimum number of photons or {@code null} if not set
+     */
+    public Integer getAdaptiveMinPhotons() {
+        return adaptiveMinPhotons;
+    }
+
+    /**
+     * Sets the minimum number of photons per direction in adaptive mode to the given value.
+     *
+     * @param adaptiveMinPhotons The new value to set
+     */
+    @XmlElement(name = ParameterNames.ADAPTIVE_MIN_PHOTONS, required = false)
+    public void setAdaptiveMinPhotons(Integer adaptiveMinPhotons) {
+        this.adaptiveMinPhotons = adaptiveMinPhotons;
+    }
+
+    /**
+     * Gets the maximum number of photons per direction in adaptive mode.
+     *
+     * @return The maximum number of photons or {@code null} if not set
+     */
+    public Integer getAdaptiveMaxPhotons() {
+        return adaptiveMaxPhotons;
+    }
+
+    /**
+     * Sets the maximum number of photons per direction in adaptive mode to the given value.
+     *
+     * @param adaptiveMaxPhotons The new value to set
+     */
+    @XmlElement(name = ParameterNames.ADAPTIVE_MAX_PHOTONS, required = false)
+    public void setAdaptiveMaxPhotons(Integer adaptiveMaxPhotons) {
+        this.adaptiveMaxPhotons = adaptiveMaxPhotons;
+    }
+
+    /**
+     * Checks whether the adaptive mode is enabled.
+     *
+     * @return {@code true} if a target error is set
+     */
+    public boolean isAdaptive() {
+        return adaptiveTargetError != null;
+    }
+
+    /**
+     * Gets the minimum number of photons per direction in adaptive mode, defaulting to a tenth of
+     * {@link #getNumPhotons()}.
+     *
+     * @return The minimum number of photons
+     */
+    public int getAdaptiveMinPhotonsOrDefault() {
+        return adaptiveMinPhotons != null ? adaptiveMinPhotons : Math.max(1, numPhotons / 10);
+    }
+
+    /**
+     * Gets the maximum number of photons per direction in adaptive mode, defaulting to four times
+     * {@link #getNumPhotons()}.
+     *
+     * @return The maximum number of photons
+     */
+    public int getAdaptiveMaxPhotonsOrDefault() {
+        return adaptiveMaxPhotons != null ? adaptiveMaxPhotons : 4 * numPhotons;
+    }
+
+    /**
+     * Gets whether the diffuse simulations only simulate one direction of every group of symmetric directions. This
+     * parameter is optional and defaults to {@code false}.
+     *
+     * @return {@code true} if symmetric directions are mirrored, {@code null} if not set
+     */
+    public Boolean getDiffuseSymmetry() {
+        return diffuseSymmetry;
+    }
+
+    /**
+     * Sets whether the diffuse simulations only simulate one direction of every group of symmetric directions.
+     *
+     * @param diffuseSymmetry The new value to set
+     */
+    @XmlElement(name = ParameterNames.DIFFUSE_SYMMETRY, required = false)
+    public void setDiffuseSymmetry(Boolean diffuseSymmetry) {
+        this.diffuseSymmetry = diffuseSymmetry;
+    }
+
+    /**
+     * Checks whether symmetric directions of the diffuse simulations are mirrored instead of simulated.
+     *
+     * @return {@code true} if {@link #getDiffuseSymmetry()} is set to {@code true}
+     */
+    public boolean useDiffuseSymmetry() {
+        return Boolean.TRUE.equals(diffuseSymmetry);
+    }
+
     /**
      * No-parameters constructor to allow client to initialize the object.
      */
@@ -118,6 +236,10 @@ public class CommonParameters implements Cloneable {
      */
     public CommonParameters(CommonParameters obj) {
         this(obj.numPhotons, obj.outputFilePrefix, obj.psi);
+        this.adaptiveTargetError = obj.adaptiveTargetError;
+        this.adaptiveMinPhotons = obj.adaptiveMinPhotons;
+        this.adaptiveMaxPhotons = obj.adaptiveMaxPhotons;
+        this.diffuseSymmetry = obj.diffuseSymmetry;
     }
 
     /**
@@ -135,6 +257,26 @@ public class CommonParameters implements Cloneable {
      */
     private Double psi;
 
+    /**
+     * Target relative standard error per direction in adaptive mode, optional
+     */
+    private Double adaptiveTargetError;
+
+    /**
+     * Minimum number of photons per direction in adaptive mode, optional
+     */
+    private Integer adaptiveMinPhotons;
+
+    /**
+     * Maximum number of photons per direction in adaptive mode, optional
+     */
+    private Integer adaptiveMaxPhotons;
+
+    /**
+     * Whether symmetric directions of the diffuse simulations are mirrored instead of simulated, optional
+     */
+    private Boolean diffuseSymmetry;
+
 
     /**
      * Performs a deep copy of the current object.
@@ -170,6 +312,18 @@ public class CommonParameters implements Cloneable {
             System.err.println(ParameterNames.PSI + " must be between 0 and 360 degrees");
             System.exit(1);
         }
+
+        if (adaptiveTargetError != null && adaptiveTargetError <= 0.0) {
+            System.err.println(ParameterNames.ADAPTIVE_TARGET_ERROR + " must be greater than 0");
+            System.exit(1);
+        }
+
+        if (isAdaptive() && (getAdaptiveMinPhotonsOrDefault() <= 0
+                || getAdaptiveMaxPhotonsOrDefault() < getAdaptiveMinPhotonsOrDefault())) {
+            System.err.println(ParameterNames.ADAPTIVE_MIN_PHOTONS + " must be greater than 0 and must not exceed "
+                    + ParameterNames.ADAPTIVE_MAX_PHOTONS);
+            System.exit(1);
+        }
     }
 
     /**
@@ -184,6 +338,19 @@ public class CommonParameters implements Cloneable {
         sb.append("// " + ParameterNames.NUM_PHOTONS + " = " + this.numPhotons + "\n");
         sb.append("// " + ParameterNames.PSI + " = " + this.psi + "\n");
 
+        // Optional values
+        if (this.adaptiveTargetError != null)
+            sb.append("// " + ParameterNames.ADAPTIVE_TARGET_ERROR + " = " + this.adaptiveTargetError + "\n");
+
+        if (this.adaptiveMinPhotons != null)
+            sb.append("// " + ParameterNames.ADAPTIVE_MIN_PHOTONS + " = " + this.adaptiveMinPhotons + "\n");
+
+        if (this.adaptiveMaxPhotons != null)
+            sb.append("// " + ParameterNames.ADAPTIVE_MAX_PHOTONS + " = " + this.adaptiveMaxPhotons + "\n");
+
+        if (this.diffuseSymmetry != null)
+            sb.append("// " + ParameterNames.DIFFUSE_SYMMETRY + " = " + this.diffuseSymmetry + "\n");
+
         return sb.toString();
     }
 }
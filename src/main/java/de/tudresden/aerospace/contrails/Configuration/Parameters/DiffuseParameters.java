@@ -22,6 +22,12 @@ package de.tudresden.aerospace.contrails.Configuration.Parameters;
  * #L%
  */
 
+import de.tudresden.aerospace.contrails.Modeling.ErfPrecision;
+import de.tudresden.aerospace.contrails.Modeling.FreePathSampler;
+import de.tudresden.aerospace.contrails.Modeling.LaunchRegion;
+import de.tudresden.aerospace.contrails.Modeling.LaunchSampling;
+import de.tudresden.aerospace.contrails.Modeling.PhaseFunctionSampler;
+import de.tudresden.aerospace.contrails.Modeling.SamplingMode;
 import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import jakarta.xml.bind.annotation.XmlType;
@@ -35,7 +41,9 @@ import jakarta.xml.bind.annotation.XmlType;
 @XmlRootElement
 @XmlType(propOrder = {"binsPhi", "binsTheta", "distance", "resolutionS", "numSca", "numIceParticles", "lambda",
         "spectralBandIndex", "g", "absorptionFactor", "scatteringFactor", "incidentRadius", "dropletRadius",
-        "sigmaH","sigmaV", "sigmaS"})
+        "sigmaH","sigmaV", "sigmaS", "phaseFunction", "freePath", "erfPrecision", "sampling",
+        "implicitAbsorption", "rouletteThreshold", "launchRegion", "launchSigmas",
+        "forcedCollision", "launchSampling", "nextEvent"})
 public class DiffuseParameters implements Cloneable {
 
     /**
@@ -346,6 +354,260 @@ public class DiffuseParameters implements Cloneable {
         this.numIceParticles = numIceParticles;
     }
 
+    /**
+     * Gets the name of the method used to sample scattering angles from the phase function. This parameter is optional,
+     * see {@link de.tudresden.aerospace.contrails.Modeling.PhaseFunctionSampler} for possible values.
+     *
+     * @return The name of the sampling method or {@code null} if not set
+     */
+    public String getPhaseFunction() {
+        return phaseFunction;
+    }
+
+    /**
+     * Sets the name of the method used to sample scattering angles from the phase function to the given value.
+     *
+     * @param phaseFunction The new value to set
+     */
+    @XmlElement(name = ParameterNames.PHASE_FUNCTION, required = false)
+    public void setPhaseFunction(String phaseFunction) {
+        this.phaseFunction = phaseFunction;
+    }
+
+    /**
+     * Gets the name of the method used to find the distance to the next interaction of a photon. This parameter is
+     * optional, see {@link de.tudresden.aerospace.contrails.Modeling.FreePathSampler} for possible values.
+     *
+     * @return The name of the sampling method or {@code null} if not set
+     */
+    public String getFreePath() {
+        return freePath;
+    }
+
+    /**
+     * Sets the name of the method used to find the distance to the next interaction of a photon to the given value.
+     *
+     * @param freePath The new value to set
+     */
+    @XmlElement(name = ParameterNames.FREE_PATH, required = false)
+    public void setFreePath(String freePath) {
+        this.freePath = freePath;
+    }
+
+    /**
+     * Gets the name of the precision of the error functions used for the extinction integral. This parameter is
+     * optional, see {@link de.tudresden.aerospace.contrails.Modeling.ErfPrecision} for possible values.
+     *
+     * @return The name of the precision or {@code null} if not set
+     */
+    public String getErfPrecision() {
+        return erfPrecision;
+    }
+
+    /**
+     * Sets the name of the precision of the error functions used for the extinction integral to the given value.
+     *
+     * @param erfPrecision The new value to set
+     */
+    @XmlElement(name = ParameterNames.ERF_PRECISION, required = false)
+    public void setErfPrecision(String erfPrecision) {
+        this.erfPrecision = erfPrecision;
+    }
+
+    /**
+     * Gets the name of the method used to generate the random numbers of the photons. This parameter is optional, see
+     * {@link de.tudresden.aerospace.contrails.Modeling.SamplingMode} for possible values.
+     *
+     * @return The name of the sampling mode or {@code null} if not set
+     */
+    public String getSampling() {
+        return sampling;
+    }
+
+    /**
+     * Sets the name of the method used to generate the random numbers of the photons to the given value.
+     *
+     * @param sampling The new value to set
+     */
+    @XmlElement(name = ParameterNames.SAMPLING, required = false)
+    public void setSampling(String sampling) {
+        this.sampling = sampling;
+    }
+
+    /**
+     * Gets whether absorption reduces the weight of photons instead of terminating them. This parameter is optional
+     * and defaults to {@code false}.
+     *
+     * @return Whether implicit absorption is enabled or {@code null} if not set
+     */
+    public Boolean getImplicitAbsorption() {
+        return implicitAbsorption;
+    }
+
+    /**
+     * Sets whether absorption reduces the weight of photons instead of terminating them.
+     *
+     * @param implicitAbsorption The new value to set
+     */
+    @XmlElement(name = ParameterNames.IMPLICIT_ABSORPTION, required = false)
+    public void setImplicitAbsorption(Boolean implicitAbsorption) {
+        this.implicitAbsorption = implicitAbsorption;
+    }
+
+    /**
+     * Gets the weight below which photons are subject to Russian roulette with implicit absorption. This parameter is
+     * optional.
+     *
+     * @return The threshold or {@code null} if not set
+     */
+    public Double getRouletteThreshold() {
+        return rouletteThreshold;
+    }
+
+    /**
+     * Gets the weight below which photons are subject to Russian roulette with implicit absorption, defaulting to
+     * {@link #DEFAULT_ROULETTE_THRESHOLD}.
+     *
+     * @return The threshold
+     */
+    public double getRouletteThresholdOrDefault() {
+        return rouletteThreshold != null ? rouletteThreshold : DEFAULT_ROULETTE_THRESHOLD;
+    }
+
+    /**
+     * Sets the weight below which photons are subject to Russian roulette with implicit absorption to the given value.
+     *
+     * @param rouletteThreshold The new value to set
+     */
+    @XmlElement(name = ParameterNames.ROULETTE_THRESHOLD, required = false)
+    public void setRouletteThreshold(Double rouletteThreshold) {
+        this.rouletteThreshold = rouletteThreshold;
+    }
+
+    /**
+     * Gets the name of the region on whose boundary photons are launched. This parameter is optional, see
+     * {@link de.tudresden.aerospace.contrails.Modeling.LaunchRegion} for possible values.
+     *
+     * @return The name of the region or {@code null} if not set
+     */
+    public String getLaunchRegion() {
+        return launchRegion;
+    }
+
+    /**
+     * Sets the name of the region on whose boundary photons are launched to the given value.
+     *
+     * @param launchRegion The new value to set
+     */
+    @XmlElement(name = ParameterNames.LAUNCH_REGION, required = false)
+    public void setLaunchRegion(String launchRegion) {
+        this.launchRegion = launchRegion;
+    }
+
+    /**
+     * Gets the size of the elliptical launch region in standard deviations of the ice crystal distribution. This
+     * parameter is optional.
+     *
+     * @return The size or {@code null} if not set
+     */
+    public Double getLaunchSigmas() {
+        return launchSigmas;
+    }
+
+    /**
+     * Gets the size of the elliptical launch region in standard deviations of the ice crystal distribution, defaulting
+     * to {@link #DEFAULT_LAUNCH_SIGMAS}.
+     *
+     * @return The size
+     */
+    public double getLaunchSigmasOrDefault() {
+        return launchSigmas != null ? launchSigmas : DEFAULT_LAUNCH_SIGMAS;
+    }
+
+    /**
+     * Sets the size of the elliptical launch region in standard deviations of the ice crystal distribution to the
+     * given value.
+     *
+     * @param launchSigmas The new value to set
+     */
+    @XmlElement(name = ParameterNames.LAUNCH_SIGMAS, required = false)
+    public void setLaunchSigmas(Double launchSigmas) {
+        this.launchSigmas = launchSigmas;
+    }
+
+    /**
+     * Gets whether the first interaction of every photon is forced. This parameter is optional and defaults to
+     * {@code false}.
+     *
+     * @return Whether forced collisions are enabled or {@code null} if not set
+     */
+    public Boolean getForcedCollision() {
+        return forcedCollision;
+    }
+
+    /**
+     * Sets whether the first interaction of every photon is forced.
+     *
+     * @param forcedCollision The new value to set
+     */
+    @XmlElement(name = ParameterNames.FORCED_COLLISION, required = false)
+    public void setForcedCollision(Boolean forcedCollision) {
+        this.forcedCollision = forcedCollision;
+    }
+
+    /**
+     * Gets the name of the method used to distribute the offsets of the flight paths of the photons across the launch
+     * region. This parameter is optional, see {@link LaunchSampling} for possible values.
+     *
+     * @return The name of the sampling method or {@code null} if not set
+     */
+    public String getLaunchSampling() {
+        return launchSampling;
+    }
+
+    /**
+     * Sets the name of the method used to distribute the offsets of the flight paths of the photons across the launch
+     * region to the given value.
+     *
+     * @param launchSampling The new value to set
+     */
+    @XmlElement(name = ParameterNames.LAUNCH_SAMPLING, required = false)
+    public void setLaunchSampling(String launchSampling) {
+        this.launchSampling = launchSampling;
+    }
+
+    /**
+     * Gets whether the expected escape of the photons after every interaction is tallied in addition to their actual
+     * escape. This parameter is optional and defaults to {@code false}.
+     *
+     * @return Whether next-event estimation is enabled or {@code null} if not set
+     */
+    public Boolean getNextEvent() {
+        return nextEvent;
+    }
+
+    /**
+     * Sets whether the expected escape of the photons after every interaction is tallied in addition to their actual
+     * escape.
+     *
+     * @param nextEvent The new value to set
+     */
+    @XmlElement(name = ParameterNames.NEXT_EVENT, required = false)
+    public void setNextEvent(Boolean nextEvent) {
+        this.nextEvent = nextEvent;
+    }
+
+    /**
+     * Checks whether the simulation tallies the statistical weights of the photons instead of their numbers, which is
+     * the case with implicit absorption, forced collisions or importance sampled launch offsets.
+     *
+     * @return {@code true} if weights are tallied, {@code false} otherwise
+     */
+    public boolean hasWeightedTallies() {
+        return Boolean.TRUE.equals(implicitAbsorption) || Boolean.TRUE.equals(forcedCollision)
+                || LaunchSampling.fromName(launchSampling) == LaunchSampling.OPTICAL_DEPTH;
+    }
+
     /**
      * No-parameters constructor to allow client to initialize the object.
      */
@@ -373,6 +635,17 @@ public class DiffuseParameters implements Cloneable {
         this.sigmaS = obj.sigmaS;
         this.lambda = obj.lambda;
         this.numIceParticles = obj.numIceParticles;
+        this.phaseFunction = obj.phaseFunction;
+        this.freePath = obj.freePath;
+        this.erfPrecision = obj.erfPrecision;
+        this.sampling = obj.sampling;
+        this.implicitAbsorption = obj.implicitAbsorption;
+        this.rouletteThreshold = obj.rouletteThreshold;
+        this.launchRegion = obj.launchRegion;
+        this.launchSigmas = obj.launchSigmas;
+        this.forcedCollision = obj.forcedCollision;
+        this.launchSampling = obj.launchSampling;
+        this.nextEvent = obj.nextEvent;
     }
 
     // Simulation concern
@@ -457,6 +730,71 @@ public class DiffuseParameters implements Cloneable {
      */
     private Double numIceParticles = null;
 
+    /**
+     * Method used to sample the scattering phase function, optional
+     */
+    private String phaseFunction = null;
+
+    /**
+     * Method used to find free path lengths, optional
+     */
+    private String freePath = null;
+
+    /**
+     * Precision of the error functions, optional
+     */
+    private String erfPrecision = null;
+
+    /**
+     * Method used to generate the random numbers of the photons, optional
+     */
+    private String sampling = null;
+
+    /**
+     * Whether absorption reduces the weight of photons instead of terminating them, optional
+     */
+    private Boolean implicitAbsorption = null;
+
+    /**
+     * Weight below which photons are subject to Russian roulette with implicit absorption, optional
+     */
+    private Double rouletteThreshold = null;
+
+    /**
+     * Default of {@link #getRouletteThreshold()}
+     */
+    public static final double DEFAULT_ROULETTE_THRESHOLD = 0.1;
+
+    /**
+     * Region on whose boundary photons are launched, optional
+     */
+    private String launchRegion = null;
+
+    /**
+     * Size of the elliptical launch region in standard deviations, optional
+     */
+    private Double launchSigmas = null;
+
+    /**
+     * Whether the first interaction of every photon is forced, optional
+     */
+    private Boolean forcedCollision = null;
+
+    /**
+     * Method used to distribute the offsets of the flight paths of the photons across the launch region, optional
+     */
+    private String launchSampling = null;
+
+    /**
+     * Whether the expected escape of the photons after every interaction is tallied, optional
+     */
+    private Boolean nextEvent = null;
+
+    /**
+     * Default of {@link #getLaunchSigmas()}
+     */
+    public static final double DEFAULT_LAUNCH_SIGMAS = 6.0;
+
     /**
      * Checks whether all parameters are initialized.
      *
@@ -580,6 +918,65 @@ public class DiffuseParameters implements Cloneable {
         }
 
         // No lambda as it a calculated parameter
+
+        if (phaseFunction != null && PhaseFunctionSampler.fromName(phaseFunction) == null) {
+            System.err.println("Invalid value '" + phaseFunction + "' for parameter " + ParameterNames.PHASE_FUNCTION
+                    + ", must be one of binned, table or analytic");
+            System.exit(1);
+        }
+
+        if (freePath != null && FreePathSampler.fromName(freePath) == null) {
+            System.err.println("Invalid value '" + freePath + "' for parameter " + ParameterNames.FREE_PATH
+                    + ", must be one of secant or analytic");
+            System.exit(1);
+        }
+
+        if (erfPrecision != null && ErfPrecision.fromName(erfPrecision) == null) {
+            System.err.println("Invalid value '" + erfPrecision + "' for parameter " + ParameterNames.ERF_PRECISION
+                    + ", must be one of fast or double");
+            System.exit(1);
+        }
+
+        if (sampling != null && SamplingMode.fromName(sampling) == null) {
+            System.err.println("Invalid value '" + sampling + "' for parameter " + ParameterNames.SAMPLING
+                    + ", must be one of pseudo, sobol or halton");
+            System.exit(1);
+        }
+
+        if (rouletteThreshold != null && !(rouletteThreshold > 0.0 && rouletteThreshold <= 1.0)) {
+            System.err.println(ParameterNames.ROULETTE_THRESHOLD + " must be greater than 0 and at most 1");
+            System.exit(1);
+        }
+
+        if (launchRegion != null && LaunchRegion.fromName(launchRegion) == null) {
+            System.err.println("Invalid value '" + launchRegion + "' for parameter " + ParameterNames.LAUNCH_REGION
+                    + ", must be one of circle or ellipse");
+            System.exit(1);
+        }
+
+        if (LaunchRegion.fromName(launchRegion) == LaunchRegion.ELLIPSE
+                && FreePathSampler.fromName(freePath) != FreePathSampler.ANALYTIC) {
+            System.err.println(ParameterNames.LAUNCH_REGION + " = ellipse requires " + ParameterNames.FREE_PATH
+                    + " = analytic");
+            System.exit(1);
+        }
+
+        if (launchSigmas != null && !(launchSigmas > 0.0)) {
+            System.err.println(ParameterNames.LAUNCH_SIGMAS + " must be greater than 0");
+            System.exit(1);
+        }
+
+        if (launchSampling != null && LaunchSampling.fromName(launchSampling) == null) {
+            System.err.println("Invalid value '" + launchSampling + "' for parameter " + ParameterNames.LAUNCH_SAMPLING
+                    + ", must be one of uniform or optical_depth");
+            System.exit(1);
+        }
+
+        if (Boolean.TRUE.equals(nextEvent) && FreePathSampler.fromName(freePath) != FreePathSampler.ANALYTIC) {
+            System.err.println(ParameterNames.NEXT_EVENT + " requires " + ParameterNames.FREE_PATH + " = analytic, "
+                    + "because it computes the exact escape of the photons");
+            System.exit(1);
+        }
     }
 
     /**
@@ -620,6 +1017,40 @@ public class DiffuseParameters implements Cloneable {
 
         sb.append("// " + ParameterNames.NUM_ICE + " = " + this.numIceParticles + "\n");
 
+        // Optional values
+        if (this.phaseFunction != null)
+            sb.append("// " + ParameterNames.PHASE_FUNCTION + " = " + this.phaseFunction + "\n");
+
+        if (this.freePath != null)
+            sb.append("// " + ParameterNames.FREE_PATH + " = " + this.freePath + "\n");
+
+        if (this.erfPrecision != null)
+            sb.append("// " + ParameterNames.ERF_PRECISION + " = " + this.erfPrecision + "\n");
+
+        if (this.sampling != null)
+            sb.append("// " + ParameterNames.SAMPLING + " = " + this.sampling + "\n");
+
+        if (this.implicitAbsorption != null)
+            sb.append("// " + ParameterNames.IMPLICIT_ABSORPTION + " = " + this.implicitAbsorption + "\n");
+
+        if (this.rouletteThreshold != null)
+            sb.append("// " + ParameterNames.ROULETTE_THRESHOLD + " = " + this.rouletteThreshold + "\n");
+
+        if (this.launchRegion != null)
+            sb.append("// " + ParameterNames.LAUNCH_REGION + " = " + this.launchRegion + "\n");
+
+        if (this.launchSigmas != null)
+            sb.append("// " + ParameterNames.LAUNCH_SIGMAS + " = " + this.launchSigmas + "\n");
+
+        if (this.forcedCollision != null)
+            sb.append("// " + ParameterNames.FORCED_COLLISION + " = " + this.forcedCollision + "\n");
+
+        if (this.launchSampling != null)
+            sb.append("// " + ParameterNames.LAUNCH_SAMPLING + " = " + this.launchSampling + "\n");
+
+        if (this.nextEvent != null)
+            sb.append("// " + ParameterNames.NEXT_EVENT + " = " + this.nextEvent + "\n");
+
         return sb.toString();
     }
 }
@@ -43,6 +43,10 @@ public class ParameterNames {
     public static final String NUM_PHOTONS = "num_photons";
     public static final String OUT_FILE_PREFIX = "out_file_prefix";
     public static final String PSI = "psi";
+    public static final String ADAPTIVE_TARGET_ERROR = "adaptive_target_error";
+    public static final String ADAPTIVE_MIN_PHOTONS = "adaptive_min_photons";
+    public static final String ADAPTIVE_MAX_PHOTONS = "adaptive_max_photons";
+    public static final String DIFFUSE_SYMMETRY = "diffuse_symmetry";
 
     // DirectParameters.java
     public static final String SZA = "sza";
@@ -65,4 +69,15 @@ public class ParameterNames {
     public static final String SIGMA_S = "sigma_s";
     public static final String LAMBDA = "lambda";
     public static final String NUM_ICE = "num_ice";
+    public static final String PHASE_FUNCTION = "phase_function";
+    public static final String FREE_PATH = "free_path";
+    public static final String ERF_PRECISION = "erf_precision";
+    public static final String SAMPLING = "sampling";
+    public static final String IMPLICIT_ABSORPTION = "implicit_absorption";
+    public static final String ROULETTE_THRESHOLD = "roulette_threshold";
+    public static final String LAUNCH_REGION = "launch_region";
+    public static final String LAUNCH_SIGMAS = "launch_sigmas";
+    public static final String FORCED_COLLISION = "forced_collision";
+    public static final String LAUNCH_SAMPLING = "launch_sampling";
+    public static final String NEXT_EVENT = "next_event";
 }
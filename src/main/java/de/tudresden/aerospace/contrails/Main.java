@@ -66,11 +66,13 @@ public final class Main {
             if (part.equals(CommonCLIArgs.PART_SOLAR)) {
                 params.getSolarDiffuse().check();
                 sim = new SolarSimulation(params);
+                configure(sim, simArgs);
                 sim.promptCheckOutputFiles(simArgs.doesOverwrite());
                 sim.runSimulation(simArgs.getNumThreads(), simArgs.writesMetricsFile(), null);
             } else if (part.equals(CommonCLIArgs.PART_TERRESTRIAL)) {
                 params.getTerrestrialDiffuse().check();
                 sim = new TerrestrialSimulation(params);
+                configure(sim, simArgs);
                 sim.promptCheckOutputFiles(simArgs.doesOverwrite());
                 sim.runSimulation(simArgs.getNumThreads(), simArgs.writesMetricsFile(), null);
             } else {
@@ -78,10 +80,12 @@ public final class Main {
                 params.getTerrestrialDiffuse().check();
 
                 sim = new TerrestrialSimulation(params);
+                configure(sim, simArgs);
                 sim.promptCheckOutputFiles(simArgs.doesOverwrite());
 
                 // Prompt for overwrite on both first
                 SolarSimulation sim_solar = new SolarSimulation(params);
+                configure(sim_solar, simArgs);
                 sim_solar.promptCheckOutputFiles(simArgs.doesOverwrite());
 
                 // Run both
@@ -116,4 +120,17 @@ public final class Main {
             System.exit(0); // Tensor calculations start background thread which does not terminate when main ends
         }
     }
+
+    /**
+     * Applies the settings given on the command line to a simulation.
+     *
+     * @param sim     The simulation to configure
+     * @param simArgs The parsed command line arguments of the simulation mode
+     */
+    private static void configure(Simulation sim, SimulationCLI simArgs) {
+        sim.setTransportEngine(simArgs.getTransportEngine());
+        sim.setSeed(simArgs.getSeed());
+        sim.setResume(simArgs.doesResume());
+        sim.setOutputFormat(simArgs.getOutputFormat());
+    }
 }
@@ -0,0 +1,181 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+
+/**
+ * Immutable snapshot of the parameters of a contrail that are used by the photon transport, compiled once from
+ * {@link DiffuseParameters} into primitive fields together with the values derived from them. The transport engines
+ * read the parameters from this object instead of the boxed getters of {@link DiffuseParameters}, which keeps unboxing
+ * out of the inner loops. As all fields are final, an instance may be shared across threads without synchronization.
+ */
+public final class CompiledContrail {
+    /**
+     * Square root of pi, a factor of the extinction integral
+     */
+    public static final double SQRT_PI = Math.sqrt(Math.PI);
+
+    /**
+     * Horizontal variance of the ice crystal distribution
+     */
+    public final double sigmaH;
+
+    /**
+     * Vertical variance of the ice crystal distribution
+     */
+    public final double sigmaV;
+
+    /**
+     * Covariance of the ice crystal distribution
+     */
+    public final double sigmaS;
+
+    /**
+     * Determinant of the covariance matrix of the ice crystal distribution
+     */
+    public final double detsigma;
+
+    /**
+     * Reciprocal of twice {@link #detsigma}, the factor of the coefficients of the extinction integral
+     */
+    public final double hDetsigma;
+
+    /**
+     * Scaling factor of the extinction integral, which is negative
+     */
+    public final double c1;
+
+    /**
+     * Radius of the circular launch region
+     */
+    public final double incidentRadius;
+
+    /**
+     * Size of the elliptical launch region in standard deviations of the ice crystal distribution
+     */
+    public final double launchSigmas;
+
+    /**
+     * Probability of an interaction to be an absorption, i.e. the ratio of the absorption efficiency to the extinction
+     * efficiency
+     */
+    public final double absorption;
+
+    /**
+     * Whether photons are launched on the elliptical launch region
+     */
+    public final boolean ellipse;
+
+    // Quadratic form of the launch region, which is 1 on its boundary, and the largest distance of the boundary to
+    // the contrail center
+    public final double boundYY;
+    public final double boundYZ;
+    public final double boundZZ;
+    public final double boundRadius;
+
+    /**
+     * Compiles the parameters. The physical parameters of the contrail have to be initialized, see
+     * {@link Contrail#initializePhysicalParameters(de.tudresden.aerospace.contrails.Modeling.Parameters.PhysicalParameters)}.
+     *
+     * @param params       The parameters of the contrail
+     * @param launchRegion The region on whose boundary photons are launched
+     */
+    public CompiledContrail(DiffuseParameters params, LaunchRegion launchRegion) {
+        this.sigmaH = params.getSigmaH();
+        this.sigmaV = params.getSigmaV();
+        this.sigmaS = params.getSigmaS();
+        this.incidentRadius = params.getIncidentRadius();
+        this.launchSigmas = params.getLaunchSigmasOrDefault();
+
+        double absorptionFactor = params.getAbsorptionFactor();
+        double extinctionFactor = absorptionFactor + params.getScatteringFactor();
+        this.absorption = absorptionFactor / extinctionFactor;
+
+        // Iextinction helpers
+        this.detsigma = sigmaH * sigmaV - sigmaS * sigmaS;
+        this.hDetsigma = 1.0 / (2.0 * detsigma);
+        double dropletRadius = params.getDropletRadius();
+        this.c1 = -1. * extinctionFactor * dropletRadius * dropletRadius * params.getNumIceParticles() /
+                (params.getDistance() * 2 * Math.sqrt(detsigma));
+
+        // Launch region helpers
+        this.ellipse = launchRegion == LaunchRegion.ELLIPSE;
+        if (ellipse) {
+            // Mahalanobis distance of launchSigmas, boundary of the inverse covariance scaled by launchSigmas^2
+            double k = launchSigmas;
+            this.boundYY = sigmaV / (detsigma * k * k);
+            this.boundYZ = -sigmaS / (detsigma * k * k);
+            this.boundZZ = sigmaH / (detsigma * k * k);
+
+            // Semi-major axis from the largest eigenvalue of the covariance
+            double mean = (sigmaH + sigmaV) / 2;
+            double diff = (sigmaH - sigmaV) / 2;
+            this.boundRadius = k * Math.sqrt(mean + Math.sqrt(diff * diff + sigmaS * sigmaS));
+        } else {
+            this.boundYY = 1.0 / (incidentRadius * incidentRadius);
+            this.boundYZ = 0.0;
+            this.boundZZ = this.boundYY;
+            this.boundRadius = incidentRadius;
+        }
+    }
+
+    /**
+     * Computes the standard deviation of the ice crystal distribution across a direction in the y-z plane, see
+     * {@link #plumeSpread(double, double, double, double, double)}.
+     *
+     * @param dy y-component of the unit vector of the direction
+     * @param dz z-component of the unit vector of the direction
+     * @return The standard deviation
+     */
+    public double plumeSpread(double dy, double dz) {
+        return plumeSpread(sigmaH, sigmaV, sigmaS, dy, dz);
+    }
+
+    /**
+     * Computes the half-width of the elliptical launch region perpendicular to a direction in the y-z plane.
+     *
+     * @param dy y-component of the unit vector of the direction
+     * @param dz z-component of the unit vector of the direction
+     * @return The half-width
+     */
+    public double ellipseHalfWidth(double dy, double dz) {
+        return launchSigmas * plumeSpread(dy, dz);
+    }
+
+    /**
+     * Computes the standard deviation of the ice crystal distribution across a direction in the y-z plane, i.e. along
+     * its normal {@code n = (dz, -dy)}. The optical depth along the flight paths in this direction is normally
+     * distributed in their offset from the contrail center with this standard deviation.
+     *
+     * @param sigmaH Horizontal variance of the ice crystal distribution
+     * @param sigmaV Vertical variance of the ice crystal distribution
+     * @param sigmaS Covariance of the ice crystal distribution
+     * @param dy     y-component of the unit vector of the direction
+     * @param dz     z-component of the unit vector of the direction
+     * @return The standard deviation
+     */
+    static double plumeSpread(double sigmaH, double sigmaV, double sigmaS, double dy, double dz) {
+        return Math.sqrt(sigmaH * dz * dz - 2 * sigmaS * dy * dz + sigmaV * dy * dy);
+    }
+}
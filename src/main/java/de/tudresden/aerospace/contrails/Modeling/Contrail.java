@@ -25,9 +25,12 @@ package de.tudresden.aerospace.contrails.Modeling;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
 import de.tudresden.aerospace.contrails.Modeling.Parameters.PhysicalParameters;
 import de.tudresden.aerospace.contrails.MonteCarlo.Distribution;
+import de.tudresden.aerospace.contrails.MonteCarlo.QuasiRandomStream;
 
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Groups functionality for running Monte Carlo simulations on a contrail's interaction with radiation. This abstract
@@ -56,16 +59,80 @@ public abstract class Contrail {
      */
     protected Distribution scPhFun;
 
+    /**
+     * Selects how scattering angles are drawn, see {@link #nextScatteringAngle()}
+     */
+    protected PhaseFunctionSampler phaseFunctionSampler = PhaseFunctionSampler.BINNED;
+
+    /**
+     * Selects how free path lengths are found, see {@link #getFreePathSampler()}
+     */
+    protected FreePathSampler freePathSampler = FreePathSampler.SECANT;
+
+    /**
+     * Precision of the error functions, see {@link #getErfPrecision()}
+     */
+    protected ErfPrecision erfPrecision = ErfPrecision.FAST;
+
+    /**
+     * Whether absorption reduces the weight of photons instead of terminating them, see {@link #isImplicitAbsorption()}
+     */
+    protected boolean implicitAbsorption = false;
+
+    /**
+     * Weight below which photons are subject to Russian roulette with implicit absorption
+     */
+    protected double rouletteThreshold;
+
+    /**
+     * Whether the first interaction of every photon is forced, see {@link #isForcedCollision()}
+     */
+    protected boolean forcedCollision = false;
+
+    /**
+     * Whether the expected escape after every interaction is tallied, see {@link #isNextEvent()}
+     */
+    protected boolean nextEvent = false;
+
+    /**
+     * Width of the bins of the scattering angle in degrees, only initialized with next-event estimation
+     */
+    protected int resolutionS;
+
+    /**
+     * Selects how the random numbers of the photons are generated, see {@link #getSamplingMode()}
+     */
+    protected SamplingMode samplingMode = SamplingMode.PSEUDO;
+
+    /**
+     * Region on whose boundary photons are launched, see {@link #getLaunchRegion()}
+     */
+    protected LaunchRegion launchRegion = LaunchRegion.CIRCLE;
+
+    /**
+     * Selects how the launch offsets of the photons are distributed, see {@link #getLaunchSampling()}
+     */
+    protected LaunchSampling launchSampling = LaunchSampling.UNIFORM;
+
+    /**
+     * Shared lookup table of the discretized phase function, only initialized for {@link PhaseFunctionSampler#TABLE}
+     */
+    protected HenyeyGreenstein scPhTable;
+
+    /**
+     * Cached asymmetry factor for {@link PhaseFunctionSampler#ANALYTIC}
+     */
+    protected double asymmetry;
+
     /**
      * For generating random numbers
      */
     protected Random rand;
 
-    // The following variables cache computation results for better performance
-    protected double detsigma;
-    protected double hDetsigma;
-    protected double c1;
-    protected double sqrtPi;
+    /**
+     * The parameters used during the integration of photons, compiled into primitive fields, see {@link #getCompiled()}
+     */
+    protected CompiledContrail compiled;
 
     /**
      * Parameterless constructor to allow subclasses to do their own construction.
@@ -120,14 +187,7 @@ public abstract class Contrail {
      * saves resources and reduces execution time.
      */
     protected void preComputeHelperVariables() {
-        // Iextinction helpers
-        this.detsigma = params.getSigmaH() * params.getSigmaV() - Math.pow(params.getSigmaS(), 2);
-        this.hDetsigma = 1.0 / (2.0 * detsigma);
-        this.c1 = -1. * ((double) params.getAbsorptionFactor() + params.getScatteringFactor()) *
-                params.getDropletRadius() * params.getDropletRadius() * params.getNumIceParticles() /
-                (params.getDistance() * 2 * Math.sqrt(detsigma));
-
-        this.sqrtPi = Math.sqrt(Math.PI);
+        this.compiled = new CompiledContrail(params, launchRegion);
     }
 
     /**
@@ -180,6 +240,192 @@ public abstract class Contrail {
         }
 
         this.scPhFun = new Distribution(sca_ang, sca_p);
+
+        if (params.getPhaseFunction() != null) {
+            this.phaseFunctionSampler = PhaseFunctionSampler.fromName(params.getPhaseFunction());
+            if (this.phaseFunctionSampler == null)
+                throw new IllegalArgumentException("Unknown phase function sampler " + params.getPhaseFunction());
+        }
+        if (params.getFreePath() != null) {
+            this.freePathSampler = FreePathSampler.fromName(params.getFreePath());
+            if (this.freePathSampler == null)
+                throw new IllegalArgumentException("Unknown free path sampler " + params.getFreePath());
+        }
+        if (params.getErfPrecision() != null) {
+            this.erfPrecision = ErfPrecision.fromName(params.getErfPrecision());
+            if (this.erfPrecision == null)
+                throw new IllegalArgumentException("Unknown error function precision " + params.getErfPrecision());
+        }
+        if (params.getSampling() != null) {
+            this.samplingMode = SamplingMode.fromName(params.getSampling());
+            if (this.samplingMode == null)
+                throw new IllegalArgumentException("Unknown sampling mode " + params.getSampling());
+        }
+        if (params.getLaunchRegion() != null) {
+            this.launchRegion = LaunchRegion.fromName(params.getLaunchRegion());
+            if (this.launchRegion == null)
+                throw new IllegalArgumentException("Unknown launch region " + params.getLaunchRegion());
+        }
+        // The first secant step of 2.01 * boundRadius overshoots the chords of the ellipse
+        if (this.launchRegion == LaunchRegion.ELLIPSE && this.freePathSampler != FreePathSampler.ANALYTIC)
+            throw new IllegalArgumentException("Launch region " + LaunchRegion.ELLIPSE.getName()
+                    + " requires free path sampler " + FreePathSampler.ANALYTIC.getName());
+        if (params.getLaunchSampling() != null) {
+            this.launchSampling = LaunchSampling.fromName(params.getLaunchSampling());
+            if (this.launchSampling == null)
+                throw new IllegalArgumentException("Unknown launch sampling " + params.getLaunchSampling());
+        }
+        this.implicitAbsorption = Boolean.TRUE.equals(params.getImplicitAbsorption());
+        this.rouletteThreshold = params.getRouletteThresholdOrDefault();
+        this.forcedCollision = Boolean.TRUE.equals(params.getForcedCollision());
+        this.nextEvent = Boolean.TRUE.equals(params.getNextEvent());
+        // The expected escape is exact and only matches the photons leaving with the exact free path
+        if (this.nextEvent && this.freePathSampler != FreePathSampler.ANALYTIC)
+            throw new IllegalArgumentException("Next-event estimation requires free path sampler "
+                    + FreePathSampler.ANALYTIC.getName());
+        if (this.nextEvent)
+            this.resolutionS = params.getResolutionS();
+        if (this.phaseFunctionSampler == PhaseFunctionSampler.TABLE)
+            this.scPhTable = HenyeyGreenstein.getTable(params.getG(), params.getNumSca());
+        this.asymmetry = params.getG();
+    }
+
+    /**
+     * Gets the method used to sample scattering angles.
+     *
+     * @return The sampling method configured by the parameter {@code phase_function}
+     */
+    public PhaseFunctionSampler getPhaseFunctionSampler() {
+        return this.phaseFunctionSampler;
+    }
+
+    /**
+     * Gets the method used to find the distance to the next interaction of a photon.
+     *
+     * @return The sampling method configured by the parameter {@code free_path}
+     */
+    public FreePathSampler getFreePathSampler() {
+        return this.freePathSampler;
+    }
+
+    /**
+     * Gets the precision of the error functions used for the extinction integral and the free path sampling.
+     *
+     * @return The precision configured by the parameter {@code erf_precision}
+     */
+    public ErfPrecision getErfPrecision() {
+        return this.erfPrecision;
+    }
+
+    /**
+     * Gets the method used to generate the random numbers of the photons. Quasi-random modes are implemented by the
+     * simulation, which passes a {@code QuasiRandomStream} to
+     * {@link #singlePhotonIntegration(double, double, PhotonResult, RandomGenerator)}.
+     *
+     * @return The sampling mode configured by the parameter {@code sampling}
+     */
+    public SamplingMode getSamplingMode() {
+        return this.samplingMode;
+    }
+
+    /**
+     * Gets the region on whose boundary photons are launched and which they leave when their next interaction would
+     * lie outside of it.
+     *
+     * @return The region configured by the parameter {@code launch_region}
+     */
+    public LaunchRegion getLaunchRegion() {
+        return this.launchRegion;
+    }
+
+    /**
+     * Checks whether next-event estimation is enabled. In this mode, the probability of the photon to scatter at an
+     * interaction and to escape the launch region without further interaction is integrated over the phase function
+     * by {@link #accumulateNextEvent(double, double, double, double, double, double, PhotonResult, RandomGenerator)}
+     * and tallied into {@link PhotonResult#expectedBins}, {@link PhotonResult#expectedUp} and
+     * {@link PhotonResult#expectedDown}. The sum over all interactions has the same expectation as the actual escape
+     * of the photon, but a much lower variance. The transport of the photon is not changed apart from the random
+     * numbers consumed by the estimator, which are drawn as in {@link #nextAuxiliaryUniform(RandomGenerator)}.
+     *
+     * @return {@code true} if configured by the parameter {@code next_event}
+     */
+    public boolean isNextEvent() {
+        return this.nextEvent;
+    }
+
+    /**
+     * Gets the method used to distribute the offsets of the flight paths of the photons from the contrail center across
+     * the launch region. With {@link LaunchSampling#OPTICAL_DEPTH}, every photon starts with the ratio of the uniform
+     * to the sampled density as weight, see {@link #launchWeight(double, double)}.
+     *
+     * @return The sampling method configured by the parameter {@code launch_sampling}
+     */
+    public LaunchSampling getLaunchSampling() {
+        return this.launchSampling;
+    }
+
+    /**
+     * Checks whether the photons carry statistical weights, which is the case with implicit absorption, forced
+     * collisions or importance sampled launch offsets. Weighted photons are only supported by
+     * {@link #singlePhotonIntegration(double, double, PhotonResult, RandomGenerator)}.
+     *
+     * @return {@code true} if photons are weighted, {@code false} otherwise
+     */
+    public boolean hasWeightedPhotons() {
+        return implicitAbsorption || forcedCollision || launchSampling != LaunchSampling.UNIFORM;
+    }
+
+    /**
+     * Checks whether implicit absorption is enabled. In this mode, a photon is never terminated by absorption. Instead,
+     * the absorbed fraction of its weight is tallied in {@link PhotonResult#absorbedWeight} at every interaction and
+     * the photon scatters with the remaining weight. Photons whose weight drops below {@link #getRouletteThreshold()}
+     * survive Russian roulette with a probability of their weight divided by the threshold and continue with the
+     * threshold as weight. Terminated photons are reported like absorbed photons with a weight of 0.
+     *
+     * @return {@code true} if configured by the parameter {@code implicit_absorption}
+     */
+    public boolean isImplicitAbsorption() {
+        return this.implicitAbsorption;
+    }
+
+    /**
+     * Gets the weight below which photons are subject to Russian roulette with implicit absorption.
+     *
+     * @return The threshold configured by the parameter {@code roulette_threshold}
+     */
+    public double getRouletteThreshold() {
+        return this.rouletteThreshold;
+    }
+
+    /**
+     * Checks whether forced collisions are enabled. In this mode, the probability of a photon to cross the launch
+     * region without interaction is computed from the extinction integral along its entry line and credited to
+     * {@link PhotonResult#transmittedWeight}. The first free path is then sampled conditioned on an interaction within
+     * the launch region and the photon continues with the interaction probability as weight. This avoids simulating
+     * photons that pass through the thin outer parts of the contrail without any effect.
+     *
+     * @return {@code true} if configured by the parameter {@code forced_collision}
+     */
+    public boolean isForcedCollision() {
+        return this.forcedCollision;
+    }
+
+    /**
+     * Gets the scattering angle at the given cumulative probability of the scattering phase function as sampled by the
+     * configured {@link PhaseFunctionSampler}, i.e. its quantile function.
+     *
+     * @param u The cumulative probability from [0, 1)
+     * @return The scattering angle in radians
+     */
+    protected double scatteringAngleQuantile(double u) {
+        switch (phaseFunctionSampler) {
+            case TABLE:
+                return this.scPhTable.sample(u);
+            case ANALYTIC:
+                return HenyeyGreenstein.sampleAngle(this.asymmetry, u);
+            default:
+                return this.scPhFun.sample(u);
+        }
     }
 
     /**
@@ -192,6 +438,94 @@ public abstract class Contrail {
         return this.scPhFun;
     }
 
+    /**
+     * Draws a uniformly distributed random number from [0, 1). Uses {@link ThreadLocalRandom} in multi-threaded mode
+     * for better performance and the (possibly seeded) {@link #rand} object otherwise.
+     *
+     * @return The random number
+     */
+    protected double nextUniform() {
+        if (multiThreadedMode && !deterministicMode)
+            return ThreadLocalRandom.current().nextDouble();
+
+        return this.rand.nextDouble();
+    }
+
+    /**
+     * Draws a uniformly distributed random number from [0, 1) from the given stream or, if it is {@code null}, as
+     * described in {@link #nextUniform()}.
+     *
+     * @param stream The random number stream of the current task or {@code null}
+     * @return The random number
+     */
+    protected double nextUniform(RandomGenerator stream) {
+        if (stream != null)
+            return stream.nextDouble();
+
+        return nextUniform();
+    }
+
+    /**
+     * Draws a uniformly distributed random number like {@link #nextUniform(RandomGenerator)}, which is not assigned to
+     * a coordinate of the point of a {@link QuasiRandomStream}. Intended for random numbers that are not drawn in the
+     * same order for every photon, so that they do not shift the coordinates of the quantities drawn after them.
+     *
+     * @param stream The random number stream of the current task or {@code null}
+     * @return The random number
+     */
+    protected double nextAuxiliaryUniform(RandomGenerator stream) {
+        if (stream instanceof QuasiRandomStream)
+            return ((QuasiRandomStream) stream).nextPadding();
+
+        return nextUniform(stream);
+    }
+
+    /**
+     * Skips a random number of the given stream that is not needed by the current interaction. Only the coordinate of
+     * a {@link QuasiRandomStream} is skipped, so that the following quantities keep their coordinates. Pseudo-random
+     * streams are left unchanged.
+     *
+     * @param stream The random number stream of the current task or {@code null}
+     */
+    protected void skipUniform(RandomGenerator stream) {
+        if (stream instanceof QuasiRandomStream)
+            ((QuasiRandomStream) stream).skip();
+    }
+
+    /**
+     * Draws a random scattering angle from the scattering phase function with the configured
+     * {@link PhaseFunctionSampler}. The binned distribution uses its thread-safe sampling method in multi-threaded mode,
+     * analogous to {@link #nextUniform()}.
+     *
+     * @return The scattering angle in radians
+     */
+    protected double nextScatteringAngle() {
+        return nextScatteringAngle(null);
+    }
+
+    /**
+     * Draws a random scattering angle like {@link #nextScatteringAngle()}, but takes the random number from the given
+     * stream if it is not {@code null}.
+     *
+     * @param stream The random number stream of the current task or {@code null}
+     * @return The scattering angle in radians
+     */
+    protected double nextScatteringAngle(RandomGenerator stream) {
+        switch (this.phaseFunctionSampler) {
+            case TABLE:
+                return this.scPhTable.sample(nextUniform(stream));
+            case ANALYTIC:
+                return HenyeyGreenstein.sampleAngle(this.asymmetry, nextUniform(stream));
+            default:
+                if (stream != null)
+                    return this.scPhFun.sample(stream.nextDouble());
+                if (multiThreadedMode && !deterministicMode)
+                    return this.scPhFun.randomThreadSafe();
+
+                return this.scPhFun.random();
+        }
+    }
+
     /**
      * Implements the Henyey-Greenstein phase function for approximation of radiation scattering by particles.
      *
@@ -202,7 +536,7 @@ public abstract class Contrail {
      * Diffuse radiation in the Galaxy (Paper)</a> for more details
      */
     protected double scatPhaseFun(double g, double rad_ang) {
-        return (1. - Math.pow(g, 2)) / Math.pow(1. + Math.pow(g, 2) - 2. * g * Math.cos(rad_ang), 1.5);
+        return HenyeyGreenstein.phaseFunction(g, rad_ang);
     }
 
     /**
@@ -219,7 +553,7 @@ public abstract class Contrail {
      */
     protected double F(double a, double b, double c, double x) {
         double wa = Math.sqrt(a);
-        return Math.sqrt(Math.PI) / (2. * wa) * Math.exp(b * b / (4 * a) + c) * ErrorFunction.erf(wa * x - b / (2 * wa));
+        return Math.sqrt(Math.PI) / (2. * wa) * Math.exp(b * b / (4 * a) + c) * erfPrecision.erf(wa * x - b / (2 * wa));
     }
 
     /**
@@ -236,21 +570,22 @@ public abstract class Contrail {
      */
     protected double Iextinction(double y0, double z0, double theta, double phi, double s) {
         // a = a' / 2*det(sigma^)
-        double a = hDetsigma * (params.getSigmaV() * Math.pow(Math.sin(theta), 2) * Math.pow(Math.sin(phi), 2)
-                - 2 * params.getSigmaS() * Math.sin(theta) * Math.cos(theta) * Math.sin(phi)
-                + params.getSigmaH() * Math.pow(Math.cos(theta), 2));
+        CompiledContrail cc = this.compiled;
+        double a = cc.hDetsigma * (cc.sigmaV * Math.pow(Math.sin(theta), 2) * Math.pow(Math.sin(phi), 2)
+                - 2 * cc.sigmaS * Math.sin(theta) * Math.cos(theta) * Math.sin(phi)
+                + cc.sigmaH * Math.pow(Math.cos(theta), 2));
         // b = -b' / 2*det(sigma^)
-        double b = -hDetsigma * (2 * (params.getSigmaV() * y0 - params.getSigmaS() * z0) * Math.sin(theta) * Math.sin(phi)
-                + 2 * (params.getSigmaH() * z0 - params.getSigmaS() * y0) * Math.cos(theta));
+        double b = -cc.hDetsigma * (2 * (cc.sigmaV * y0 - cc.sigmaS * z0) * Math.sin(theta) * Math.sin(phi)
+                + 2 * (cc.sigmaH * z0 - cc.sigmaS * y0) * Math.cos(theta));
         // c = -c' / 2*det(sigma^)
-        double c = -hDetsigma * (params.getSigmaV() * y0 * y0 - 2 * params.getSigmaS() * y0 * z0 + params.getSigmaH() * z0 * z0);
+        double c = -cc.hDetsigma * (cc.sigmaV * y0 * y0 - 2 * cc.sigmaS * y0 * z0 + cc.sigmaH * z0 * z0);
 
         double wa = Math.sqrt(a);
-        double f0 = sqrtPi / (2. * wa) * Math.exp(b * b / (4 * a) + c);
-        double f1 = f0 * ErrorFunction.erf(wa * s - b / (2 * wa));
-        double f2 = f0 * ErrorFunction.erf(-b / (2 * wa));
+        double f0 = CompiledContrail.SQRT_PI / (2. * wa) * Math.exp(b * b / (4 * a) + c);
+        double f1 = f0 * erfPrecision.erf(wa * s - b / (2 * wa));
+        double f2 = f0 * erfPrecision.erf(-b / (2 * wa));
 
-        return 1.0 - Math.exp(c1 * (f1 - f2));
+        return 1.0 - Math.exp(cc.c1 * (f1 - f2));
     }
 
     /**
@@ -265,6 +600,37 @@ public abstract class Contrail {
      * events. If the photon is absorbed, theta and phi are -1
      */
     public RePhoton singlePhotonIntegration(double theta, double phi) {
+        PhotonResult res = new PhotonResult();
+        singlePhotonIntegration(theta, phi, res);
+        return new RePhoton(res.theta, res.phi, res.scatEvents);
+    }
+
+    /**
+     * Allocation-free variant of {@link #singlePhotonIntegration(double, double)}, which writes the result into a
+     * caller-owned {@link PhotonResult} instead of returning a new object. Intended for the inner loop of the
+     * simulation, where the same result object is reused for every photon.
+     *
+     * @param theta Angle to z-coordinate axis (upwards vector). Range: [0, PI]
+     * @param phi   Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI]
+     * @param out   The result object to write the scattered photon's direction and number of scattering events into.
+     *              If the photon is absorbed, theta and phi are set to -1
+     */
+    public void singlePhotonIntegration(double theta, double phi, PhotonResult out) {
+        singlePhotonIntegration(theta, phi, out, null);
+    }
+
+    /**
+     * Variant of {@link #singlePhotonIntegration(double, double, PhotonResult)}, which draws all random numbers from the
+     * given stream. This makes the result independent of the thread the photon is integrated on, so that parallel runs
+     * are reproducible.
+     *
+     * @param theta  Angle to z-coordinate axis (upwards vector). Range: [0, PI]
+     * @param phi    Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI]
+     * @param out    The result object to write the scattered photon's direction and number of scattering events into
+     * @param stream The random number stream to use or {@code null} to use the generator selected by the contrail's
+     *               mode, see {@link #nextUniform()}
+     */
+    public void singlePhotonIntegration(double theta, double phi, PhotonResult out, RandomGenerator stream) {
         // new algorithm with analytical integration along flight path
         // instead of doing a thousand and one step
         //
@@ -279,26 +645,63 @@ public abstract class Contrail {
 
         // for counting scattering events
         int Scat_events = 0;
+        out.freePaths = 0;
+        out.rootIterations = 0;
+        out.transmittedWeight = 0.0;
+        if (nextEvent) {
+            int numBins = 180 / resolutionS;
+            if (out.expectedBins == null || out.expectedBins.length != numBins)
+                out.expectedBins = new double[numBins];
+            else
+                Arrays.fill(out.expectedBins, 0.0);
+            out.expectedUp = 0.0;
+            out.expectedDown = 0.0;
+        }
 
         // randomly choose starting place along line perpendicular to line starting in
         // center of contrail and going in the chosen direction. +-r_incident in both
         // directions from crosssection
         // Berechnung des Aufpunktes c ----- Aufsetzpunkt = START AM KREISBOGEN
+        CompiledContrail cc = this.compiled;
         double yh = Math.sin(theta) * Math.sin(phi);
         double zh = Math.cos(theta);
-        double direction = Math.acos(zh / Math.pow(Math.pow(yh, 2) + Math.pow(zh, 2), 0.5));
 
-        // Use ThreadLocalRandom in MT mode for better performance
-        double alpha = 0.0;
-        if (multiThreadedMode && !deterministicMode) {
-            alpha = Math.asin(ThreadLocalRandom.current().nextDouble() * 2 - 1);
-        } else {
-            alpha = Math.asin(this.rand.nextDouble() * 2 - 1);
-        }
+        // Offset of the flight path from the contrail center relative to the half-width of the launch region
+        double offset = nextUniform(stream) * 2 - 1;
+        double weight = 1.0; // statistical weight, only differs from 1 with weighted photons, see hasWeightedPhotons()
 
         // this is the starting place
-        double yPhot = Math.sin(direction - alpha) * params.getIncidentRadius(); //r.incident länge querachse contrail (3sigma)
-        double zPhot = Math.cos(direction - alpha) * params.getIncidentRadius(); //alpha winkel zur contrail längsachse S.88
+        double yPhot;
+        double zPhot;
+        if (launchRegion == LaunchRegion.ELLIPSE) {
+            // Unit vector from the contrail center towards the source in the y-z plane
+            double norm = 1 / Math.sqrt(yh * yh + zh * zh);
+            double dy = yh * norm;
+            double dz = zh * norm;
+
+            if (launchSampling == LaunchSampling.OPTICAL_DEPTH) {
+                double rho = cc.launchSigmas;
+                offset = launchOffset(offset, rho);
+                weight = launchWeight(offset, rho);
+            }
+            double t = ellipseHalfWidth(dy, dz) * offset;
+            double h = ellipseEntry(dy, dz, t);
+            yPhot = t * dz + h * dy;
+            zPhot = h * dz - t * dy;
+        } else {
+            double direction = Math.acos(zh / Math.pow(Math.pow(yh, 2) + Math.pow(zh, 2), 0.5));
+
+            if (launchSampling == LaunchSampling.OPTICAL_DEPTH) {
+                double norm = 1 / Math.sqrt(yh * yh + zh * zh);
+                double rho = cc.incidentRadius / cc.plumeSpread(yh * norm, zh * norm);
+                offset = launchOffset(offset, rho);
+                weight = launchWeight(offset, rho);
+            }
+            double alpha = Math.asin(offset);
+
+            yPhot = Math.sin(direction - alpha) * cc.incidentRadius; //r.incident länge querachse contrail (3sigma)
+            zPhot = Math.cos(direction - alpha) * cc.incidentRadius; //alpha winkel zur contrail längsachse S.88
+        }
 
         //hier erhalten theta und phi neue Bedeutung (Wohin geht es)
         theta = Math.PI - theta;
@@ -306,16 +709,23 @@ public abstract class Contrail {
         //yPhot=yPhot+this.d*Math.sin(theta)*Math.sin(phi);
         //zPhot=zPhot+this.d*Math.cos(theta);
 
+        // The direction of flight is tracked as a unit vector, so that trigonometric functions are only needed for
+        // the scattering angles. theta and phi are recovered from the vector when the photon leaves the contrail.
+        double ux = Math.sin(theta) * Math.cos(phi);
+        double uy = Math.sin(theta) * Math.sin(phi);
+        double uz = Math.cos(theta);
+
         double Zs = 0.; // random number determining the distance
         double Zas = 0.; // random number chosing between absorption and scattering.
+        boolean force = forcedCollision; // whether the next interaction is forced
+        double absorbedWeight = 0.0;
 
         // for Nullstellensuche
         double ds0 = 0;
-        double ds = 2.01 * params.getIncidentRadius(); // first step width
+        double ds = 2.01 * cc.boundRadius; // first step width
         double ds1 = 0;
         double fds = 0;
         double fds0 = 0;
-        double fds1 = 0;
         double fprime = 0;
 
         double theta_s = 0.;
@@ -327,75 +737,485 @@ public abstract class Contrail {
         double y_prime = 0.;
         double z_prime = 0.;
 
-        double absorption = params.getAbsorptionFactor() / ((double) params.getAbsorptionFactor() + params.getScatteringFactor());
+        double sigmaH = cc.sigmaH;
+        double sigmaV = cc.sigmaV;
+        double sigmaS = cc.sigmaS;
+        double hDetsigma = cc.hDetsigma;
+        double c1SqrtPi = cc.c1 * CompiledContrail.SQRT_PI;
+        double absorption = cc.absorption;
 
         // start photon lifetime
-        while ((Math.pow(yPhot, 2) + Math.pow(zPhot, 2)) / Math.pow(params.getIncidentRadius(), 2) <= 1.01) {
-            // Use ThreadLocalRandom in MT mode for better performance
-            if (multiThreadedMode && !deterministicMode) {
-                Zs = ThreadLocalRandom.current().nextDouble();
-            } else {
-                Zs = this.rand.nextDouble();
+        while (isInLaunchRegion(yPhot, zPhot)) {
+            Zs = nextUniform(stream);
+
+            // Coefficients of the extinction integral along the current flight segment, see Iextinction(). They only
+            // depend on position and direction, so only the s-dependent part is evaluated during the root search.
+            double a = hDetsigma * (sigmaV * uy * uy - 2 * sigmaS * uy * uz + sigmaH * uz * uz);
+            double b = -hDetsigma * (2 * (sigmaV * yPhot - sigmaS * zPhot) * uy + 2 * (sigmaH * zPhot - sigmaS * yPhot) * uz);
+            double c = -hDetsigma * (sigmaV * yPhot * yPhot - 2 * sigmaS * yPhot * zPhot + sigmaH * zPhot * zPhot);
+            double wa = Math.sqrt(a);
+            double u0 = -b / (2 * wa);
+            double k = c1SqrtPi / (2. * wa) * Math.exp(b * b / (4 * a) + c);
+            out.freePaths++;
+
+            if (force) {
+                // The probability to leave the launch region without interaction is credited to transmission and the
+                // free path is sampled conditioned on an interaction, which divides the distribution function by the
+                // interaction probability
+                force = false;
+                double pInteract = segmentExtinction(wa, u0, erfPrecision.erf(u0), k,
+                        launchRegionExit(yPhot, zPhot, uy, uz));
+                if (pInteract > 0.0) {
+                    out.transmittedWeight = weight * (1.0 - pInteract);
+                    weight *= pInteract;
+                    Zs *= pInteract;
+                }
             }
 
-            // Nullstelle von this.Iextinction(yPhot, zPhot, theta, phi, ds) - Zs;
-            ds0 = 0.;
-            ds = 2.01 * params.getIncidentRadius(); // first step width
-            int in = 0;
-            while ((ds - ds0) > 0.01) {
-                in = in + 1;
-                fds0 = this.Iextinction(yPhot, zPhot, theta, phi, ds0) - Zs;
-                fds = this.Iextinction(yPhot, zPhot, theta, phi, ds) - Zs;
-                fprime = (fds - fds0) / (ds - ds0);
-                ds1 = ds - fds / fprime;
-                ds0 = ds;
-                ds = ds1;
+            ds = freePathSampler == FreePathSampler.ANALYTIC ? analyticFreePath(wa, u0, k, Zs) : Double.NaN;
+            if (Double.isNaN(ds)) {
+                double erf0 = erfPrecision.erf(u0);
+
+                // Nullstelle von this.Iextinction(yPhot, zPhot, theta, phi, ds) - Zs;
+                // Iextinction(0) is 0 and the value at ds0 is the value at ds of the previous iteration
+                ds0 = 0.;
+                ds = 2.01 * cc.boundRadius; // first step width
+                fds0 = -Zs;
+                while ((ds - ds0) > 0.01) {
+                    fds = segmentExtinction(wa, u0, erf0, k, ds) - Zs;
+                    fprime = (fds - fds0) / (ds - ds0);
+                    ds1 = ds - fds / fprime;
+                    ds0 = ds;
+                    fds0 = fds;
+                    ds = ds1;
+                    out.rootIterations++;
+                }
+            } else if (ds == Double.POSITIVE_INFINITY) {
+                // No interaction along the remaining flight path, the photon leaves the contrail
+                break;
             }
 
-            // System.out.println("in "+in);
-            yPhot = yPhot + ds * Math.sin(theta) * Math.sin(phi);
-            zPhot = zPhot + ds * Math.cos(theta);
+            yPhot = yPhot + ds * uy;
+            zPhot = zPhot + ds * uz;
+
+            if (isInLaunchRegion(yPhot, zPhot)) {
+                // The weight that scatters at this interaction, equal to the remaining weight of implicit absorption
+                if (nextEvent)
+                    accumulateNextEvent(yPhot, zPhot, ux, uy, uz, weight * (1 - absorption), out, stream);
+
+                if (implicitAbsorption) {
+                    // The absorbed fraction of the weight is tallied and the photon always scatters
+                    absorbedWeight += weight * absorption;
+                    weight -= weight * absorption;
 
-            if ((Math.pow(yPhot, 2) + Math.pow(zPhot, 2)) / Math.pow(params.getIncidentRadius(), 2) <= 1.01) {
-                // Use ThreadLocalRandom in MT mode for better performance
-                if (multiThreadedMode && !deterministicMode) {
-                    Zas = ThreadLocalRandom.current().nextDouble();
+                    // Russian roulette terminates photons of low weight without biasing the expected weight
+                    if (weight < rouletteThreshold) {
+                        if (nextAuxiliaryUniform(stream) * rouletteThreshold >= weight) {
+                            out.set(-1., -1., Scat_events, 0.0, absorbedWeight);
+                            return;
+                        }
+                        weight = rouletteThreshold;
+                    }
+                    // The coordinate of the choice between absorption and scattering is not needed
+                    skipUniform(stream);
+                    Zas = 1.0;
                 } else {
-                    Zas = this.rand.nextDouble();
+                    Zas = nextUniform(stream);
                 }
 
                 if (Zas < absorption) {
-                    return new RePhoton(-1., -1., Scat_events); // -1, -1 as indicator for absorption
+                    out.set(-1., -1., Scat_events, 0.0, absorbedWeight + weight); // -1, -1 as indicator for absorption
+                    return;
                 } else {
                     Scat_events = Scat_events + 1;
 
-                    // Use ThreadLocalRandom in MT mode for better performance
-                    if (multiThreadedMode && !deterministicMode) {
-                        theta_s = this.scPhFun.randomThreadSafe();
-                        phi_s = ThreadLocalRandom.current().nextDouble() * 2 * Math.PI;
-                    } else {
-                        theta_s = this.scPhFun.random(); // randomly scattered according to phase function
-                        phi_s = this.rand.nextDouble() * 2 * Math.PI; // phi is equally distributed
-                    }
+                    theta_s = nextScatteringAngle(stream); // randomly scattered according to phase function
+                    phi_s = nextUniform(stream) * 2 * Math.PI; // phi is equally distributed
 
                     x_s = Math.sin(theta_s) * Math.cos(phi_s);
                     y_s = Math.sin(theta_s) * Math.sin(phi_s);
                     z_s = Math.cos(theta_s);
-                    // calculate new direction
-                    x_prime = (1 - Math.cos(theta)) * (x_s * Math.pow(Math.sin(phi), 2) - y_s * Math.sin(phi) * Math.cos(phi)) + Math.cos(theta) * x_s + Math.sin(theta) * Math.cos(phi) * z_s;
-                    y_prime = (1 - Math.cos(theta)) * (y_s * Math.pow(Math.cos(phi), 2) - x_s * Math.sin(phi) * Math.cos(phi)) + Math.cos(theta) * y_s + Math.sin(theta) * Math.sin(phi) * z_s;
-                    z_prime = Math.cos(theta) * z_s - Math.sin(theta) * Math.cos(phi) * x_s - Math.sin(theta) * Math.sin(phi) * y_s;
-                    // new direction
-                    theta = Math.acos(z_prime);
-                    if (y_prime > 0) {
-                        phi = Math.acos(x_prime / Math.pow(Math.pow(x_prime, 2) + Math.pow(y_prime, 2), 0.5));
+                    // calculate new direction, equivalent to the rotation by theta and phi with
+                    // sin(theta)*cos(phi) = ux, sin(theta)*sin(phi) = uy, cos(theta) = uz and
+                    // (1 - cos(theta)) / sin(theta)^2 = 1 / (1 + uz)
+                    if (1 + uz > 1e-12) {
+                        double h = 1 / (1 + uz);
+                        x_prime = x_s * (uz + uy * uy * h) - y_s * ux * uy * h + ux * z_s;
+                        y_prime = y_s * (uz + ux * ux * h) - x_s * ux * uy * h + uy * z_s;
                     } else {
-                        phi = 2 * Math.PI - Math.acos(x_prime / Math.pow(Math.pow(x_prime, 2) + Math.pow(y_prime, 2), 0.5));
+                        // Flying straight down, the rotation degenerates to a reflection (phi = 0)
+                        x_prime = -x_s;
+                        y_prime = y_s;
                     }
+                    z_prime = uz * z_s - ux * x_s - uy * y_s;
+
+                    // new direction, normalized to prevent rounding errors from accumulating
+                    double norm = 1 / Math.sqrt(x_prime * x_prime + y_prime * y_prime + z_prime * z_prime);
+                    ux = x_prime * norm;
+                    uy = y_prime * norm;
+                    uz = z_prime * norm;
                 }
             }
         }
-        return new RePhoton(theta, phi, Scat_events);
+
+        // Unscattered photons keep their original direction
+        if (Scat_events > 0) {
+            theta = Math.acos(uz);
+            phi = azimuth(ux, uy);
+        }
+        out.set(theta, phi, Scat_events, weight, absorbedWeight);
+    }
+
+    /**
+     * Tallies the expected escape of a photon scattering at the given position for next-event estimation, see
+     * {@link #isNextEvent()}. The scattering directions are integrated with a product rule of
+     * {@link #NEXT_EVENT_POLAR} quantiles of the phase function, see {@link #scatteringAngleQuantile(double)}, and
+     * {@link #NEXT_EVENT_AZIMUTH} azimuth angles, which are shifted by a random offset each, so that the estimate is
+     * unbiased. Every direction contributes its probability to leave the launch region without interaction to the bin of
+     * its angle to the z-axis.
+     *
+     * @param y      y-coordinate of the interaction
+     * @param z      z-coordinate of the interaction
+     * @param ux     x-component of the direction of flight before the interaction
+     * @param uy     y-component of the direction of flight before the interaction
+     * @param uz     z-component of the direction of flight before the interaction
+     * @param weight The weight of the photon that scatters at the interaction
+     * @param out    The result to add the expected escape to
+     * @param stream The random number stream to use or {@code null}, see {@link #nextUniform(RandomGenerator)}
+     */
+    protected void accumulateNextEvent(double y, double z, double ux, double uy, double uz, double weight,
+                                       PhotonResult out, RandomGenerator stream) {
+        // The shifts do not take coordinates of a quasi-random point, which belong to the transport of the photon
+        double shiftPolar = nextAuxiliaryUniform(stream);
+        double shiftAzimuth = nextAuxiliaryUniform(stream);
+        double share = weight / (NEXT_EVENT_POLAR * NEXT_EVENT_AZIMUTH);
+        double h = 1 + uz > 1e-12 ? 1 / (1 + uz) : 0.0;
+        double binWidth = Math.toRadians(resolutionS);
+        int numBins = out.expectedBins.length;
+
+        for (int i = 0; i < NEXT_EVENT_POLAR; i++) {
+            double theta_s = scatteringAngleQuantile((i + shiftPolar) / NEXT_EVENT_POLAR);
+            double mu = Math.cos(theta_s);
+            double sinTheta = Math.sin(theta_s);
+            for (int j = 0; j < NEXT_EVENT_AZIMUTH; j++) {
+                double phi_s = 2 * Math.PI * (j + shiftAzimuth) / NEXT_EVENT_AZIMUTH;
+                double x_s = sinTheta * Math.cos(phi_s);
+                double y_s = sinTheta * Math.sin(phi_s);
+
+                // Same rotation into the frame of the direction of flight as in singlePhotonIntegration()
+                double vy = h > 0.0 ? y_s * (uz + ux * ux * h) - x_s * ux * uy * h + uy * mu : y_s;
+                double vz = uz * mu - ux * x_s - uy * y_s;
+
+                double escape = share * escapeProbability(y, z, vy, vz);
+                double theta = Math.acos(Math.max(-1.0, Math.min(1.0, vz)));
+                int bin = Math.min(numBins - 1, Math.max(0, (int) Math.ceil(theta / binWidth) - 1));
+                out.expectedBins[bin] += escape;
+                if (theta <= Math.PI / 2.)
+                    out.expectedUp += escape;
+                else
+                    out.expectedDown += escape;
+            }
+        }
+    }
+
+    /**
+     * Computes the probability of a photon to leave the launch region without interaction.
+     *
+     * @param y  y-coordinate of the position inside the launch region
+     * @param z  z-coordinate of the position inside the launch region
+     * @param uy y-component of the direction of flight
+     * @param uz z-component of the direction of flight
+     * @return The probability or 0 if the direction of flight is parallel to the contrail
+     */
+    protected double escapeProbability(double y, double z, double uy, double uz) {
+        CompiledContrail cc = this.compiled;
+        double sigmaH = cc.sigmaH;
+        double sigmaV = cc.sigmaV;
+        double sigmaS = cc.sigmaS;
+        double hDetsigma = cc.hDetsigma;
+        double a = hDetsigma * (sigmaV * uy * uy - 2 * sigmaS * uy * uz + sigmaH * uz * uz);
+        if (!(a > 0.0))
+            return 0.0;
+
+        double b = -hDetsigma * (2 * (sigmaV * y - sigmaS * z) * uy + 2 * (sigmaH * z - sigmaS * y) * uz);
+        double c = -hDetsigma * (sigmaV * y * y - 2 * sigmaS * y * z + sigmaH * z * z);
+        double wa = Math.sqrt(a);
+        double u0 = -b / (2 * wa);
+        double k = cc.c1 * CompiledContrail.SQRT_PI / (2. * wa) * Math.exp(b * b / (4 * a) + c);
+        return 1.0 - segmentExtinction(wa, u0, erfPrecision.erf(u0), k, launchRegionExit(y, z, uy, uz));
+    }
+
+    /**
+     * Number of quantiles of the phase function per interaction of next-event estimation
+     */
+    protected static final int NEXT_EVENT_POLAR = 4;
+
+    /**
+     * Number of azimuth angles per quantile of the phase function of next-event estimation
+     */
+    protected static final int NEXT_EVENT_AZIMUTH = 8;
+
+    /**
+     * Evaluates the extinction integral along a flight segment from precomputed coefficients. For a segment starting
+     * at {@code (y0, z0)}, this is equal to {@link #Iextinction(double, double, double, double, double)} with
+     * {@code wa = sqrt(a)}, {@code u0 = -b / (2 * wa)}, {@code erf0 = erf(u0)} and
+     * {@code k = c1 * sqrt(pi) / (2 * wa) * exp(b^2 / (4 * a) + c)}.
+     *
+     * @param wa   Square root of the coefficient a
+     * @param u0   Offset of the error function argument
+     * @param erf0 The error function at the start of the segment
+     * @param k    Scaling factor of the integral
+     * @param s    Distance s through the contrail
+     * @return The probability of interaction along the distance s
+     */
+    protected double segmentExtinction(double wa, double u0, double erf0, double k, double s) {
+        return 1.0 - Math.exp(k * (erfPrecision.erf(wa * s + u0) - erf0));
+    }
+
+    /**
+     * Finds the distance at which {@link #segmentExtinction(double, double, double, double, double)} equals the random
+     * number {@code Zs} in closed form. With {@code u = wa * s + u0}, the equation is equivalent to
+     * {@code erf(u) - erf(u0) = ln(1 - Zs) / k}. It is solved on the complementary error function of the side of the
+     * closest approach to the contrail center, which keeps the precision for photons far from the center, and the
+     * result is refined with a single Newton step on the complementary error function of the configured
+     * {@link ErfPrecision}, so that it solves the same approximated integral as the secant method.
+     *
+     * @param wa Square root of the coefficient a
+     * @param u0 Offset of the error function argument
+     * @param k  Scaling factor of the integral
+     * @param Zs The uniformly distributed random number
+     * @return The distance, {@link Double#POSITIVE_INFINITY} if the photon does not interact along the remaining
+     * flight path or {@link Double#NaN} if the Newton step does not confirm the result, in which case the caller falls
+     * back to the secant method
+     */
+    protected double analyticFreePath(double wa, double u0, double k, double Zs) {
+        if (!(wa > 0.0) || !(k <= 0.0))
+            return Double.NaN;
+        if (k == 0.0)
+            return Double.POSITIVE_INFINITY;
+
+        // Required increase of erf(u), positive because k < 0
+        double dErf = Math.log1p(-Zs) / k;
+
+        // Solve erfc(v) = y with v = -u before and v = u after the closest approach
+        double y;
+        double sign;
+        if (u0 <= 0.0) {
+            y = erfPrecision.erfc(-u0) + dErf;
+            sign = -1.0;
+            if (y >= 2.0)
+                return Double.POSITIVE_INFINITY;
+        } else {
+            y = erfPrecision.erfc(u0) - dErf;
+            sign = 1.0;
+            if (y <= 0.0)
+                return Double.POSITIVE_INFINITY;
+        }
+
+        double v = erfPrecision.erfcinv(y);
+        double dv = (erfPrecision.erfc(v) - y) * SQRT_PI_HALF * Math.exp(v * v);
+        if (!(Math.abs(dv) <= NEWTON_GUARD))
+            return Double.NaN;
+
+        return Math.max(0.0, (sign * (v + dv) - u0) / wa);
+    }
+
+    /**
+     * Largest Newton correction of the error function argument accepted by
+     * {@link #analyticFreePath(double, double, double, double)}. The remaining error after the step is of the order
+     * of its square, far below the tolerance of the secant method.
+     */
+    protected static final double NEWTON_GUARD = 1e-3;
+
+    private static final double SQRT_PI_HALF = Math.sqrt(Math.PI) / 2.0;
+
+    /**
+     * Checks whether a position lies within the launch region, with a margin of 1% of its squared size. Photons whose
+     * next interaction lies outside leave the contrail.
+     *
+     * @param y y-coordinate of the position
+     * @param z z-coordinate of the position
+     * @return {@code true} if the position is inside, {@code false} otherwise
+     */
+    protected boolean isInLaunchRegion(double y, double z) {
+        CompiledContrail cc = this.compiled;
+        return cc.boundYY * y * y + 2 * cc.boundYZ * y * z + cc.boundZZ * z * z <= LAUNCH_MARGIN;
+    }
+
+    /**
+     * Computes the distance along a flight path inside the launch region to the point where it leaves the region,
+     * with the same margin as {@link #isInLaunchRegion(double, double)}.
+     *
+     * @param y  y-coordinate of the position inside the launch region
+     * @param z  z-coordinate of the position inside the launch region
+     * @param uy y-component of the direction of flight
+     * @param uz z-component of the direction of flight
+     * @return The distance or {@link Double#NaN} if the direction of flight is parallel to the contrail
+     */
+    protected double launchRegionExit(double y, double z, double uy, double uz) {
+        CompiledContrail cc = this.compiled;
+        double a = cc.boundYY * uy * uy + 2 * cc.boundYZ * uy * uz + cc.boundZZ * uz * uz;
+        double b = cc.boundYY * y * uy + cc.boundYZ * (y * uz + z * uy) + cc.boundZZ * z * uz;
+        double c = cc.boundYY * y * y + 2 * cc.boundYZ * y * z + cc.boundZZ * z * z - LAUNCH_MARGIN;
+        if (!(a > 0.0))
+            return Double.NaN;
+
+        return (-b + Math.sqrt(Math.max(0.0, b * b - a * c))) / a;
+    }
+
+    /**
+     * Value of the quadratic form of the launch region up to which positions are considered inside, 1% above its
+     * boundary
+     */
+    private static final double LAUNCH_MARGIN = 1.01;
+
+    /**
+     * Gets the largest distance of the boundary of the launch region to the contrail center.
+     *
+     * @return The distance
+     */
+    protected double getBoundRadius() {
+        return compiled.boundRadius;
+    }
+
+    /**
+     * Computes the half-width of the elliptical launch region perpendicular to the given direction, i.e. the largest
+     * offset from the contrail center of a flight path in this direction that still crosses the region.
+     *
+     * @param dy y-component of the unit vector in the y-z plane from the contrail center towards the source
+     * @param dz z-component of the unit vector in the y-z plane from the contrail center towards the source
+     * @return The half-width
+     */
+    protected double ellipseHalfWidth(double dy, double dz) {
+        return compiled.ellipseHalfWidth(dy, dz);
+    }
+
+    /**
+     * Finds the position of a photon with the given offset from the contrail center on the boundary of the elliptical
+     * launch region, on the side of the source. The position is {@code (t * dz + h * dy, h * dz - t * dy)} with the
+     * returned distance {@code h}.
+     *
+     * @param dy y-component of the unit vector in the y-z plane from the contrail center towards the source
+     * @param dz z-component of the unit vector in the y-z plane from the contrail center towards the source
+     * @param t  Offset of the flight path from the contrail center, at most {@link #ellipseHalfWidth(double, double)}
+     * @return The distance {@code h} of the position along the direction towards the source
+     */
+    protected double ellipseEntry(double dy, double dz, double t) {
+        // Solve a * h^2 + 2 * b * h + c = 0 for the position t * n + h * d with n = (dz, -dy)
+        CompiledContrail cc = this.compiled;
+        double a = cc.boundYY * dy * dy + 2 * cc.boundYZ * dy * dz + cc.boundZZ * dz * dz;
+        double b = t * (cc.boundYY * dz * dy + cc.boundYZ * (dz * dz - dy * dy) - cc.boundZZ * dy * dz);
+        double c = t * t * (cc.boundYY * dz * dz - 2 * cc.boundYZ * dz * dy + cc.boundZZ * dy * dy) - 1;
+        return (-b + Math.sqrt(Math.max(b * b - a * c, 0.0))) / a;
+    }
+
+    /**
+     * Computes the half-width of the launch region perpendicular to the direction of incoming photons, as seen in the
+     * y-z plane. Photons are launched with an offset from the contrail center that is uniformly distributed within this
+     * half-width, so it scales the numbers of photons to the cross-section they represent.
+     *
+     * @param params The parameters of the contrail
+     * @param theta  Angle to z-coordinate axis (upwards vector). Range: [0, PI]
+     * @param phi    Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI]
+     * @return The half-width, which is {@code radius_incident} for {@link LaunchRegion#CIRCLE}
+     */
+    public static double launchHalfWidth(DiffuseParameters params, double theta, double phi) {
+        if (LaunchRegion.fromName(params.getLaunchRegion()) != LaunchRegion.ELLIPSE)
+            return params.getIncidentRadius();
+
+        double yh = Math.sin(theta) * Math.sin(phi);
+        double zh = Math.cos(theta);
+        double norm = 1 / Math.sqrt(yh * yh + zh * zh);
+        return ellipseHalfWidth(params, yh * norm, zh * norm);
+    }
+
+    private static double ellipseHalfWidth(DiffuseParameters params, double dy, double dz) {
+        return params.getLaunchSigmasOrDefault() * plumeSpread(params, dy, dz);
+    }
+
+    /**
+     * Computes the standard deviation of the ice crystal distribution across a direction in the y-z plane, i.e. along
+     * its normal {@code n = (dz, -dy)}. The optical depth along the flight paths in this direction is normally
+     * distributed in their offset from the contrail center with this standard deviation.
+     *
+     * @param params The parameters of the contrail
+     * @param dy     y-component of the unit vector of the direction
+     * @param dz     z-component of the unit vector of the direction
+     * @return The standard deviation
+     */
+    protected static double plumeSpread(DiffuseParameters params, double dy, double dz) {
+        return CompiledContrail.plumeSpread(params.getSigmaH(), params.getSigmaV(), params.getSigmaS(), dy, dz);
+    }
+
+    /**
+     * Draws the relative offset of a flight path from the contrail center for {@link LaunchSampling#OPTICAL_DEPTH}.
+     * With a probability of {@link #LAUNCH_UNIFORM_SHARE}, the offset is uniformly distributed in [-1, 1], which
+     * bounds the weights of the photons in the outer parts of the launch region. Otherwise, it follows the normal
+     * distribution of the optical depth with the standard deviation {@code 1 / rho}, truncated to [-1, 1] and sampled
+     * by inversion. The given uniform random number is reused for both choices.
+     *
+     * @param u   A uniformly distributed random number in [-1, 1]
+     * @param rho The half-width of the launch region in standard deviations of the ice crystal distribution across
+     *            the incident direction
+     * @return The relative offset in [-1, 1]
+     */
+    protected double launchOffset(double u, double rho) {
+        double p = (u + 1) / 2;
+        if (p < LAUNCH_UNIFORM_SHARE)
+            return 2 * p / LAUNCH_UNIFORM_SHARE - 1;
+
+        double y = (2 * (p - LAUNCH_UNIFORM_SHARE) / (1 - LAUNCH_UNIFORM_SHARE) - 1) * erfPrecision.erf(rho / SQRT_2);
+        double x = SQRT_2 * erfPrecision.erfcinv(1 - Math.abs(y)) / rho;
+        return Math.min(1.0, Math.copySign(x, y));
+    }
+
+    /**
+     * Computes the weight of a photon launched with the given relative offset by {@link #launchOffset(double, double)},
+     * which is the ratio of the uniform density to the sampled density. Tallies of the weights have the same
+     * expectation as the photon counts with uniform offsets, so the correction factor of the output applies
+     * unchanged.
+     *
+     * @param x   The relative offset in [-1, 1]
+     * @param rho The half-width of the launch region in standard deviations of the ice crystal distribution across
+     *            the incident direction
+     * @return The weight
+     */
+    protected double launchWeight(double x, double rho) {
+        double normal = rho * Math.exp(-0.5 * rho * rho * x * x) / (SQRT_HALF_PI * erfPrecision.erf(rho / SQRT_2));
+        return 1.0 / (LAUNCH_UNIFORM_SHARE + (1 - LAUNCH_UNIFORM_SHARE) * normal);
+    }
+
+    /**
+     * Share of the photons whose launch offsets are uniformly distributed with {@link LaunchSampling#OPTICAL_DEPTH}.
+     * The weights of the photons are at most its reciprocal.
+     */
+    protected static final double LAUNCH_UNIFORM_SHARE = 0.1;
+
+    private static final double SQRT_2 = Math.sqrt(2.0);
+
+    private static final double SQRT_HALF_PI = Math.sqrt(Math.PI / 2.0);
+
+    /**
+     * Computes the azimuth angle of a direction vector.
+     *
+     * @param ux x-component of the direction
+     * @param uy y-component of the direction
+     * @return The angle to the x-axis. Range: [0, 2*PI]
+     */
+    protected static double azimuth(double ux, double uy) {
+        double phi = Math.acos(ux / Math.sqrt(ux * ux + uy * uy));
+        return uy > 0 ? phi : 2 * Math.PI - phi;
+    }
+
+    /**
+     * Gets the parameters of the contrail compiled into primitive fields, which are used by the transport engines in
+     * place of {@link #getParams()}. The object is created when the contrail is initialized and is not updated if the
+     * diffuse parameters are modified afterwards.
+     *
+     * @return The compiled parameters
+     */
+    public CompiledContrail getCompiled() {
+        return compiled;
     }
 
     /**
@@ -0,0 +1,124 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects the precision of the error functions used for the extinction integral
+ * {@link Contrail#Iextinction(double, double, double, double, double)} and the free path sampling.
+ */
+public enum ErfPrecision {
+    /**
+     * Uses the approximation of Abramowitz and Stegun with an absolute error of {@code 1.5e-7}, see
+     * {@link ErrorFunction#erf(double)}. This is the original model.
+     */
+    FAST("fast") {
+        @Override
+        public double erf(double x) {
+            return ErrorFunction.erf(x);
+        }
+
+        @Override
+        public double erfc(double x) {
+            return ErrorFunction.erfc(x);
+        }
+
+        @Override
+        public double erfcinv(double y) {
+            return ErrorFunction.erfcinv(y);
+        }
+    },
+
+    /**
+     * Uses a Chebyshev approximation with full double precision, see {@link ErrorFunction#erfDouble(double)}
+     */
+    DOUBLE("double") {
+        @Override
+        public double erf(double x) {
+            return ErrorFunction.erfDouble(x);
+        }
+
+        @Override
+        public double erfc(double x) {
+            return ErrorFunction.erfcDouble(x);
+        }
+
+        @Override
+        public double erfcinv(double y) {
+            return ErrorFunction.erfcinvDouble(y);
+        }
+    };
+
+    private final String name;
+
+    ErfPrecision(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Computes the error function with this precision.
+     *
+     * @param x The argument
+     * @return The approximated value of {@code erf(x)}
+     */
+    public abstract double erf(double x);
+
+    /**
+     * Computes the complementary error function with this precision.
+     *
+     * @param x The argument
+     * @return The approximated value of {@code erfc(x)}
+     */
+    public abstract double erfc(double x);
+
+    /**
+     * Computes the inverse complementary error function with this precision.
+     *
+     * @param y The argument, {@code 0 < y < 2}
+     * @return The approximated value of {@code erfcinv(y)}
+     */
+    public abstract double erfcinv(double y);
+
+    /**
+     * Gets the name of the precision as used in the XML config file.
+     *
+     * @return The name of the precision
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the precision with the given name.
+     *
+     * @param name The name of the precision
+     * @return The matching {@link ErfPrecision} or {@code null} if there is none
+     */
+    public static ErfPrecision fromName(String name) {
+        for (ErfPrecision p : values()) {
+            if (p.name.equals(name))
+                return p;
+        }
+
+        return null;
+    }
+}
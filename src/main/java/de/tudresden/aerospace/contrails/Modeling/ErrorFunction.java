@@ -31,13 +31,13 @@ import java.lang.Math;
  */
 public class ErrorFunction {
 
-    // Constants, see paper linked in erf JavaDoc
-    private static double a1 = 0.254829592;
-    private static double a2 = -0.284496736;
-    private static double a3 = 1.421413741;
-    private static double a4 = -1.453152027;
-    private static double a5 = 1.061405429;
-    private static double p = 0.3275911;
+    // Constants, see paper linked in erf JavaDoc. Package-private for the SIMD kernel
+    static final double a1 = 0.254829592;
+    static final double a2 = -0.284496736;
+    static final double a3 = 1.421413741;
+    static final double a4 = -1.453152027;
+    static final double a5 = 1.061405429;
+    static final double p = 0.3275911;
 
     /**
      * Computes a relational approximation error according to the formula of the <a
@@ -55,4 +55,171 @@ public class ErrorFunction {
         return sign * y; // erf(-x)=-erf(x)
     }
 
+    /**
+     * Computes the complementary error function {@code erfc(x) = 1 - erf(x)} with the same approximation as
+     * {@link #erf(double)}. For positive {@code x}, the result is computed directly instead of subtracting from 1,
+     * which avoids cancellation. Its precision is still the absolute error of {@code 1.5e-7} of the approximation, so
+     * the relative error grows in the tail, where {@code erfc(x)} falls below it. Use {@link #erfcDouble(double)} for
+     * the tail.
+     */
+    public static double erfc(double x) {
+        if (x < 0)
+            return 2.0 - erfc(-x); // erfc(-x)=2-erfc(x)
+
+        // A&S formula 7.1.26
+        double t = 1.0 / (1.0 + p * x);
+        return (((((a5 * t + a4) * t) + a3) * t + a2) * t + a1) * t * Math.exp(-x * x);
+    }
+
+    /**
+     * Computes an approximation of the inverse complementary error function for {@code 0 < y < 2} according to
+     * <a href="https://people.maths.ox.ac.uk/gilesm/files/gems_erfinv.pdf">M. Giles, Approximating the erfinv
+     * function</a>. Passing {@code y} instead of {@code 1 - y} keeps the precision for values close to 0. The relative
+     * error is below {@code 1e-5} for {@code y > 1e-7} and grows beyond that, so callers should refine the result.
+     */
+    public static double erfcinv(double y) {
+        return (1.0 - y) * giles(-Math.log(y * (2.0 - y)));
+    }
+
+    /**
+     * Computes an approximation of the inverse error function for {@code -1 < x < 1} with the same precision as
+     * {@link #erfcinv(double)}.
+     */
+    public static double erfinv(double x) {
+        return x * giles(-Math.log((1.0 - x) * (1.0 + x)));
+    }
+
+    /**
+     * Evaluates the polynomials of Giles' approximation, which give {@code erfinv(x) / x} for
+     * {@code w = -log((1 - x) * (1 + x))}.
+     */
+    private static double giles(double w) {
+        double r;
+        if (w < 5.0) {
+            w = w - 2.5;
+            r = 2.81022636e-08;
+            r = 3.43273939e-07 + r * w;
+            r = -3.5233877e-06 + r * w;
+            r = -4.39150654e-06 + r * w;
+            r = 0.00021858087 + r * w;
+            r = -0.00125372503 + r * w;
+            r = -0.00417768164 + r * w;
+            r = 0.246640727 + r * w;
+            r = 1.50140941 + r * w;
+        } else {
+            w = Math.sqrt(w) - 3.0;
+            r = -0.000200214257;
+            r = 0.000100950558 + r * w;
+            r = 0.00134934322 + r * w;
+            r = -0.00367342844 + r * w;
+            r = 0.00573950773 + r * w;
+            r = -0.0076224613 + r * w;
+            r = 0.00943887047 + r * w;
+            r = 1.00167406 + r * w;
+            r = 2.83297682 + r * w;
+        }
+
+        return r;
+    }
+
+    // Chebyshev coefficients of erfc(z) * exp(z^2) for z >= 0 in the variable 2t - 1 with t = 2 / (2 + z), see
+    // Numerical Recipes, 3rd edition, section 6.2.2. Package-private for the SIMD kernel
+    static final double[] CHEBYSHEV = {-1.3026537197817094, 6.4196979235649026e-1,
+            1.9476473204185836e-2, -9.561514786808631e-3, -9.46595344482036e-4,
+            3.66839497852761e-4, 4.2523324806907e-5, -2.0278578112534e-5,
+            -1.624290004647e-6, 1.303655835580e-6, 1.5626441722e-8, -8.5238095915e-8,
+            6.529054439e-9, 5.059343495e-9, -9.91364156e-10, -2.27365122e-10,
+            9.6467911e-11, 2.394038e-12, -6.886027e-12, 8.94487e-13, 3.13092e-13,
+            -1.12708e-13, 3.81e-16, 7.106e-15, -1.523e-15, -9.4e-17, 1.21e-16, -2.8e-17};
+
+    /**
+     * Computes the complementary error function for {@code z >= 0} in full double precision. The Chebyshev series is
+     * evaluated with the Clenshaw recurrence, which has the same number of steps for every argument and thus no
+     * branches. The relative error is about {@code 1e-15} for {@code z < 3} and grows to {@code 1e-13} at
+     * {@code z = 20} due to the rounding of {@code z^2} in the exponential.
+     */
+    private static double erfcChebyshev(double z) {
+        double t = 2.0 / (2.0 + z);
+        double ty = 4.0 * t - 2.0;
+        double d = 0.0;
+        double dd = 0.0;
+        for (int j = CHEBYSHEV.length - 1; j > 0; j--) {
+            double tmp = d;
+            d = ty * d - dd + CHEBYSHEV[j];
+            dd = tmp;
+        }
+
+        return t * Math.exp(-z * z + 0.5 * (CHEBYSHEV[0] + ty * d) - dd);
+    }
+
+    /**
+     * Computes the error function in full double precision, see {@link #erfcDouble(double)}. The absolute error is
+     * below {@code 1e-15}.
+     */
+    public static double erfDouble(double x) {
+        return Math.copySign(1.0 - erfcChebyshev(Math.abs(x)), x);
+    }
+
+    /**
+     * Computes the complementary error function in full double precision with a Chebyshev approximation.
+     */
+    public static double erfcDouble(double x) {
+        double e = erfcChebyshev(Math.abs(x));
+        return x < 0 ? 2.0 - e : e; // erfc(-x)=2-erfc(x)
+    }
+
+    /**
+     * Computes the inverse complementary error function in full double precision for {@code 0 < y < 2}. The initial
+     * value is {@link #erfcinv(double)} or, outside of its range, the asymptotic expansion
+     * {@code erfc(x) ~ exp(-x^2) / (x * sqrt(pi)) * (1 - 1 / (2 * x^2))}. It is refined with two Halley steps on
+     * {@link #erfcDouble(double)}, each of which cubes the relative error.
+     */
+    public static double erfcinvDouble(double y) {
+        double tail = Math.min(y, 2.0 - y);
+        double x;
+        if (tail < ASYMPTOTIC_LIMIT) {
+            x = Math.sqrt(-Math.log(tail * SQRT_PI));
+            x = Math.sqrt(-Math.log(tail * SQRT_PI * x / (1.0 - 0.5 / (x * x))));
+            x = Math.sqrt(-Math.log(tail * SQRT_PI * x / (1.0 - 0.5 / (x * x))));
+            x = Math.copySign(x, 1.0 - y);
+        } else {
+            x = erfcinv(y);
+        }
+
+        for (int i = 0; i < 2; i++) {
+            // Newton step f / f' with f' = -2 / sqrt(pi) * exp(-x^2), corrected by Halley's factor with f''/f' = -2x
+            double newton = -(erfcDouble(x) - y) * SQRT_PI_HALF * Math.exp(x * x);
+            x = x - newton / (1.0 + x * newton);
+        }
+
+        return x;
+    }
+
+    /**
+     * Computes the inverse error function in full double precision for {@code -1 < x < 1}. Values of {@code |x| >= 0.5}
+     * are computed with {@link #erfcinvDouble(double)}, where {@code 1 - |x|} is exact.
+     */
+    public static double erfinvDouble(double x) {
+        if (Math.abs(x) >= 0.5)
+            return Math.copySign(erfcinvDouble(1.0 - Math.abs(x)), x);
+
+        double r = erfinv(x);
+        for (int i = 0; i < 2; i++) {
+            // Newton step f / f' with f' = 2 / sqrt(pi) * exp(-r^2), corrected by Halley's factor with f''/f' = -2r
+            double newton = (erfDouble(r) - x) * SQRT_PI_HALF * Math.exp(r * r);
+            r = r - newton / (1.0 + r * newton);
+        }
+
+        return r;
+    }
+
+    /**
+     * Values of {@code erfc} below which {@link #erfcinvDouble(double)} starts from the asymptotic expansion, because
+     * {@link #erfcinv(double)} is only designed for the range of single precision numbers
+     */
+    private static final double ASYMPTOTIC_LIMIT = 1e-7;
+
+    private static final double SQRT_PI = Math.sqrt(Math.PI);
+
+    private static final double SQRT_PI_HALF = Math.sqrt(Math.PI) / 2.0;
 }
@@ -0,0 +1,113 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Evaluates the extinction integral {@link Contrail#Iextinction(double, double, double, double, double)} for many
+ * photons at once, either directly or split into per-segment coefficients and the distance dependent part.
+ * Implementations operate on dense arrays, where index {@code k} of every array belongs to the same photon (lane).
+ */
+public interface ExtinctionKernel {
+    /**
+     * Name of the module providing the Vector API.
+     */
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Computes the probability of interaction with the contrail for the first {@code n} lanes of the given arrays.
+     *
+     * @param y0    Starting positions with respect to the horizontal axis
+     * @param z0    Starting positions with respect to the vertical axis
+     * @param theta Angles to the vertical axis
+     * @param phi   Angles to the x-axis
+     * @param s     Distances through the contrail
+     * @param out   Array to write the results into
+     * @param n     The number of lanes to evaluate
+     */
+    void iextinction(double[] y0, double[] z0, double[] theta, double[] phi, double[] s, double[] out, int n);
+
+    /**
+     * Computes the coefficients of the extinction integral for straight flight segments, see
+     * {@link Contrail#segmentExtinction(double, double, double, double, double)}. The coefficients only depend on the
+     * start position and direction of a segment and stay constant during the free path root search.
+     *
+     * @param y0   Starting positions with respect to the horizontal axis
+     * @param z0   Starting positions with respect to the vertical axis
+     * @param uy   y-components of the unit direction vectors
+     * @param uz   z-components of the unit direction vectors
+     * @param wa   Array to write the square roots of coefficient a into
+     * @param u0   Array to write the offsets of the error function argument into
+     * @param erf0 Array to write the error function values at the segment start into
+     * @param k    Array to write the scaling factors of the integral into
+     * @param n    The number of lanes to compute
+     */
+    void prepareSegments(double[] y0, double[] z0, double[] uy, double[] uz,
+                         double[] wa, double[] u0, double[] erf0, double[] k, int n);
+
+    /**
+     * Evaluates the extinction integral along flight segments from coefficients computed with
+     * {@link #prepareSegments(double[], double[], double[], double[], double[], double[], double[], double[], int)}.
+     *
+     * @param wa   Square roots of coefficient a
+     * @param u0   Offsets of the error function argument
+     * @param erf0 Error function values at the segment start
+     * @param k    Scaling factors of the integral
+     * @param s    Distances along the segments
+     * @param out  Array to write the results into
+     * @param n    The number of lanes to evaluate
+     */
+    void segmentExtinction(double[] wa, double[] u0, double[] erf0, double[] k, double[] s, double[] out, int n);
+
+    /**
+     * Checks whether the Vector API module was added to the running JVM, e.g. with
+     * {@code --add-modules jdk.incubator.vector}.
+     *
+     * @return {@code true} if the SIMD kernel can be used, {@code false} otherwise
+     */
+    static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * Creates a kernel for the given contrail. The SIMD kernel is only loaded if requested and the Vector API is
+     * available, otherwise the scalar kernel is returned.
+     *
+     * @param contrail   The contrail providing parameters and the scalar extinction integral
+     * @param vectorized Whether to use the SIMD kernel if possible
+     * @return The kernel
+     */
+    static ExtinctionKernel create(Contrail contrail, boolean vectorized) {
+        if (vectorized && isVectorApiAvailable()) {
+            // Loaded reflectively, so that the Vector API classes are never linked if the module is missing
+            try {
+                return (ExtinctionKernel) Class.forName("de.tudresden.aerospace.contrails.Modeling.VectorExtinctionKernel")
+                        .getConstructor(Contrail.class)
+                        .newInstance(contrail);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Failed to load SIMD extinction kernel, falling back to scalar kernel: " + e);
+            }
+        }
+
+        return new ScalarExtinctionKernel(contrail);
+    }
+}
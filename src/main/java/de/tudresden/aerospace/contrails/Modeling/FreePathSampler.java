@@ -0,0 +1,72 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects how the distance to the next interaction of a photon is found, i.e. how the extinction integral
+ * {@link Contrail#Iextinction(double, double, double, double, double)} is solved for a uniformly distributed random
+ * number.
+ */
+public enum FreePathSampler {
+    /**
+     * Finds the root of the extinction integral minus the random number with the secant method up to a tolerance of
+     * {@code 0.01 m}. This is the original model.
+     */
+    SECANT("secant"),
+
+    /**
+     * Inverts the extinction integral in closed form with the inverse complementary error function and refines the
+     * result with a single Newton step. Falls back to the secant method if the refinement does not confirm the result.
+     */
+    ANALYTIC("analytic");
+
+    private final String name;
+
+    FreePathSampler(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the sampler as used in the XML config file.
+     *
+     * @return The name of the sampler
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the sampler with the given name.
+     *
+     * @param name The name of the sampler
+     * @return The matching {@link FreePathSampler} or {@code null} if there is none
+     */
+    public static FreePathSampler fromName(String name) {
+        for (FreePathSampler s : values()) {
+            if (s.name.equals(name))
+                return s;
+        }
+
+        return null;
+    }
+}
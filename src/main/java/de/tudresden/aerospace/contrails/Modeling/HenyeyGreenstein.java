@@ -0,0 +1,134 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.MonteCarlo.Distribution;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides fast sampling of scattering angles from the Henyey-Greenstein phase function. The continuous phase function
+ * is sampled exactly with {@link #sampleAngle(double, double)}. Instances hold an inverse-CDF lookup table of the phase
+ * function discretized into {@code numSca} classes, as used by {@link Contrail#initializeScPhFun()}. Tables are
+ * immutable and cached by {@link #getTable(double, int)}, so all contrails with the same parameters share one table.
+ *
+ * @see <a href="https://ui.adsabs.harvard.edu/link_gateway/1941ApJ....93...70H/doi:10.1086/144246">
+ * Diffuse radiation in the Galaxy (Paper)</a>
+ */
+public final class HenyeyGreenstein {
+    /**
+     * Number of intervals of the lookup table
+     */
+    public static final int TABLE_SIZE = 8192;
+
+    /**
+     * Asymmetry factors below this magnitude are treated as isotropic scattering to avoid cancellation
+     */
+    private static final double ISOTROPIC_LIMIT = 1e-6;
+
+    private static final Map<Key, HenyeyGreenstein> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Scattering angles at equidistant cumulative probabilities {@code j / TABLE_SIZE}
+     */
+    private final double[] angles;
+
+    private HenyeyGreenstein(double g, int numSca) {
+        double d_sca_ang = Math.PI / numSca;
+        double[] sca_ang = new double[numSca];
+        double[] sca_p = new double[numSca];
+        for (int i = 0; i < numSca; i++) {
+            sca_ang[i] = i * d_sca_ang;
+            sca_p[i] = phaseFunction(g, i * d_sca_ang);
+        }
+        Distribution dist = new Distribution(sca_ang, sca_p);
+
+        this.angles = new double[TABLE_SIZE + 1];
+        for (int j = 0; j <= TABLE_SIZE; j++) {
+            angles[j] = dist.sample((double) j / TABLE_SIZE);
+        }
+    }
+
+    /**
+     * Gets the shared lookup table for the discretized phase function. The table is created on first use.
+     *
+     * @param g      Factor of asymmetry of the phase function
+     * @param numSca Number of classes of the discretized phase function
+     * @return The lookup table
+     */
+    public static HenyeyGreenstein getTable(double g, int numSca) {
+        if (numSca < 2)
+            throw new IllegalArgumentException("Number of classes must be at least 2");
+
+        return CACHE.computeIfAbsent(new Key(g, numSca), k -> new HenyeyGreenstein(k.g, k.numSca));
+    }
+
+    /**
+     * Draws a scattering angle from the discretized phase function by linear interpolation in the lookup table.
+     *
+     * @param u A uniformly distributed random number from [0, 1)
+     * @return The scattering angle in radians
+     */
+    public double sample(double u) {
+        double t = u * TABLE_SIZE;
+        int j = Math.min((int) t, TABLE_SIZE - 1);
+        return angles[j] + (t - j) * (angles[j + 1] - angles[j]);
+    }
+
+    /**
+     * Draws a scattering angle from the continuous phase function with the closed-form inverse of its cumulative
+     * distribution function.
+     *
+     * @param g Factor of asymmetry of the phase function. Range: (-1, 1)
+     * @param u A uniformly distributed random number from [0, 1)
+     * @return The scattering angle in radians
+     */
+    public static double sampleAngle(double g, double u) {
+        double mu;
+        if (Math.abs(g) < ISOTROPIC_LIMIT) {
+            mu = 2 * u - 1;
+        } else {
+            double h = (1 - g * g) / (1 - g + 2 * g * u);
+            mu = (1 + g * g - h * h) / (2 * g);
+        }
+
+        return Math.acos(Math.max(-1., Math.min(1., mu)));
+    }
+
+    /**
+     * Evaluates the Henyey-Greenstein phase function.
+     *
+     * @param g       Factor of asymmetry of the phase function
+     * @param rad_ang Angle of the phase function in radians
+     * @return The value of the phase function
+     */
+    public static double phaseFunction(double g, double rad_ang) {
+        return (1. - Math.pow(g, 2)) / Math.pow(1. + Math.pow(g, 2) - 2. * g * Math.cos(rad_ang), 1.5);
+    }
+
+    /**
+     * Key of the table cache
+     */
+    private record Key(double g, int numSca) {}
+}
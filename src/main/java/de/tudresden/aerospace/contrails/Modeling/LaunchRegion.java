@@ -0,0 +1,73 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects the region in the y-z plane of the contrail cross-section on whose boundary photons are launched and which
+ * photons leave when their next interaction would lie outside of it.
+ */
+public enum LaunchRegion {
+    /**
+     * A circle with the radius {@code radius_incident} around the contrail center. This is the original model.
+     */
+    CIRCLE("circle"),
+
+    /**
+     * An ellipse of constant ice crystal density, given by {@code launch_sigmas} standard deviations of the normal
+     * distribution with the covariance {@code sigma_h}, {@code sigma_v} and {@code sigma_s}. It is rotated if
+     * {@code sigma_s} is not zero and encloses the optically relevant part of the contrail much more tightly than the
+     * circle. Requires {@link FreePathSampler#ANALYTIC}, because the first step of the secant method is sized for
+     * the circle.
+     */
+    ELLIPSE("ellipse");
+
+    private final String name;
+
+    LaunchRegion(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the region as used in the XML config file.
+     *
+     * @return The name of the region
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the region with the given name.
+     *
+     * @param name The name of the region
+     * @return The matching {@link LaunchRegion} or {@code null} if there is none
+     */
+    public static LaunchRegion fromName(String name) {
+        for (LaunchRegion r : values()) {
+            if (r.name.equals(name))
+                return r;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects how the offset of the flight path of a photon from the contrail center is distributed across the launch
+ * region.
+ */
+public enum LaunchSampling {
+    /**
+     * The offset is uniformly distributed across the width of the launch region, so every photon has the same weight.
+     * This is the original model.
+     */
+    UNIFORM("uniform"),
+
+    /**
+     * The offset is mostly drawn proportional to the optical depth of the contrail along the flight path, which is a
+     * normal distribution across the incident direction, and to a small share uniformly. Photons are weighted by the
+     * ratio of the uniform density to the sampled one, so that most photons cross the optically dense core while the
+     * results stay unbiased.
+     */
+    OPTICAL_DEPTH("optical_depth");
+
+    private final String name;
+
+    LaunchSampling(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the sampling method as used in the XML config file.
+     *
+     * @return The name of the sampling method
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the sampling method with the given name.
+     *
+     * @param name The name of the sampling method
+     * @return The matching {@link LaunchSampling} or {@code null} if there is none
+     */
+    public static LaunchSampling fromName(String name) {
+        for (LaunchSampling s : values()) {
+            if (s.name.equals(name))
+                return s;
+        }
+
+        return null;
+    }
+}
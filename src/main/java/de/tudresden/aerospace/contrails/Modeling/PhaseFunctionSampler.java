@@ -0,0 +1,75 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects how scattering angles are drawn from the Henyey-Greenstein phase function.
+ */
+public enum PhaseFunctionSampler {
+    /**
+     * Samples the phase function discretized into {@code num_sca} classes with a {@link Distribution}. This is the
+     * original model.
+     */
+    BINNED("binned"),
+
+    /**
+     * Samples the same discretized phase function as {@link #BINNED} from a high-resolution inverse-CDF lookup table
+     * that is shared between all contrails with the same asymmetry factor and number of classes
+     */
+    TABLE("table"),
+
+    /**
+     * Samples the continuous phase function exactly with its closed-form inverse CDF
+     */
+    ANALYTIC("analytic");
+
+    private final String name;
+
+    PhaseFunctionSampler(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the sampler as used in the XML config file.
+     *
+     * @return The name of the sampler
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the sampler with the given name.
+     *
+     * @param name The name of the sampler
+     * @return The matching {@link PhaseFunctionSampler} or {@code null} if there is none
+     */
+    public static PhaseFunctionSampler fromName(String name) {
+        for (PhaseFunctionSampler s : values()) {
+            if (s.name.equals(name))
+                return s;
+        }
+
+        return null;
+    }
+}
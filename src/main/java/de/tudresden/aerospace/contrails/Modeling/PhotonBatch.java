@@ -0,0 +1,479 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Batched photon transport engine, which integrates a block of photons with the same direction of incidence in
+ * lockstep. In contrast to {@link Contrail#singlePhotonIntegration(double, double, PhotonResult)}, which follows one
+ * photon from entering to leaving the contrail, the photon states are stored as a structure of arrays and each stage of
+ * the photon lifetime (free path root search, escape test, absorption/scattering decision and direction rotation) is
+ * run over the whole block before moving on to the next stage. Photons that left the contrail or were absorbed are
+ * removed from the compacted list of active photons after each stage, so later stages only iterate over photons still
+ * in flight.
+ * <p>
+ * The physics are identical to the scalar engine, but random numbers are drawn in a different order. Results are
+ * therefore statistically equivalent, but not identical to the scalar engine for the same seed.
+ * <p>
+ * An instance holds mutable state and must not be shared across threads. The referenced {@link Contrail} may be shared.
+ */
+public class PhotonBatch {
+    /**
+     * Default number of photons per block. Chosen so that the photon state fits comfortably into the L1/L2 cache.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Tolerance of the free path root search in metres, see
+     * {@link Contrail#singlePhotonIntegration(double, double, PhotonResult)}
+     */
+    private static final double ROOT_TOLERANCE = 0.01;
+
+    private final Contrail contrail;
+    private final ExtinctionKernel kernel;
+    private final int capacity;
+
+    // Cached parameters of the contrail
+    private final CompiledContrail compiled;
+    private final boolean analyticFreePath;
+
+    // Photon state, the direction of flight is stored as a unit vector
+    private final double[] y;
+    private final double[] z;
+    private final double[] ux;
+    private final double[] uy;
+    private final double[] uz;
+    private final int[] events;
+
+    // Direction of photons after leaving the contrail
+    private final double[] theta;
+    private final double[] phi;
+
+    // Free path length of each photon
+    private final double[] ds;
+
+    // Compacted index list of photons in flight
+    private final int[] active;
+    private int numActive;
+
+    // State of the free path root search, stored densely per lane. Lane j belongs to photon pending[j].
+    private final int[] pending;
+    private final double[] laneY;
+    private final double[] laneZ;
+    private final double[] laneUy;
+    private final double[] laneUz;
+    private final double[] laneWa;
+    private final double[] laneU0;
+    private final double[] laneErf0;
+    private final double[] laneK;
+    private final double[] laneZs;
+    private final double[] laneDs0;
+    private final double[] laneDs;
+    private final double[] laneF0;
+    private final double[] laneF;
+
+    /**
+     * Random number stream of the current call of {@link #integrate(double, double, int, RandomGenerator)}, may be
+     * {@code null}
+     */
+    private RandomGenerator stream;
+
+    /**
+     * The number of photons integrated by the last call of {@link #integrate(double, double, int)}
+     */
+    private int size;
+
+    // Counters of the free path sampling over the lifetime of the batch, see getFreePaths() and getRootIterations()
+    private long freePaths;
+    private long rootIterations;
+
+    /**
+     * Creates the batch with the default capacity and the scalar extinction kernel.
+     *
+     * @param contrail The contrail object that provides parameters, the extinction integral and random numbers
+     */
+    public PhotonBatch(Contrail contrail) {
+        this(contrail, new ScalarExtinctionKernel(contrail), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates the batch.
+     *
+     * @param contrail The contrail object that provides parameters and random numbers
+     * @param kernel   The kernel used to evaluate the extinction integral during the free path root search
+     * @param capacity The maximum number of photons integrated per call of {@link #integrate(double, double, int)}
+     */
+    public PhotonBatch(Contrail contrail, ExtinctionKernel kernel, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+
+        this.contrail = contrail;
+        this.kernel = kernel;
+        this.capacity = capacity;
+
+        this.compiled = contrail.getCompiled();
+        this.analyticFreePath = contrail.getFreePathSampler() == FreePathSampler.ANALYTIC;
+
+        this.y = new double[capacity];
+        this.z = new double[capacity];
+        this.ux = new double[capacity];
+        this.uy = new double[capacity];
+        this.uz = new double[capacity];
+        this.events = new int[capacity];
+        this.theta = new double[capacity];
+        this.phi = new double[capacity];
+        this.ds = new double[capacity];
+        this.active = new int[capacity];
+        this.pending = new int[capacity];
+        this.laneY = new double[capacity];
+        this.laneZ = new double[capacity];
+        this.laneUy = new double[capacity];
+        this.laneUz = new double[capacity];
+        this.laneWa = new double[capacity];
+        this.laneU0 = new double[capacity];
+        this.laneErf0 = new double[capacity];
+        this.laneK = new double[capacity];
+        this.laneZs = new double[capacity];
+        this.laneDs0 = new double[capacity];
+        this.laneDs = new double[capacity];
+        this.laneF0 = new double[capacity];
+        this.laneF = new double[capacity];
+    }
+
+    /**
+     * Gets the maximum number of photons per block.
+     *
+     * @return The capacity of the batch
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of photons integrated by the last call of {@link #integrate(double, double, int)}.
+     *
+     * @return The number of valid results
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the zenith angle of a photon after integration.
+     *
+     * @param i The index of the photon within the block
+     * @return The angle to the z-axis when leaving the contrail or {@code -1} if the photon was absorbed
+     */
+    public double getTheta(int i) {
+        return theta[i];
+    }
+
+    /**
+     * Gets the azimuth angle of a photon after integration.
+     *
+     * @param i The index of the photon within the block
+     * @return The angle to the x-axis when leaving the contrail or {@code -1} if the photon was absorbed
+     */
+    public double getPhi(int i) {
+        return phi[i];
+    }
+
+    /**
+     * Gets the number of scattering events of a photon after integration.
+     *
+     * @param i The index of the photon within the block
+     * @return The number of scattering events
+     */
+    public int getScatEvents(int i) {
+        return events[i];
+    }
+
+    /**
+     * Integrates a block of photons coming from the same direction. Results can be retrieved with
+     * {@link #getTheta(int)}, {@link #getPhi(int)} and {@link #getScatEvents(int)} until the next call.
+     *
+     * @param theta0 Angle to z-coordinate axis (upwards vector). Range: [0, PI]
+     * @param phi0   Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI]
+     * @param count  The number of photons to integrate, at most {@link #getCapacity()}
+     */
+    public void integrate(double theta0, double phi0, int count) {
+        integrate(theta0, phi0, count, null);
+    }
+
+    /**
+     * Integrates a block of photons like {@link #integrate(double, double, int)}, but draws all random numbers from the
+     * given stream, which makes the result reproducible in parallel runs.
+     *
+     * @param theta0 Angle to z-coordinate axis (upwards vector). Range: [0, PI]
+     * @param phi0   Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI]
+     * @param count  The number of photons to integrate, at most {@link #getCapacity()}
+     * @param stream The random number stream to use or {@code null} to use the generator of the contrail
+     */
+    public void integrate(double theta0, double phi0, int count, RandomGenerator stream) {
+        if (count < 0 || count > capacity)
+            throw new IllegalArgumentException("Number of photons must be between 0 and " + capacity);
+
+        this.stream = stream;
+        size = count;
+        launch(theta0, phi0);
+
+        while (numActive > 0) {
+            sampleFreePaths();
+            advance();
+            interact();
+        }
+        this.stream = null;
+    }
+
+    /**
+     * Places all photons on the boundary of the launch region and sets their direction of flight.
+     */
+    private void launch(double theta0, double phi0) {
+        double yh = Math.sin(theta0) * Math.sin(phi0);
+        double zh = Math.cos(theta0);
+        double direction = Math.acos(zh / Math.sqrt(yh * yh + zh * zh));
+        boolean ellipse = compiled.ellipse;
+        double radius = compiled.incidentRadius;
+
+        // Unit vector from the contrail center towards the source in the y-z plane, for the elliptical launch region
+        double norm = 1 / Math.sqrt(yh * yh + zh * zh);
+        double dy = yh * norm;
+        double dz = zh * norm;
+        double halfWidth = ellipse ? compiled.ellipseHalfWidth(dy, dz) : radius;
+
+        // Direction the photons are heading to
+        double thetaFlight = Math.PI - theta0;
+        double phiFlight = (phi0 + Math.PI) % (2 * Math.PI);
+        double uxFlight = Math.sin(thetaFlight) * Math.cos(phiFlight);
+        double uyFlight = Math.sin(thetaFlight) * Math.sin(phiFlight);
+        double uzFlight = Math.cos(thetaFlight);
+
+        for (int i = 0; i < size; i++) {
+            if (ellipse) {
+                double t = halfWidth * (contrail.nextUniform(stream) * 2 - 1);
+                double h = contrail.ellipseEntry(dy, dz, t);
+                y[i] = t * dz + h * dy;
+                z[i] = h * dz - t * dy;
+            } else {
+                double alpha = Math.asin(contrail.nextUniform(stream) * 2 - 1);
+                y[i] = Math.sin(direction - alpha) * radius;
+                z[i] = Math.cos(direction - alpha) * radius;
+            }
+            ux[i] = uxFlight;
+            uy[i] = uyFlight;
+            uz[i] = uzFlight;
+            events[i] = 0;
+
+            // Unscattered photons keep their original direction
+            theta[i] = thetaFlight;
+            phi[i] = phiFlight;
+            active[i] = i;
+        }
+        numActive = size;
+    }
+
+    /**
+     * Gets the number of free path lengths sampled since this batch was created.
+     *
+     * @return The number of free path lengths
+     */
+    public long getFreePaths() {
+        return freePaths;
+    }
+
+    /**
+     * Gets the number of secant iterations needed for the free path lengths since this batch was created, counted per
+     * photon.
+     *
+     * @return The number of secant iterations
+     */
+    public long getRootIterations() {
+        return rootIterations;
+    }
+
+    /**
+     * Finds the free path length of all active photons with the secant method. The coefficients of the extinction
+     * integral are computed once per flight segment, afterwards each sweep only evaluates the distance dependent part
+     * for all lanes whose search has not converged yet and performs one secant step per lane. Converged lanes are
+     * removed by moving the remaining lanes to the front. With {@link FreePathSampler#ANALYTIC}, lanes are first solved
+     * in closed form and only the lanes that need the fallback enter the secant sweeps.
+     */
+    private void sampleFreePaths() {
+        for (int j = 0; j < numActive; j++) {
+            int i = active[j];
+            pending[j] = i;
+            laneY[j] = y[i];
+            laneZ[j] = z[i];
+            laneUy[j] = uy[i];
+            laneUz[j] = uz[i];
+            laneZs[j] = contrail.nextUniform(stream);
+            laneDs0[j] = 0.;
+            laneDs[j] = 2.01 * compiled.boundRadius; // first step width
+            laneF0[j] = -laneZs[j]; // Iextinction(0) is 0
+        }
+        kernel.prepareSegments(laneY, laneZ, laneUy, laneUz, laneWa, laneU0, laneErf0, laneK, numActive);
+        freePaths += numActive;
+
+        int numPending = numActive;
+        if (analyticFreePath) {
+            int n = 0;
+            for (int j = 0; j < numPending; j++) {
+                double d = contrail.analyticFreePath(laneWa[j], laneU0[j], laneK[j], laneZs[j]);
+                if (Double.isNaN(d))
+                    moveLane(j, n++);
+                else
+                    ds[pending[j]] = d;
+            }
+            numPending = n;
+        }
+
+        // Same steps as the secant loop of Contrail.singlePhotonIntegration(), the loop condition is checked before
+        // every step
+        numPending = retainUnconverged(numPending);
+        while (numPending > 0) {
+            kernel.segmentExtinction(laneWa, laneU0, laneErf0, laneK, laneDs, laneF, numPending);
+            rootIterations += numPending;
+
+            for (int j = 0; j < numPending; j++) {
+                double fds = laneF[j] - laneZs[j];
+                double fprime = (fds - laneF0[j]) / (laneDs[j] - laneDs0[j]);
+                double ds1 = laneDs[j] - fds / fprime;
+                laneDs0[j] = laneDs[j];
+                laneF0[j] = fds;
+                laneDs[j] = ds1;
+            }
+            numPending = retainUnconverged(numPending);
+        }
+    }
+
+    /**
+     * Finishes the free path of all pending lanes whose secant search has converged and moves the remaining lanes to
+     * the front.
+     *
+     * @param numPending The number of pending lanes
+     * @return The number of lanes that have not converged yet
+     */
+    private int retainUnconverged(int numPending) {
+        int n = 0;
+        for (int j = 0; j < numPending; j++) {
+            if ((laneDs[j] - laneDs0[j]) > ROOT_TOLERANCE)
+                moveLane(j, n++);
+            else
+                ds[pending[j]] = laneDs[j];
+        }
+
+        return n;
+    }
+
+    /**
+     * Copies the state of a pending lane of the free path search to another lane.
+     *
+     * @param from The lane to copy
+     * @param to   The lane to overwrite, at most {@code from}
+     */
+    private void moveLane(int from, int to) {
+        pending[to] = pending[from];
+        laneWa[to] = laneWa[from];
+        laneU0[to] = laneU0[from];
+        laneErf0[to] = laneErf0[from];
+        laneK[to] = laneK[from];
+        laneZs[to] = laneZs[from];
+        laneDs0[to] = laneDs0[from];
+        laneDs[to] = laneDs[from];
+        laneF0[to] = laneF0[from];
+    }
+
+    /**
+     * Moves all active photons by their free path length and removes photons that left the contrail.
+     */
+    private void advance() {
+        int n = 0;
+        for (int j = 0; j < numActive; j++) {
+            int i = active[j];
+            y[i] = y[i] + ds[i] * uy[i];
+            z[i] = z[i] + ds[i] * uz[i];
+
+            if (contrail.isInLaunchRegion(y[i], z[i])) {
+                active[n++] = i;
+            } else if (events[i] > 0) {
+                // Photon left the contrail, convert its direction back to angles
+                theta[i] = Math.acos(uz[i]);
+                phi[i] = Contrail.azimuth(ux[i], uy[i]);
+            }
+        }
+        numActive = n;
+    }
+
+    /**
+     * Decides between absorption and scattering for all active photons, removes absorbed photons and rotates the
+     * direction of scattered photons.
+     */
+    private void interact() {
+        int n = 0;
+        for (int j = 0; j < numActive; j++) {
+            int i = active[j];
+
+            if (contrail.nextUniform(stream) < compiled.absorption) {
+                theta[i] = -1.; // -1, -1 as indicator for absorption
+                phi[i] = -1.;
+                continue;
+            }
+
+            events[i]++;
+            double theta_s = contrail.nextScatteringAngle(stream); // randomly scattered according to phase function
+            double phi_s = contrail.nextUniform(stream) * 2 * Math.PI; // phi is equally distributed
+            rotate(i, theta_s, phi_s);
+            active[n++] = i;
+        }
+        numActive = n;
+    }
+
+    /**
+     * Rotates the direction vector of a photon by the given scattering angles, see
+     * {@link Contrail#singlePhotonIntegration(double, double, PhotonResult)}.
+     */
+    private void rotate(int i, double theta_s, double phi_s) {
+        double x_s = Math.sin(theta_s) * Math.cos(phi_s);
+        double y_s = Math.sin(theta_s) * Math.sin(phi_s);
+        double z_s = Math.cos(theta_s);
+
+        double x_prime;
+        double y_prime;
+        if (1 + uz[i] > 1e-12) {
+            double h = 1 / (1 + uz[i]);
+            x_prime = x_s * (uz[i] + uy[i] * uy[i] * h) - y_s * ux[i] * uy[i] * h + ux[i] * z_s;
+            y_prime = y_s * (uz[i] + ux[i] * ux[i] * h) - x_s * ux[i] * uy[i] * h + uy[i] * z_s;
+        } else {
+            // Flying straight down, the rotation degenerates to a reflection (phi = 0)
+            x_prime = -x_s;
+            y_prime = y_s;
+        }
+        double z_prime = uz[i] * z_s - ux[i] * x_s - uy[i] * y_s;
+
+        double norm = 1 / Math.sqrt(x_prime * x_prime + y_prime * y_prime + z_prime * z_prime);
+        ux[i] = x_prime * norm;
+        uy[i] = y_prime * norm;
+        uz[i] = z_prime * norm;
+    }
+}
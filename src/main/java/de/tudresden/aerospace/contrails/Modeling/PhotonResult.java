@@ -0,0 +1,137 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Mutable, caller-owned result of a single photon integration. In contrast to {@link RePhoton}, an instance of this
+ * class is meant to be allocated once per worker and passed to
+ * {@link Contrail#singlePhotonIntegration(double, double, PhotonResult)} for every photon, so that the transport loop
+ * does not allocate any objects on the heap.
+ */
+public class PhotonResult {
+    /**
+     * The zenith angle (direction w.r.t. z-axis) of the photon when leaving the contrail or {@code -1} if absorbed
+     */
+    public double theta;
+
+    /**
+     * The azimuth angle (direction w.r.t. x-axis) of the photon when leaving the contrail or {@code -1} if absorbed
+     */
+    public double phi;
+
+    /**
+     * The number of scattering events that occurred
+     */
+    public int scatEvents;
+
+    /**
+     * The statistical weight of the photon when leaving the contrail. Always 1 unless photons are weighted, see
+     * {@link Contrail#hasWeightedPhotons()}
+     */
+    public double weight = 1.0;
+
+    /**
+     * The weight absorbed along the path of the photon, including the remaining weight if the photon was absorbed as
+     * a whole
+     */
+    public double absorbedWeight = 0.0;
+
+    /**
+     * The weight credited to transmission without interaction by a forced collision, reset at the start of every
+     * integration
+     */
+    public double transmittedWeight;
+
+    /**
+     * The expected weight escaping into each bin of the scattering angle {@code S_*} after the interactions of the
+     * photon, only tallied with next-event estimation, see {@link Contrail#isNextEvent()}. Allocated by the contrail
+     * on first use and reset at the start of every integration
+     */
+    public double[] expectedBins;
+
+    /**
+     * The expected weight escaping upwards after the interactions of the photon, only tallied with next-event
+     * estimation
+     */
+    public double expectedUp;
+
+    /**
+     * The expected weight escaping downwards after the interactions of the photon, only tallied with next-event
+     * estimation
+     */
+    public double expectedDown;
+
+    /**
+     * The number of free path lengths sampled for the photon, reset at the start of every integration
+     */
+    public int freePaths;
+
+    /**
+     * The number of secant iterations needed to sample the free path lengths of the photon, reset at the start of
+     * every integration
+     */
+    public int rootIterations;
+
+    /**
+     * Sets all result values at once.
+     *
+     * @param theta      Angle to z-coordinate axis (upwards vector). Range: [0, PI] or {@code -1} for absorption
+     * @param phi        Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI] or {@code -1} for absorption
+     * @param scatEvents The number of scattering events that occurred
+     */
+    public void set(double theta, double phi, int scatEvents) {
+        this.theta = theta;
+        this.phi = phi;
+        this.scatEvents = scatEvents;
+        this.weight = 1.0;
+        this.absorbedWeight = 0.0;
+    }
+
+    /**
+     * Sets all result values of a weighted photon at once.
+     *
+     * @param theta          Angle to z-coordinate axis (upwards vector). Range: [0, PI] or {@code -1} if terminated
+     * @param phi            Angle to x-coordinate axis (direction of flight). Range: [0, 2*PI] or {@code -1} if
+     *                       terminated
+     * @param scatEvents     The number of scattering events that occurred
+     * @param weight         The weight of the photon when leaving the contrail
+     * @param absorbedWeight The weight absorbed along the path of the photon
+     */
+    public void set(double theta, double phi, int scatEvents, double weight, double absorbedWeight) {
+        this.theta = theta;
+        this.phi = phi;
+        this.scatEvents = scatEvents;
+        this.weight = weight;
+        this.absorbedWeight = absorbedWeight;
+    }
+
+    /**
+     * Checks whether the photon was absorbed by the contrail.
+     *
+     * @return {@code true} if the photon was absorbed, {@code false} otherwise
+     */
+    public boolean isAbsorbed() {
+        // Theta < 0 means absorption by convention
+        return theta < 0;
+    }
+}
@@ -0,0 +1,82 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects how the random numbers of the photons are generated.
+ */
+public enum SamplingMode {
+    /**
+     * Pseudo-random numbers, the original model
+     */
+    PSEUDO("pseudo"),
+
+    /**
+     * Randomly scrambled Sobol sequence for the first random numbers of each photon
+     */
+    SOBOL("sobol"),
+
+    /**
+     * Randomly scrambled Halton sequence for the first random numbers of each photon
+     */
+    HALTON("halton");
+
+    private final String name;
+
+    SamplingMode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the sampling mode as used in the XML config file.
+     *
+     * @return The name of the sampling mode
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks whether this mode uses a low-discrepancy sequence.
+     *
+     * @return {@code true} for quasi-Monte Carlo modes
+     */
+    public boolean isQuasiRandom() {
+        return this != PSEUDO;
+    }
+
+    /**
+     * Finds the sampling mode with the given name.
+     *
+     * @param name The name of the sampling mode
+     * @return The matching {@link SamplingMode} or {@code null} if there is none
+     */
+    public static SamplingMode fromName(String name) {
+        for (SamplingMode s : values()) {
+            if (s.name.equals(name))
+                return s;
+        }
+
+        return null;
+    }
+}
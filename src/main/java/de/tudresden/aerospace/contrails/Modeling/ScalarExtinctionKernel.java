@@ -0,0 +1,79 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Scalar fallback of {@link ExtinctionKernel}, which evaluates
+ * {@link Contrail#Iextinction(double, double, double, double, double)} lane by lane. Results are identical to the
+ * scalar transport engine.
+ */
+public class ScalarExtinctionKernel implements ExtinctionKernel {
+    private final Contrail contrail;
+    private final CompiledContrail compiled;
+
+    /**
+     * Creates the kernel.
+     *
+     * @param contrail The contrail providing the extinction integral
+     */
+    public ScalarExtinctionKernel(Contrail contrail) {
+        this.contrail = contrail;
+        this.compiled = contrail.getCompiled();
+    }
+
+    @Override
+    public void iextinction(double[] y0, double[] z0, double[] theta, double[] phi, double[] s, double[] out, int n) {
+        for (int k = 0; k < n; k++) {
+            out[k] = contrail.Iextinction(y0[k], z0[k], theta[k], phi[k], s[k]);
+        }
+    }
+
+    @Override
+    public void prepareSegments(double[] y0, double[] z0, double[] uy, double[] uz,
+                                double[] wa, double[] u0, double[] erf0, double[] k, int n) {
+        double sigmaH = compiled.sigmaH;
+        double sigmaV = compiled.sigmaV;
+        double sigmaS = compiled.sigmaS;
+        double hDetsigma = compiled.hDetsigma;
+        double c1SqrtPi = compiled.c1 * CompiledContrail.SQRT_PI;
+        for (int j = 0; j < n; j++) {
+            double a = hDetsigma * (sigmaV * uy[j] * uy[j] - 2 * sigmaS * uy[j] * uz[j] + sigmaH * uz[j] * uz[j]);
+            double b = -hDetsigma * (2 * (sigmaV * y0[j] - sigmaS * z0[j]) * uy[j]
+                    + 2 * (sigmaH * z0[j] - sigmaS * y0[j]) * uz[j]);
+            double c = -hDetsigma * (sigmaV * y0[j] * y0[j] - 2 * sigmaS * y0[j] * z0[j] + sigmaH * z0[j] * z0[j]);
+
+            wa[j] = Math.sqrt(a);
+            u0[j] = -b / (2 * wa[j]);
+            k[j] = c1SqrtPi / (2. * wa[j]) * Math.exp(b * b / (4 * a) + c);
+            erf0[j] = contrail.getErfPrecision().erf(u0[j]);
+        }
+    }
+
+    @Override
+    public void segmentExtinction(double[] wa, double[] u0, double[] erf0, double[] k, double[] s, double[] out,
+                                  int n) {
+        for (int j = 0; j < n; j++) {
+            out[j] = contrail.segmentExtinction(wa[j], u0[j], erf0[j], k[j], s[j]);
+        }
+    }
+}
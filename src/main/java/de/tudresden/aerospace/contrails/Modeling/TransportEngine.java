@@ -0,0 +1,74 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+/**
+ * Selects the implementation used to integrate photons through the contrail.
+ */
+public enum TransportEngine {
+    /**
+     * Integrates one photon at a time with {@link Contrail#singlePhotonIntegration(double, double, PhotonResult)}
+     */
+    SCALAR("scalar"),
+
+    /**
+     * Advances a block of photons in lockstep with {@link PhotonBatch}
+     */
+    BATCHED("batched"),
+
+    /**
+     * Like {@link #BATCHED}, but evaluates the extinction integral with the SIMD {@link VectorExtinctionKernel}. Falls
+     * back to the scalar kernel if the Vector API is not available.
+     */
+    VECTOR("vector");
+
+    private final String name;
+
+    TransportEngine(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the engine as used on the command line.
+     *
+     * @return The name of the engine
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the engine with the given command line name.
+     *
+     * @param name The name of the engine
+     * @return The matching {@link TransportEngine} or {@code null} if there is none
+     */
+    public static TransportEngine fromName(String name) {
+        for (TransportEngine e : values()) {
+            if (e.name.equals(name))
+                return e;
+        }
+
+        return null;
+    }
+}
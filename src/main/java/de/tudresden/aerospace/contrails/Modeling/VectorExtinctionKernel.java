@@ -0,0 +1,290 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of {@link ExtinctionKernel} based on the incubating Vector API. Each lane of a vector holds one
+ * photon, so that the trigonometric functions, the error function and the exponentials of
+ * {@link Contrail#Iextinction(double, double, double, double, double)} are evaluated for as many photons at once as
+ * the hardware supports.
+ * <p>
+ * The JVM has to be started with {@code --add-modules jdk.incubator.vector} for this class to be usable. Do not
+ * reference it directly, use {@link ExtinctionKernel#create(Contrail, boolean)} instead. Results agree with the scalar
+ * kernel up to rounding differences of the vectorized math functions.
+ */
+public class VectorExtinctionKernel implements ExtinctionKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final double sigmaH;
+    private final double sigmaV;
+    private final double sigmaS;
+    private final double hDetsigma;
+    private final double c1;
+    private final double sqrtPi;
+    private final boolean doublePrecision;
+
+    /**
+     * Creates the kernel from the cached values of the given contrail.
+     *
+     * @param contrail The contrail to take the parameters from
+     */
+    public VectorExtinctionKernel(Contrail contrail) {
+        CompiledContrail compiled = contrail.getCompiled();
+        this.sigmaH = compiled.sigmaH;
+        this.sigmaV = compiled.sigmaV;
+        this.sigmaS = compiled.sigmaS;
+        this.hDetsigma = compiled.hDetsigma;
+        this.c1 = compiled.c1;
+        this.sqrtPi = CompiledContrail.SQRT_PI;
+        this.doublePrecision = contrail.getErfPrecision() == ErfPrecision.DOUBLE;
+    }
+
+    @Override
+    public void iextinction(double[] y0, double[] z0, double[] theta, double[] phi, double[] s, double[] out, int n) {
+        int k = 0;
+        for (; k < SPECIES.loopBound(n); k += SPECIES.length()) {
+            iextinction(DoubleVector.fromArray(SPECIES, y0, k),
+                    DoubleVector.fromArray(SPECIES, z0, k),
+                    DoubleVector.fromArray(SPECIES, theta, k),
+                    DoubleVector.fromArray(SPECIES, phi, k),
+                    DoubleVector.fromArray(SPECIES, s, k))
+                    .intoArray(out, k);
+        }
+
+        // Remaining lanes
+        if (k < n) {
+            VectorMask<Double> m = SPECIES.indexInRange(k, n);
+            iextinction(DoubleVector.fromArray(SPECIES, y0, k, m),
+                    DoubleVector.fromArray(SPECIES, z0, k, m),
+                    DoubleVector.fromArray(SPECIES, theta, k, m),
+                    DoubleVector.fromArray(SPECIES, phi, k, m),
+                    DoubleVector.fromArray(SPECIES, s, k, m))
+                    .intoArray(out, k, m);
+        }
+    }
+
+    /**
+     * Evaluates the extinction integral for one vector of lanes.
+     */
+    private DoubleVector iextinction(DoubleVector y, DoubleVector z, DoubleVector th, DoubleVector ph,
+                                     DoubleVector ds) {
+        DoubleVector sinTheta = th.lanewise(VectorOperators.SIN);
+        DoubleVector cosTheta = th.lanewise(VectorOperators.COS);
+        DoubleVector sinPhi = ph.lanewise(VectorOperators.SIN);
+        DoubleVector stsp = sinTheta.mul(sinPhi);
+
+        // a = a' / 2*det(sigma^)
+        DoubleVector a = stsp.mul(stsp).mul(sigmaV)
+                .sub(stsp.mul(cosTheta).mul(2 * sigmaS))
+                .add(cosTheta.mul(cosTheta).mul(sigmaH))
+                .mul(hDetsigma);
+        // b = -b' / 2*det(sigma^)
+        DoubleVector b = y.mul(sigmaV).sub(z.mul(sigmaS)).mul(stsp).mul(2)
+                .add(z.mul(sigmaH).sub(y.mul(sigmaS)).mul(cosTheta).mul(2))
+                .mul(-hDetsigma);
+        // c = -c' / 2*det(sigma^)
+        DoubleVector c = y.mul(y).mul(sigmaV)
+                .sub(y.mul(z).mul(2 * sigmaS))
+                .add(z.mul(z).mul(sigmaH))
+                .mul(-hDetsigma);
+
+        DoubleVector wa = a.lanewise(VectorOperators.SQRT);
+        DoubleVector bHalfWa = b.div(wa.mul(2));
+        DoubleVector f0 = DoubleVector.broadcast(SPECIES, sqrtPi).div(wa.mul(2))
+                .mul(b.mul(b).div(a.mul(4)).add(c).lanewise(VectorOperators.EXP));
+        DoubleVector f1 = f0.mul(erfLanes(wa.mul(ds).sub(bHalfWa)));
+        DoubleVector f2 = f0.mul(erfLanes(bHalfWa.neg()));
+
+        return f1.sub(f2).mul(c1).lanewise(VectorOperators.EXP).neg().add(1.0);
+    }
+
+    @Override
+    public void prepareSegments(double[] y0, double[] z0, double[] uy, double[] uz,
+                                double[] wa, double[] u0, double[] erf0, double[] k, int n) {
+        for (int j = 0; j < n; j += SPECIES.length()) {
+            VectorMask<Double> m = SPECIES.indexInRange(j, n);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, y0, j, m);
+            DoubleVector z = DoubleVector.fromArray(SPECIES, z0, j, m);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, uy, j, m);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, uz, j, m);
+
+            DoubleVector a = dy.mul(dy).mul(sigmaV)
+                    .sub(dy.mul(dz).mul(2 * sigmaS))
+                    .add(dz.mul(dz).mul(sigmaH))
+                    .mul(hDetsigma);
+            DoubleVector b = y.mul(sigmaV).sub(z.mul(sigmaS)).mul(dy).mul(2)
+                    .add(z.mul(sigmaH).sub(y.mul(sigmaS)).mul(dz).mul(2))
+                    .mul(-hDetsigma);
+            DoubleVector c = y.mul(y).mul(sigmaV)
+                    .sub(y.mul(z).mul(2 * sigmaS))
+                    .add(z.mul(z).mul(sigmaH))
+                    .mul(-hDetsigma);
+
+            DoubleVector sqrtA = a.lanewise(VectorOperators.SQRT);
+            DoubleVector offset = b.div(sqrtA.mul(2)).neg();
+            DoubleVector scale = DoubleVector.broadcast(SPECIES, c1 * sqrtPi).div(sqrtA.mul(2))
+                    .mul(b.mul(b).div(a.mul(4)).add(c).lanewise(VectorOperators.EXP));
+
+            sqrtA.intoArray(wa, j, m);
+            offset.intoArray(u0, j, m);
+            scale.intoArray(k, j, m);
+            erfLanes(offset).intoArray(erf0, j, m);
+        }
+    }
+
+    @Override
+    public void segmentExtinction(double[] wa, double[] u0, double[] erf0, double[] k, double[] s, double[] out,
+                                  int n) {
+        int j = 0;
+        for (; j < SPECIES.loopBound(n); j += SPECIES.length()) {
+            segmentExtinction(DoubleVector.fromArray(SPECIES, wa, j),
+                    DoubleVector.fromArray(SPECIES, u0, j),
+                    DoubleVector.fromArray(SPECIES, erf0, j),
+                    DoubleVector.fromArray(SPECIES, k, j),
+                    DoubleVector.fromArray(SPECIES, s, j))
+                    .intoArray(out, j);
+        }
+
+        // Remaining lanes
+        if (j < n) {
+            VectorMask<Double> m = SPECIES.indexInRange(j, n);
+            segmentExtinction(DoubleVector.fromArray(SPECIES, wa, j, m),
+                    DoubleVector.fromArray(SPECIES, u0, j, m),
+                    DoubleVector.fromArray(SPECIES, erf0, j, m),
+                    DoubleVector.fromArray(SPECIES, k, j, m),
+                    DoubleVector.fromArray(SPECIES, s, j, m))
+                    .intoArray(out, j, m);
+        }
+    }
+
+    /**
+     * Evaluates the extinction integral along flight segments for one vector of lanes.
+     */
+    private DoubleVector segmentExtinction(DoubleVector wa, DoubleVector u0, DoubleVector erf0,
+                                           DoubleVector k, DoubleVector s) {
+        return erfLanes(wa.mul(s).add(u0)).sub(erf0).mul(k).lanewise(VectorOperators.EXP).neg().add(1.0);
+    }
+
+    /**
+     * Computes the error function for all lanes of a vector with the precision configured for the contrail.
+     */
+    private DoubleVector erfLanes(DoubleVector x) {
+        return doublePrecision ? erfDouble(x) : erf(x);
+    }
+
+    /**
+     * Computes the error function for all lanes of a vector with the same approximation as
+     * {@link ErrorFunction#erfDouble(double)}. The Clenshaw recurrence of the Chebyshev series has the same steps for
+     * every lane.
+     *
+     * @param x The arguments
+     * @return The values of the error function
+     */
+    static DoubleVector erfDouble(DoubleVector x) {
+        DoubleVector ax = x.abs();
+        double[] cof = ErrorFunction.CHEBYSHEV;
+
+        DoubleVector t = DoubleVector.broadcast(x.species(), 2.0).div(ax.add(2.0));
+        DoubleVector ty = t.mul(4.0).sub(2.0);
+        DoubleVector d = DoubleVector.zero(x.species());
+        DoubleVector dd = DoubleVector.zero(x.species());
+        for (int j = cof.length - 1; j > 0; j--) {
+            DoubleVector tmp = d;
+            d = ty.mul(d).sub(dd).add(cof[j]);
+            dd = tmp;
+        }
+        DoubleVector erfc = t.mul(ax.mul(ax).neg().add(ty.mul(d).add(cof[0]).mul(0.5)).sub(dd)
+                .lanewise(VectorOperators.EXP));
+
+        // erf(-x)=-erf(x)
+        DoubleVector y = erfc.neg().add(1.0);
+        return y.blend(y.neg(), x.lt(0.0));
+    }
+
+    /**
+     * Computes the error function for all lanes of a vector with the same approximation as
+     * {@link ErrorFunction#erf(double)}.
+     *
+     * @param x The arguments
+     * @return The approximated values of the error function
+     */
+    static DoubleVector erf(DoubleVector x) {
+        DoubleVector ax = x.abs();
+
+        // A&S formula 7.1.26
+        DoubleVector t = DoubleVector.broadcast(x.species(), 1.0).div(ax.mul(ErrorFunction.p).add(1.0));
+        DoubleVector poly = t.mul(ErrorFunction.a5).add(ErrorFunction.a4)
+                .mul(t).add(ErrorFunction.a3)
+                .mul(t).add(ErrorFunction.a2)
+                .mul(t).add(ErrorFunction.a1)
+                .mul(t);
+        DoubleVector y = poly.mul(ax.mul(ax).neg().lanewise(VectorOperators.EXP)).neg().add(1.0);
+
+        // erf(-x)=-erf(x), erf(0)=0 as with Math.signum()
+        return y.blend(y.neg(), x.lt(0.0)).blend(0.0, x.eq(0.0));
+    }
+
+    /**
+     * Computes the error function for the first {@code n} values of an array, see {@link #erf(DoubleVector)}.
+     *
+     * @param x   The arguments
+     * @param out Array to write the results into
+     * @param n   The number of values to compute
+     */
+    public static void erf(double[] x, double[] out, int n) {
+        int k = 0;
+        for (; k < SPECIES.loopBound(n); k += SPECIES.length()) {
+            erf(DoubleVector.fromArray(SPECIES, x, k)).intoArray(out, k);
+        }
+
+        if (k < n) {
+            VectorMask<Double> m = SPECIES.indexInRange(k, n);
+            erf(DoubleVector.fromArray(SPECIES, x, k, m)).intoArray(out, k, m);
+        }
+    }
+
+    /**
+     * Computes the double precision error function for the first {@code n} values of an array, see
+     * {@link #erfDouble(DoubleVector)}.
+     *
+     * @param x   The arguments
+     * @param out Array to write the results into
+     * @param n   The number of values to compute
+     */
+    public static void erfDouble(double[] x, double[] out, int n) {
+        int k = 0;
+        for (; k < SPECIES.loopBound(n); k += SPECIES.length()) {
+            erfDouble(DoubleVector.fromArray(SPECIES, x, k)).intoArray(out, k);
+        }
+
+        if (k < n) {
+            VectorMask<Double> m = SPECIES.indexInRange(k, n);
+            erfDouble(DoubleVector.fromArray(SPECIES, x, k, m)).intoArray(out, k, m);
+        }
+    }
+}
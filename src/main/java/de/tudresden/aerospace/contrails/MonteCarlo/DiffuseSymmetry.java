@@ -0,0 +1,221 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+
+/**
+ * Describes the mirror symmetries of the grid of incident directions of the diffuse simulation. Directions that are
+ * mapped onto each other by a symmetry of the contrail yield statistically identical results, so only one
+ * representative direction of each group (orbit) has to be simulated. Task IDs number the directions in output order,
+ * {@code taskID = i_theta * binsPhi + i_phi}, and the representative of an orbit is its direction with the lowest task
+ * ID.
+ * <p>
+ * The following symmetries of the contrail model are exploited:
+ * <ul>
+ *     <li>Mirroring along the direction of flight ({@code phi -> pi - phi}). The contrail is homogeneous in x, so this
+ *     symmetry always holds. It maps the grid onto itself if the number of phi bins is even.</li>
+ *     <li>Mirroring at the flight level ({@code theta -> pi - theta}). This only holds if the cross-section of the
+ *     contrail is not sheared ({@code sigma_s = 0}), up to a shear ratio of {@link #SHEAR_TOLERANCE}. Scattering
+ *     angles are mirrored as well, so the scattering bins of the representative are reversed and upward and downward
+ *     scattering are swapped.</li>
+ * </ul>
+ * Mirroring at the vertical plane ({@code phi -> -phi}) is not exploited, as photons are launched from the side of
+ * the contrail given by {@code |sin(theta) sin(phi)|}, which makes the model asymmetric in this respect.
+ */
+public class DiffuseSymmetry {
+    /**
+     * Largest shear ratio {@code |sigma_s| / sqrt(sigma_h * sigma_v)}, i.e. correlation coefficient of the ice crystal
+     * distribution, for which the cross-section is treated as unsheared. Mirroring at the flight level then simulates
+     * the contrail with the opposite sign of {@code sigma_s}, which changes the optical depths by a relative amount of
+     * the order of the shear ratio. This stays well below the Monte Carlo noise unless a direction is simulated with
+     * more than 10^8 photons.
+     */
+    public static final double SHEAR_TOLERANCE = 1e-4;
+
+    private final int binsPhi;
+    private final boolean mirrorPhi;
+    private final boolean mirrorTheta;
+
+    /**
+     * Representative task ID of every task
+     */
+    private final int[] representative;
+
+    /**
+     * Highest task ID of the orbit of every representative task
+     */
+    private final int[] lastMember;
+
+    private final int numRepresentatives;
+
+    /**
+     * Creates the symmetry of a direction grid.
+     *
+     * @param binsTheta   The number of theta bins
+     * @param binsPhi     The number of phi bins
+     * @param mirrorPhi   Whether directions are mirrored along the direction of flight, requires an even number of
+     *                    phi bins
+     * @param mirrorTheta Whether directions are mirrored at the flight level
+     */
+    public DiffuseSymmetry(int binsTheta, int binsPhi, boolean mirrorPhi, boolean mirrorTheta) {
+        if (mirrorPhi && binsPhi % 2 != 0)
+            throw new IllegalArgumentException("Mirroring phi requires an even number of phi bins");
+
+        this.binsPhi = binsPhi;
+        this.mirrorPhi = mirrorPhi;
+        this.mirrorTheta = mirrorTheta;
+
+        int numTasks = binsTheta * binsPhi;
+        this.representative = new int[numTasks];
+        this.lastMember = new int[numTasks];
+        int count = 0;
+        for (int task = 0; task < numTasks; task++) {
+            int iTheta = task / binsPhi;
+            int iPhi = task % binsPhi;
+
+            int rep = task;
+            int last = task;
+            for (int m = 1; m < 4; m++) {
+                boolean flipPhi = (m & 1) != 0;
+                boolean flipTheta = (m & 2) != 0;
+                if ((flipPhi && !mirrorPhi) || (flipTheta && !mirrorTheta))
+                    continue;
+
+                int iThetaM = flipTheta ? binsTheta - 1 - iTheta : iTheta;
+                int iPhiM = flipPhi ? Math.floorMod(binsPhi / 2 - 1 - iPhi, binsPhi) : iPhi;
+                int other = iThetaM * binsPhi + iPhiM;
+                rep = Math.min(rep, other);
+                last = Math.max(last, other);
+            }
+
+            representative[task] = rep;
+            if (rep == task) {
+                lastMember[task] = last;
+                count++;
+            }
+        }
+        this.numRepresentatives = count;
+    }
+
+    /**
+     * Creates the symmetry without any mirroring, i.e. every direction is its own representative.
+     *
+     * @param binsTheta The number of theta bins
+     * @param binsPhi   The number of phi bins
+     * @return The trivial symmetry
+     */
+    public static DiffuseSymmetry none(int binsTheta, int binsPhi) {
+        return new DiffuseSymmetry(binsTheta, binsPhi, false, false);
+    }
+
+    /**
+     * Detects the symmetries that apply to a contrail and its direction grid.
+     *
+     * @param params The parameters of the contrail and the direction grid
+     * @return The symmetry of the direction grid
+     */
+    public static DiffuseSymmetry detect(DiffuseParameters params) {
+        double sigmaS = params.getSigmaS() == null ? 0.0 : params.getSigmaS();
+        boolean unsheared = Math.abs(sigmaS) <= SHEAR_TOLERANCE * Math.sqrt(params.getSigmaH() * params.getSigmaV());
+        return new DiffuseSymmetry(params.getBinsTheta(), params.getBinsPhi(), params.getBinsPhi() % 2 == 0,
+                unsheared);
+    }
+
+    /**
+     * Gets the representative of the orbit of a task.
+     *
+     * @param task The task ID
+     * @return The ID of the representative task, which is not greater than {@code task}
+     */
+    public int getRepresentative(int task) {
+        return representative[task];
+    }
+
+    /**
+     * Checks whether a task is the representative of its orbit and thus has to be simulated.
+     *
+     * @param task The task ID
+     * @return {@code true} if the task has to be simulated
+     */
+    public boolean isRepresentative(int task) {
+        return representative[task] == task;
+    }
+
+    /**
+     * Gets the highest task ID in the orbit of a representative task.
+     *
+     * @param representative The ID of the representative task
+     * @return The highest task ID, whose result is derived from the representative
+     */
+    public int getLastMember(int representative) {
+        return lastMember[representative];
+    }
+
+    /**
+     * Checks whether the result of a task is derived from its representative by mirroring at the flight level.
+     *
+     * @param task The task ID
+     * @return {@code true} if the scattering bins of the representative have to be reversed
+     */
+    public boolean flipsTheta(int task) {
+        return task / binsPhi != representative[task] / binsPhi;
+    }
+
+    /**
+     * Checks whether directions are mirrored at the flight level.
+     *
+     * @return {@code true} if the cross-section of the contrail was detected as unsheared
+     */
+    public boolean mirrorsTheta() {
+        return mirrorTheta;
+    }
+
+    /**
+     * Gets the number of directions that have to be simulated.
+     *
+     * @return The number of representative tasks
+     */
+    public int getNumRepresentatives() {
+        return numRepresentatives;
+    }
+
+    /**
+     * Gets the number of directions of the grid.
+     *
+     * @return The total number of tasks
+     */
+    public int getNumTasks() {
+        return representative.length;
+    }
+
+    @Override
+    public String toString() {
+        if (!mirrorPhi && !mirrorTheta)
+            return "none";
+        if (mirrorPhi && mirrorTheta)
+            return "phi -> pi - phi, theta -> pi - theta";
+
+        return mirrorPhi ? "phi -> pi - phi" : "theta -> pi - theta";
+    }
+}
@@ -64,6 +64,17 @@ public class Distribution {
      */
     double Ihelp;
 
+    /**
+     * Guide table to speed up the search in {@link #I}. Entry g holds the first index i with
+     * {@code guideBucket(I[i]) >= g}, so the search for a probability in bucket g can start there.
+     */
+    private int[] guide;
+
+    /**
+     * Factor mapping a cumulative probability to its bucket in {@link #guide}.
+     */
+    private double guideScale;
+
     /**
      * For picking random values from the probability distribution.
      */
@@ -104,6 +115,18 @@ public class Distribution {
 
         this.Ihelp = this.I[this.I.length - 1];
 
+        // build guide table with one bucket per class on average
+        int numBuckets = this.I.length;
+        this.guideScale = this.Ihelp > 0 ? numBuckets / this.Ihelp : 0;
+        this.guide = new int[numBuckets + 1];
+        int i = 0;
+        for (int g = 0; g <= numBuckets; g = g + 1) {
+            while (i < this.I.length - 1 && this.guideBucket(this.I[i]) < g) {
+                i = i + 1;
+            }
+            this.guide[g] = i;
+        }
+
         // initialize random number generator
         this.r = new Random();
     }
@@ -118,24 +141,45 @@ public class Distribution {
     }
 
     /**
-     * Computes X(p) as the inverse of P(x) using linear interpolation.
+     * Maps a cumulative probability to its bucket in the guide table. The mapping is monotonic in {@code P}.
+     *
+     * @param P The cumulative probability
+     * @return The index of the bucket
+     */
+    private int guideBucket(double P) {
+        return (int) (P * this.guideScale);
+    }
+
+    /**
+     * Computes X(p) as the inverse of P(x) using linear interpolation. The class containing {@code P} is located with
+     * a guide table, which takes constant time on average regardless of the number of classes.
      *
      * @param P The probability to find the corresponding value for.
      * @return The inverse of {@code P} or {@code -777} if the value is outside the range of cumulative probabilities.
      */
-    private double inverse(double P) {
-        double m = 0;
-        double n = 0;
-        for (int i = 0; i < this.I.length; i = i + 1) {
-            if (this.I[i] >= P) {
-                m = this.dx / (this.I[i] - this.I[i - 1]);
-                n = this.xn[i] - m * this.I[i];
-                return m * P + n + this.dx / 2.;
-            }
-
+    double inverse(double P) {
+        if (!(P <= this.Ihelp))
+            return -777.;
+
+        // first index with I[i] >= P, I[0] is 0 and has no lower neighbour
+        int i = Math.max(this.guide[this.guideBucket(P)], 1);
+        while (this.I[i] < P) {
+            i = i + 1;
         }
 
-        return -777.;
+        double m = this.dx / (this.I[i] - this.I[i - 1]);
+        double n = this.xn[i] - m * this.I[i];
+        return m * P + n + this.dx / 2.;
+    }
+
+    /**
+     * Retrieves the value of the distribution for a uniformly distributed number, i.e. the quantile function.
+     *
+     * @param u The number from [0, 1]
+     * @return The value with cumulative probability {@code u}
+     */
+    public double sample(double u) {
+        return this.inverse(u * this.Ihelp);
     }
 
     /**
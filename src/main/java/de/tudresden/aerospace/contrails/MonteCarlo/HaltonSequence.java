@@ -0,0 +1,93 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Halton sequence, randomized by an independent random permutation of the digits at every digit position (random
+ * digit scrambling). Each dimension uses the radical inverse in one of the first {@link #DIMENSIONS} prime bases.
+ * Digits are evaluated down to a resolution of at least 2^-32, so every coordinate is uniformly distributed on a grid
+ * of that resolution.
+ */
+public class HaltonSequence extends LowDiscrepancySequence {
+    /**
+     * Number of dimensions
+     */
+    public static final int DIMENSIONS = 21;
+
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71,
+            73};
+
+    /**
+     * Digit permutations, indexed by dimension, digit position and digit
+     */
+    private final int[][][] permutations = new int[DIMENSIONS][][];
+
+    /**
+     * Creates a randomly scrambled Halton sequence.
+     *
+     * @param scrambler The generator to draw the random scrambling from
+     */
+    public HaltonSequence(RandomGenerator scrambler) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            int base = PRIMES[d];
+            int numDigits = (int) Math.ceil(32 / (Math.log(base) / Math.log(2)));
+            permutations[d] = new int[numDigits][];
+            for (int j = 0; j < numDigits; j++) {
+                // Fisher-Yates shuffle
+                int[] perm = new int[base];
+                for (int i = 0; i < base; i++)
+                    perm[i] = i;
+                for (int i = base - 1; i > 0; i--) {
+                    int r = scrambler.nextInt(i + 1);
+                    int tmp = perm[i];
+                    perm[i] = perm[r];
+                    perm[r] = tmp;
+                }
+                permutations[d][j] = perm;
+            }
+        }
+    }
+
+    @Override
+    public double get(long index, int dimension) {
+        int base = PRIMES[dimension];
+        int[][] perm = permutations[dimension];
+        double invBase = 1.0 / base;
+        double f = invBase;
+        double x = 0.0;
+        for (int[] p : perm) {
+            x += p[(int) (index % base)] * f;
+            index /= base;
+            f *= invBase;
+        }
+
+        return x;
+    }
+
+    @Override
+    public int getDimensions() {
+        return DIMENSIONS;
+    }
+}
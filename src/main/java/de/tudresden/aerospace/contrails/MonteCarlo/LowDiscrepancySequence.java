@@ -0,0 +1,69 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Modeling.SamplingMode;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Base class of randomly scrambled low-discrepancy sequences for quasi-Monte Carlo integration. Each point of the
+ * sequence provides the first random numbers of a single photon, one coordinate per random number. The scrambling
+ * makes every coordinate uniformly distributed, so estimates remain unbiased, while points of the same sequence cover
+ * the unit cube more evenly than independent random numbers.
+ */
+public abstract class LowDiscrepancySequence {
+    /**
+     * Gets a coordinate of a point of the sequence.
+     *
+     * @param index     The index of the point
+     * @param dimension The index of the coordinate, must be less than {@link #getDimensions()}
+     * @return The coordinate in [0, 1)
+     */
+    public abstract double get(long index, int dimension);
+
+    /**
+     * Gets the number of coordinates of each point.
+     *
+     * @return The dimension of the sequence
+     */
+    public abstract int getDimensions();
+
+    /**
+     * Creates a randomly scrambled sequence.
+     *
+     * @param mode      The sampling mode, must be a quasi-random mode
+     * @param scrambler The generator to draw the random scrambling from
+     * @return The scrambled sequence
+     */
+    public static LowDiscrepancySequence create(SamplingMode mode, RandomGenerator scrambler) {
+        switch (mode) {
+            case SOBOL:
+                return new SobolSequence(scrambler);
+            case HALTON:
+                return new HaltonSequence(scrambler);
+            default:
+                throw new IllegalArgumentException("No low-discrepancy sequence for sampling mode " + mode.getName());
+        }
+    }
+}
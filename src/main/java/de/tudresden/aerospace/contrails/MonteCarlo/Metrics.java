@@ -72,6 +72,39 @@ public class Metrics {
     public Metrics() {
     }
 
+    /**
+     * Creates the metrics of a diffuse simulation from the summed up numbers of photons of all directions.
+     *
+     * @param n_phot_per_angle Number of photons per direction
+     * @param bins_phi         Number of bins for phi
+     * @param bins_theta       Number of bins for theta
+     * @param sum_n_trans      Number of photons that passed through without interaction
+     * @param sum_n_abs        Number of photons that were absorbed
+     * @param sum_n_scat       Number of photons that were scattered
+     * @return A new {@link Metrics} object with the sums and averages per direction
+     */
+    public static Metrics fromSums(int n_phot_per_angle, int bins_phi, int bins_theta, BigDecimal sum_n_trans,
+                                   BigDecimal sum_n_abs, BigDecimal sum_n_scat) {
+        BigDecimal b_photNo = BigDecimal.valueOf(n_phot_per_angle);
+        BigDecimal b_bins_total = BigDecimal.valueOf((long) bins_phi * bins_theta);
+
+        Metrics m = new Metrics();
+        m.n_phot_per_angle = n_phot_per_angle;
+        m.num_bins_phi = bins_phi;
+        m.num_bins_theta = bins_theta;
+        m.n_phot = b_photNo.multiply(b_bins_total);
+        m.sum_n_abs = sum_n_abs;
+        m.sum_n_affected = b_bins_total.multiply(b_photNo).subtract(sum_n_trans);
+        m.sum_n_trans = sum_n_trans;
+        m.sum_n_scat = sum_n_scat;
+        m.avg_n_trans = sum_n_trans.divide(b_bins_total, 4, RoundingMode.HALF_UP);
+        m.avg_n_abs = sum_n_abs.divide(b_bins_total, 4, RoundingMode.HALF_UP);
+        m.avg_n_scat = sum_n_scat.divide(b_bins_total, 4, RoundingMode.HALF_UP);
+        m.avg_n_affected = b_photNo.subtract(sum_n_trans.divide(b_bins_total, 4, RoundingMode.HALF_UP));
+
+        return m;
+    }
+
     /**
      * Creates a new metrics object, which accumulates the metric values of this object and the given object.
      *
@@ -0,0 +1,92 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random number stream of a single photon in quasi-Monte Carlo mode. The first random numbers the photon draws are the
+ * coordinates of its point of a {@link LowDiscrepancySequence}, in the order they are drawn. A photon draws its launch
+ * offset first and then, for each interaction, the free path, the choice between absorption and scattering and the two
+ * scattering angles, so each coordinate is always used for the same quantity. Once the coordinates are exhausted,
+ * random numbers are taken from a pseudo-random padding stream.
+ */
+public class QuasiRandomStream implements RandomGenerator {
+    private final LowDiscrepancySequence sequence;
+    private long index;
+    private int dimension;
+    private RandomGenerator padding;
+
+    /**
+     * Creates the stream.
+     *
+     * @param sequence The scrambled sequence of the direction the photons belong to
+     */
+    public QuasiRandomStream(LowDiscrepancySequence sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Starts the random numbers of the next photon.
+     *
+     * @param index   The index of the photon within its direction, which selects the point of the sequence
+     * @param padding The generator to take random numbers from once the coordinates of the point are exhausted
+     */
+    public void startPhoton(long index, RandomGenerator padding) {
+        this.index = index;
+        this.dimension = 0;
+        this.padding = padding;
+    }
+
+    @Override
+    public double nextDouble() {
+        if (dimension < sequence.getDimensions())
+            return sequence.get(index, dimension++);
+
+        return padding.nextDouble();
+    }
+
+    /**
+     * Skips the next coordinate of the point without drawing a random number. Used for interactions that do not need
+     * the random number of a coordinate, so that later quantities keep their coordinates.
+     */
+    public void skip() {
+        if (dimension < sequence.getDimensions())
+            dimension++;
+    }
+
+    /**
+     * Draws a random number from the pseudo-random padding stream without consuming a coordinate of the point. Used
+     * for random numbers that are only drawn by some photons, like Russian roulette.
+     *
+     * @return The random number from [0, 1)
+     */
+    public double nextPadding() {
+        return padding.nextDouble();
+    }
+
+    @Override
+    public long nextLong() {
+        return padding.nextLong();
+    }
+}
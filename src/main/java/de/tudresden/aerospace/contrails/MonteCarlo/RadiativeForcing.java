@@ -53,6 +53,9 @@ public class RadiativeForcing {
 
     private final SimulationParser solarParser, terrestrialParser;
 
+    // Column of the upwards scattered photons in the direct part, the expected escape if next-event estimation was used
+    private final int id_up_direct;
+
     // Notice: for better readability, most of the variable names in this class contain underscores instead of being
     // written in conventional camelCase
     private final double lambda_sol_dir, lambda_sol_diff, lambda_terr_diff;
@@ -117,7 +120,7 @@ public class RadiativeForcing {
     public RadiativeForcing(File solarDiffuse, File solarDirect, File terrestrialDiffuse,
                             File libradtranUVSpec, File libradtranTwoStr) {
 
-        // Parse output files: reuse CustomCSVParser and DynamicTable
+        // Parse output files into primitive columns
         // Values in all files are separated by whitespaces
         String delimiter = "\\s+";
 
@@ -126,15 +129,9 @@ public class RadiativeForcing {
         SimulationParser directParser = new SimulationParser(solarDirect, delimiter);
         terrestrialParser = new SimulationParser(terrestrialDiffuse, delimiter);
 
-        solarParser.parse();
-        directParser.parse();
-        terrestrialParser.parse();
-
-        // Convert tables
-        int num_values = SimulationParser.TableIndex.values().length;
-        this.solarDirect = directParser.getValueTensor(0);
-        this.solarDiffuse = solarParser.getValueTensor(num_values);
-        this.terrestrialDiffuse = terrestrialParser.getValueTensor(num_values);
+        solarParser.parseColumns();
+        directParser.parseColumns();
+        terrestrialParser.parseColumns();
 
         // Obtain parameters
         // Assume terrestrial and solar parts are conducted with the same number of photons and bins for now
@@ -143,6 +140,17 @@ public class RadiativeForcing {
         paramsSolarDir = directParser.getDiffuseParameters();
         paramsTerrestrial = terrestrialParser.getDiffuseParameters();
 
+        // Convert tables, the scattering angles may be followed by the expected escape of next-event estimation
+        int num_values = SimulationParser.TableIndex.values().length;
+        this.solarDirect = directParser.getValueTensor(0);
+        this.solarDiffuse = solarParser.getRangeTensor(num_values,
+                num_values + 180 / paramsSolar.getResolutionS());
+        this.terrestrialDiffuse = terrestrialParser.getRangeTensor(num_values,
+                num_values + 180 / paramsTerrestrial.getResolutionS());
+        int id_expected_up = directParser.getColumns().getColumnNames().indexOf(SimulationParser.EXPECTED_UP);
+        this.id_up_direct = id_expected_up >= 0 ? id_expected_up
+                : SimulationParser.TableIndex.NUM_SCATTERED_UP.ordinal();
+
         // Libradtran output contains blocks
         this.libradtranSolar = LibradtranParser.parseUVSpec(libradtranUVSpec);
         this.libradtranTerr = LibradtranParser.parseTwoStream(libradtranTwoStr);
@@ -237,7 +245,7 @@ public class RadiativeForcing {
         Tensor<Double> correction_factor = solarDirect.getAt(SimulationParser.TableIndex.CORRECTION_FACTOR.ordinal());
 
         // Index represents different theta values
-        Tensor<Double> s_up_dir = solarDirect.getAt(SimulationParser.TableIndex.NUM_SCATTERED_UP.ordinal());
+        Tensor<Double> s_up_dir = solarDirect.getAt(id_up_direct);
         s_up_dir = s_up_dir.multiply(i_dir).times(correction_factor);
 
         // Index represents different theta values
@@ -268,19 +276,14 @@ public class RadiativeForcing {
 
         // Lists with angle pairs contain duplicates, such that iterating over both
         // at the same time yields all possible pairs
-        int id = SimulationParser.TableIndex.THETA.ordinal();
-        List<Double> thetas = solarParser.getRangeList(id, id + 1);
-        id = SimulationParser.TableIndex.PHI.ordinal();
-        List<Double> phis = solarParser.getRangeList(id, id + 1);
+        double[] thetas = solarParser.getColumn(SimulationParser.TableIndex.THETA);
+        double[] phis = solarParser.getColumn(SimulationParser.TableIndex.PHI);
 
-        id = SimulationParser.TableIndex.NUM_SCATTERED_UP.ordinal();
-        List<Double> s_up = solarParser.getRangeList(id, id + 1);
-        id = SimulationParser.TableIndex.NUM_ABS.ordinal();
-        List<Double> s_abs = solarParser.getRangeList(id, id + 1);
+        double[] s_up = upwardsScattered(solarParser);
+        double[] s_abs = solarParser.getColumn(SimulationParser.TableIndex.NUM_ABS);
 
         // Apply correction factor
-        id = SimulationParser.TableIndex.CORRECTION_FACTOR.ordinal();
-        List<Double> correction_factors = solarParser.getRangeList(id, id + 1);
+        double[] correction_factors = solarParser.getColumn(SimulationParser.TableIndex.CORRECTION_FACTOR);
 
         LibradtranBlock libradtranBlock = LibradtranParser.getBlockByLambda(libradtranSolar, lambda_sol_diff);
 
@@ -300,14 +303,14 @@ public class RadiativeForcing {
         List<Double> p_pp_up = new ArrayList<>();
         List<Double> p_pp_abs = new ArrayList<>();
         List<Double> p_p_down = new ArrayList<>();
-        for (int i = 0; i < thetas.size(); i++) {
-            double p = phis.get(i); // phi value
-            double t = thetas.get(i); // theta value
-            double u = s_up.get(i); // s_up value (phi, theta, lambda)
-            double a = s_abs.get(i); // s_abs value (phi, theta, lambda)
+        for (int i = 0; i < thetas.length; i++) {
+            double p = phis[i]; // phi value
+            double t = thetas[i]; // theta value
+            double u = s_up[i]; // s_up value (phi, theta, lambda)
+            double a = s_abs[i]; // s_abs value (phi, theta, lambda)
 
             double o = Math.sin(t) * d_phi_sol * d_theta_sol; // omega value (theta)
-            double f = correction_factors.get(i); // correction factor (phi, theta)
+            double f = correction_factors[i]; // correction factor (phi, theta)
 
             // Retrieve matching radiances from libradtran for each pair (theta, phi)
             Double radiance = libradtranBlock.matchDiffuseRadiance(t, p, paramsCommon.getPsi());
@@ -364,6 +367,18 @@ public class RadiativeForcing {
         return new RFStepResult(p_prime_up, p_prime_down, p_prime_abs);
     }
 
+    /**
+     * Gets the upwards scattered photons of a diffuse simulation output. If the output contains the expected escape of
+     * next-event estimation, it is used in place of the counts, as it has a much lower variance.
+     *
+     * @param parser The parser of the simulation output
+     * @return The upwards scattered photons per direction
+     */
+    private static double[] upwardsScattered(SimulationParser parser) {
+        double[] expected = parser.getColumn(SimulationParser.EXPECTED_UP);
+        return expected != null ? expected : parser.getColumn(SimulationParser.TableIndex.NUM_SCATTERED_UP);
+    }
+
     /**
      * Computes the powers of scattered and absorbed photons for the diffuse part of terrestrial radiation.
      *
@@ -371,19 +386,14 @@ public class RadiativeForcing {
      * absorbed photon power
      */
     public RFStepResult calcTerrestrialDiffuse() {
-        int id = SimulationParser.TableIndex.THETA.ordinal();
-        List<Double> thetas = terrestrialParser.getRangeList(id, id + 1);
-        id = SimulationParser.TableIndex.PHI.ordinal();
-        List<Double> phis = terrestrialParser.getRangeList(id, id + 1);
+        double[] thetas = terrestrialParser.getColumn(SimulationParser.TableIndex.THETA);
+        double[] phis = terrestrialParser.getColumn(SimulationParser.TableIndex.PHI);
 
-        id = SimulationParser.TableIndex.NUM_SCATTERED_UP.ordinal();
-        List<Double> s_up = terrestrialParser.getRangeList(id, id + 1);
-        id = SimulationParser.TableIndex.NUM_ABS.ordinal();
-        List<Double> s_abs = terrestrialParser.getRangeList(id, id + 1);
+        double[] s_up = upwardsScattered(terrestrialParser);
+        double[] s_abs = terrestrialParser.getColumn(SimulationParser.TableIndex.NUM_ABS);
 
         // Apply correction factor
-        id = SimulationParser.TableIndex.CORRECTION_FACTOR.ordinal();
-        List<Double> correction_factors = terrestrialParser.getRangeList(id, id + 1);
+        double[] correction_factors = terrestrialParser.getColumn(SimulationParser.TableIndex.CORRECTION_FACTOR);
 
         LibradtranBlock libradtranBlock = LibradtranParser.getBlockByLambda(libradtranTerr, lambda_terr_diff);
 
@@ -401,12 +411,12 @@ public class RadiativeForcing {
         List<Double> p_p_up = new ArrayList<>();
         List<Double> p_p_abs = new ArrayList<>();
         List<Double> p_p_down = new ArrayList<>();
-        for (int i = 0; i < thetas.size(); i++) {
-            double t = thetas.get(i);
-            double u = s_up.get(i);
-            double a = s_abs.get(i);
+        for (int i = 0; i < thetas.length; i++) {
+            double t = thetas[i];
+            double u = s_up[i];
+            double a = s_abs[i];
             double o = Math.sin(t) * d_phi_terr * d_theta_terr;
-            double f = correction_factors.get(i);
+            double f = correction_factors[i];
 
             // Compute p*_up
             double td = Math.toDegrees(t);
@@ -0,0 +1,90 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Derives independent, reproducible random number streams for the tasks of a simulation from a single seed. Every
+ * block of {@link #PHOTONS_PER_STREAM} photons of a task draws from its own stream, which only depends on the seed, the
+ * simulation part, the task and the block index. Results are therefore bit-identical for a given seed, regardless of
+ * the number of threads or the order in which tasks are executed.
+ * <p>
+ * Streams are {@link SplittableRandom} generators, whose output is a mixing function of a counter. The seed of each
+ * stream is derived by hashing the task coordinates with the same mixing function.
+ */
+public class RandomStreams {
+    /**
+     * Number of consecutive photons of a task that are integrated with the same stream
+     */
+    public static final int PHOTONS_PER_STREAM = 1024;
+
+    private final long baseSeed;
+
+    /**
+     * Creates the stream factory for one part of the simulation.
+     *
+     * @param seed The seed of the simulation
+     * @param part Name of the simulation part, e.g. the output file suffix. Different parts get independent streams.
+     */
+    public RandomStreams(long seed, String part) {
+        this.baseSeed = mix64(seed ^ mix64(part.hashCode()));
+    }
+
+    /**
+     * Gets the random number stream for a block of photons.
+     *
+     * @param task  The ID of the task, unique within the simulation part
+     * @param block The index of the block of {@link #PHOTONS_PER_STREAM} photons within the task
+     * @return A new generator, which yields the same sequence for the same arguments
+     */
+    public RandomGenerator stream(long task, long block) {
+        long s = mix64(baseSeed + 0x9E3779B97F4A7C15L * (task + 1));
+        s = mix64(s + 0xBF58476D1CE4E5B9L * (block + 1));
+        return new SplittableRandom(s);
+    }
+
+    /**
+     * Gets the generator for the random scrambling of the low-discrepancy sequence of a task, which is independent of
+     * all photon streams.
+     *
+     * @param task The ID of the task, unique within the simulation part
+     * @return A new generator, which yields the same sequence for the same task
+     */
+    public RandomGenerator scrambler(long task) {
+        return stream(task, -1);
+    }
+
+    /**
+     * Finalizer of the SplitMix64 generator, a bijective function with good avalanche properties.
+     *
+     * @param z The value to mix
+     * @return The mixed value
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
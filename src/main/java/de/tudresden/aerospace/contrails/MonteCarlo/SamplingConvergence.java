@@ -0,0 +1,210 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
+import de.tudresden.aerospace.contrails.Modeling.SamplingMode;
+import de.tudresden.aerospace.contrails.Modeling.SolarContrail;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compares the convergence of the quasi-Monte Carlo sampling modes with pseudo-random sampling. For increasing numbers
+ * of photons per direction, the diffuse simulation of a small direction grid is repeated with independent seeds for
+ * every {@link SamplingMode}, which also scramble the quasi-random sequences independently. The root mean square error
+ * of a single run is estimated from the standard deviation of the average numbers of absorbed and scattered photons
+ * ({@link Metrics#avg_n_abs}, {@link Metrics#avg_n_scat}) across the repeats and reported relative to their mean. Unlike
+ * the error with respect to a reference run, this estimate is not limited by the statistical error of the reference.
+ * Results are computed in memory, no output files are written.
+ */
+public class SamplingConvergence {
+    /**
+     * Numbers of photons per direction to compare
+     */
+    private static final int[] NUM_PHOTONS = {1024, 4096, 16384, 65536};
+
+    /**
+     * Number of independent runs per sampling mode and number of photons
+     */
+    private static final int NUM_REPEATS = 8;
+
+    /**
+     * Usage message printed for invalid arguments
+     */
+    private static final String USAGE = "Usage: SamplingConvergence <config.xml> [sol|terr] [bins_phi bins_theta]";
+
+    /**
+     * Runs the diffuse simulation of all directions of the grid and computes its metrics.
+     *
+     * @param params     The parameters of the simulation
+     * @param solar      Whether to run the solar or the terrestrial part
+     * @param mode       The sampling mode
+     * @param numPhotons The number of photons per direction
+     * @param seed       The seed of the run
+     * @param pool       The pool to run the directions in
+     * @return The metrics of the run
+     */
+    public static Metrics run(XMLParameters params, boolean solar, SamplingMode mode, int numPhotons, long seed,
+                              ForkJoinPool pool) {
+        DiffuseParameters diffuse = new DiffuseParameters(solar ? params.getSolarDiffuse()
+                : params.getTerrestrialDiffuse());
+        diffuse.setSampling(mode.getName());
+        XMLParameters runParams = params.clone();
+        if (solar)
+            runParams.setSolarDiffuse(diffuse);
+        else
+            runParams.setTerrestrialDiffuse(diffuse);
+
+        Simulation sim = solar ? new SolarSimulation(runParams) : new TerrestrialSimulation(runParams);
+        sim.setSeed(seed);
+        Contrail contrail = solar ? new SolarContrail(diffuse) : new TerrestrialContrail(diffuse);
+        contrail.setMultiThreadedMode(true);
+        RandomStreams streams = sim.createStreams(sim.suffixDiffuse);
+
+        double d_theta = Math.PI / diffuse.getBinsTheta();
+        double d_phi = Math.PI * 2 / diffuse.getBinsPhi();
+        List<ForkJoinTask<Simulation.SingleStepResult>> tasks = new ArrayList<>();
+        int taskID = 0;
+        for (int i_theta = 0; i_theta < diffuse.getBinsTheta(); i_theta++) {
+            for (int i_phi = 0; i_phi < diffuse.getBinsPhi(); i_phi++) {
+                tasks.add(pool.submit(sim.new ComputeDirection(taskID++, contrail, 0, numPhotons,
+                        diffuse.getResolutionS(), (0.5 + i_theta) * d_theta, (0.5 + i_phi) * d_phi, streams)));
+            }
+        }
+
+        long sum_n_trans = 0;
+        long sum_n_abs = 0;
+        long sum_n_scat = 0;
+        for (ForkJoinTask<Simulation.SingleStepResult> task : tasks) {
+            Simulation.SingleStepResult res = task.join();
+            sum_n_trans += res.nTrans;
+            sum_n_abs += res.nAbs;
+            sum_n_scat += res.nScat;
+        }
+
+        return Metrics.fromSums(numPhotons, diffuse.getBinsPhi(), diffuse.getBinsTheta(),
+                BigDecimal.valueOf(sum_n_trans), BigDecimal.valueOf(sum_n_abs), BigDecimal.valueOf(sum_n_scat));
+    }
+
+    /**
+     * Computes the sample standard deviation of independent estimates relative to their mean.
+     *
+     * @param values The estimates
+     * @return The relative standard deviation or {@code NaN} if the mean is zero
+     */
+    private static double relativeStandardDeviation(double[] values) {
+        double mean = 0.0;
+        for (double v : values)
+            mean += v;
+        mean /= values.length;
+        if (mean == 0.0)
+            return Double.NaN;
+
+        double sumSquares = 0.0;
+        for (double v : values)
+            sumSquares += (v - mean) * (v - mean);
+
+        return Math.sqrt(sumSquares / (values.length - 1)) / mean;
+    }
+
+    /**
+     * Parses a positive integer argument. Terminates the program with the usage message if it is invalid.
+     *
+     * @param arg The argument
+     * @return The parsed value
+     */
+    private static int parsePositive(String arg) {
+        try {
+            int value = Integer.parseInt(arg);
+            if (value > 0)
+                return value;
+        } catch (NumberFormatException ignored) {
+            // Handled below
+        }
+
+        System.err.println("Invalid number '" + arg + "'");
+        System.err.println(USAGE);
+        System.exit(1);
+        return 0;
+    }
+
+    /**
+     * Runs the comparison and prints a table of relative errors.
+     *
+     * @param args The path of the XML configuration file, optionally followed by the part to run ({@code sol} or {@code terr},
+     *             default {@code sol}) and the number of bins for phi and theta (default 8 and 4)
+     */
+    public static void main(String[] args) {
+        // The bins are optional, but only together
+        if (args.length < 1 || args.length == 3 || args.length > 4
+                || (args.length >= 2 && !args[1].equals("sol") && !args[1].equals("terr"))) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        XMLParameters params = XMLParameters.unmarshal(new File(args[0]));
+        if (params == null)
+            System.exit(1);
+
+        boolean solar = args.length < 2 || args[1].equals("sol");
+        DiffuseParameters diffuse = solar ? params.getSolarDiffuse() : params.getTerrestrialDiffuse();
+        diffuse.setBinsPhi(args.length == 4 ? parsePositive(args[2]) : 8);
+        diffuse.setBinsTheta(args.length == 4 ? parsePositive(args[3]) : 4);
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        System.out.println("Relative RMSE of avg_n_abs and avg_n_scat, estimated from " + NUM_REPEATS
+                + " independent runs");
+        System.out.printf("%10s", "n_phot");
+        for (SamplingMode mode : SamplingMode.values())
+            System.out.printf(" %14s %14s", mode.getName() + "_abs", mode.getName() + "_scat");
+        System.out.println();
+
+        for (int numPhotons : NUM_PHOTONS) {
+            System.out.printf("%10d", numPhotons);
+            for (SamplingMode mode : SamplingMode.values()) {
+                double[] abs = new double[NUM_REPEATS];
+                double[] scat = new double[NUM_REPEATS];
+                for (int i = 0; i < NUM_REPEATS; i++) {
+                    Metrics m = run(params, solar, mode, numPhotons, i + 1, pool);
+                    abs[i] = m.avg_n_abs.doubleValue();
+                    scat[i] = m.avg_n_scat.doubleValue();
+                }
+
+                System.out.printf(" %14.6f %14.6f", relativeStandardDeviation(abs),
+                        relativeStandardDeviation(scat));
+            }
+            System.out.println();
+        }
+
+        pool.shutdown();
+    }
+}
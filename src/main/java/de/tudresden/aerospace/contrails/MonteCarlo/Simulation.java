@@ -22,19 +22,23 @@ package de.tudresden.aerospace.contrails.MonteCarlo;
  * #L%
  */
 
+import de.tudresden.aerospace.contrails.Configuration.IO.BinaryTableWriter;
 import de.tudresden.aerospace.contrails.Configuration.IO.DynamicTable;
+import de.tudresden.aerospace.contrails.Configuration.IO.OutputFormat;
+import de.tudresden.aerospace.contrails.Configuration.IO.SimulationParser;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.CommonParameters;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.DirectParameters;
 import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
 import de.tudresden.aerospace.contrails.Modeling.*;
+import de.tudresden.aerospace.contrails.Utility.IOHelpers;
 
 import java.io.*;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.random.RandomGenerator;
 
 public abstract class Simulation {
     public static final String suffixDiffuseSolar = "_solar_diffuse";
@@ -64,13 +68,280 @@ public abstract class Simulation {
         public int nScatUp = 0; // Number of photons that were scattered back towards the sky
         public int nScatDown = 0; // Number of photons that were scattered towards earth
         public int nScatMultiple = 0; // Number of photons that were scattered multiple times
+        public int nPhotons = 0; // Number of photons that were simulated
         public double avgScattering = 0.0; // Average scattering probability
+        public double[] weighted_bins; // Stores the weight of scattered photons for each bin
+        public double wScat = 0.0; // Weight of photons that were scattered
+        public double wAbs = 0.0; // Weight that was absorbed
+        public double wScatUp = 0.0; // Weight of photons that were scattered back towards the sky
+        public double wScatDown = 0.0; // Weight of photons that were scattered towards earth
+        public double wTrans = 0.0; // Weight that passed through without interaction
+        public double[] expected_bins; // Stores the expected weight escaping into each bin with next-event estimation
+        public double eScatUp = 0.0; // Expected weight escaping back towards the sky with next-event estimation
+        public double eScatDown = 0.0; // Expected weight escaping towards earth with next-event estimation
+        public long nFreePaths = 0; // Number of sampled free path lengths
+        public long nRootIterations = 0; // Number of secant iterations needed for the free path lengths
 
         public SingleStepResult(int threadID, double theta, double phi) {
             this.threadID = threadID;
             this.theta = theta;
             this.phi = phi;
         }
+
+        /**
+         * Allocates the scattering bins of this result.
+         *
+         * @param numBins The number of bins
+         */
+        public void allocateBins(int numBins) {
+            scattered_bins = new int[numBins];
+            weighted_bins = new double[numBins];
+            expected_bins = new double[numBins];
+        }
+
+        /**
+         * Adds the result of another chunk of photons for the same direction of incidence to this result.
+         *
+         * @param other The partial result to merge into this one
+         */
+        public void merge(SingleStepResult other) {
+            int n = nScat + other.nScat;
+            if (n > 0)
+                avgScattering = (avgScattering * nScat + other.avgScattering * other.nScat) / n;
+
+            nScat = n;
+            nAbs += other.nAbs;
+            nTrans += other.nTrans;
+            nScatUp += other.nScatUp;
+            nScatDown += other.nScatDown;
+            nScatMultiple += other.nScatMultiple;
+            nPhotons += other.nPhotons;
+            nFreePaths += other.nFreePaths;
+            nRootIterations += other.nRootIterations;
+            wScat += other.wScat;
+            wAbs += other.wAbs;
+            wScatUp += other.wScatUp;
+            wScatDown += other.wScatDown;
+            wTrans += other.wTrans;
+            eScatUp += other.eScatUp;
+            eScatDown += other.eScatDown;
+            for (int j = 0; j < scattered_bins.length; j++) {
+                scattered_bins[j] += other.scattered_bins[j];
+                weighted_bins[j] += other.weighted_bins[j];
+                expected_bins[j] += other.expected_bins[j];
+            }
+        }
+
+        /**
+         * Creates the result of a symmetric direction from this result.
+         *
+         * @param threadID  The task ID of the symmetric direction
+         * @param theta     The angle to the z-axis of the symmetric direction
+         * @param phi       The angle to the x-axis of the symmetric direction
+         * @param flipTheta Whether the symmetric direction is mirrored at the flight level, which reverses the
+         *                  scattering bins and swaps upward and downward scattering
+         * @return The result of the symmetric direction
+         */
+        public SingleStepResult mirrored(int threadID, double theta, double phi, boolean flipTheta) {
+            SingleStepResult res = new SingleStepResult(threadID, theta, phi);
+            res.nScat = nScat;
+            res.nAbs = nAbs;
+            res.nTrans = nTrans;
+            res.nScatUp = flipTheta ? nScatDown : nScatUp;
+            res.nScatDown = flipTheta ? nScatUp : nScatDown;
+            res.nScatMultiple = nScatMultiple;
+            res.nPhotons = nPhotons;
+            res.avgScattering = avgScattering;
+            res.wScat = wScat;
+            res.wAbs = wAbs;
+            res.wScatUp = flipTheta ? wScatDown : wScatUp;
+            res.wScatDown = flipTheta ? wScatUp : wScatDown;
+            res.wTrans = wTrans;
+            res.eScatUp = flipTheta ? eScatDown : eScatUp;
+            res.eScatDown = flipTheta ? eScatUp : eScatDown;
+            res.allocateBins(scattered_bins.length);
+            for (int j = 0; j < scattered_bins.length; j++) {
+                int k = flipTheta ? scattered_bins.length - 1 - j : j;
+                res.scattered_bins[j] = scattered_bins[k];
+                res.weighted_bins[j] = weighted_bins[k];
+                res.expected_bins[j] = expected_bins[k];
+            }
+
+            return res;
+        }
+
+        /**
+         * Estimates the largest relative standard error of the absorbed fraction and of all significant scattering bins.
+         * Every photon is counted in a given category or not, so each count follows a binomial distribution, whose
+         * relative standard error is {@code sqrt((1 - p) / k)} for {@code k} counts and {@code p = k / nPhotons}.
+         * Categories holding less than {@link #MIN_BIN_SHARE} of the interacting photons are ignored, because they
+         * hardly contribute to the radiative forcing. The weighted tallies are used in place of the counts, which equal
+         * the counts unless implicit absorption is enabled. In that case, the estimate is conservative, because the
+         * weighted tallies fluctuate less than binomial counts of the same mean.
+         *
+         * @return The largest relative standard error or {@link Double#POSITIVE_INFINITY} if no photon interacted
+         */
+        public double relativeError() {
+            double wInteracting = wAbs + wScat;
+            if (wInteracting <= 0.0)
+                return Double.POSITIVE_INFINITY;
+
+            double minCount = Math.max(1.0, Math.ceil(MIN_BIN_SHARE * wInteracting));
+            double err = relativeError(wAbs, minCount);
+            for (double count : weighted_bins)
+                err = Math.max(err, relativeError(count, minCount));
+
+            return err;
+        }
+
+        private double relativeError(double count, double minCount) {
+            if (count < minCount)
+                return 0.0;
+
+            return Math.sqrt(Math.max(0.0, 1.0 - count / nPhotons) / count);
+        }
+    }
+
+    /**
+     * Minimum share of the scattered photons a bin must hold to be considered by
+     * {@link SingleStepResult#relativeError()}.
+     */
+    protected static final double MIN_BIN_SHARE = 0.01;
+
+    /**
+     * Number of photons per chunk in {@link ComputeDirection}. A multiple of {@link RandomStreams#PHOTONS_PER_STREAM},
+     * so that chunk boundaries coincide with random number stream boundaries.
+     */
+    protected static final int CHUNK_PHOTONS = 16 * RandomStreams.PHOTONS_PER_STREAM;
+
+    /**
+     * Fork/join task that computes a single direction of incidence. The photons of the direction are recursively split
+     * into chunks of at most {@link #CHUNK_PHOTONS} photons, which idle threads of the {@link ForkJoinPool} can steal.
+     * This keeps all threads busy at the end of the simulation, where only a few directions with long photon lifetimes
+     * are left. Partial results are merged in a fixed order, so results for a given seed do not depend on scheduling.
+     */
+    protected class ComputeDirection extends RecursiveTask<SingleStepResult> {
+        private static final long serialVersionUID = 1L;
+
+        int taskID;
+        Contrail contrail;
+        int firstPhoton;
+        int numPhotons;
+        int resolution_S;
+        double theta;
+        double phi;
+        RandomStreams streams;
+
+        /**
+         * Constructs the task for a range of photons of a single direction of incidence.
+         *
+         * @param contrail     The contrail object that performs the integration for a single photon
+         * @param firstPhoton  The index of the first photon of the range within the direction
+         * @param numPhotons   The number of photons to simulate
+         * @param resolution_S The resolution of the result (lower number = more bins)
+         * @param theta        The angle to the z-axis in the contrail coordinate system
+         * @param phi          The angle to the x-axis in the contrail coordinate system
+         * @param streams      Provides the random number streams of this task or {@code null} to use the generator of
+         *                     the contrail
+         */
+        public ComputeDirection(int taskID, Contrail contrail, int firstPhoton, int numPhotons, int resolution_S,
+                                double theta, double phi, RandomStreams streams) {
+            this.taskID = taskID;
+            this.contrail = contrail;
+            this.firstPhoton = firstPhoton;
+            this.numPhotons = numPhotons;
+            this.resolution_S = resolution_S;
+            this.theta = theta;
+            this.phi = phi;
+            this.streams = streams;
+        }
+
+        @Override
+        protected SingleStepResult compute() {
+            if (numPhotons <= CHUNK_PHOTONS) {
+                return new ComputeSingleStep(taskID, contrail, firstPhoton, numPhotons, resolution_S, theta, phi,
+                        streams).call();
+            }
+
+            // Split at a chunk boundary
+            int numChunks = (numPhotons + CHUNK_PHOTONS - 1) / CHUNK_PHOTONS;
+            int numLeft = numChunks / 2 * CHUNK_PHOTONS;
+            ComputeDirection left = new ComputeDirection(taskID, contrail, firstPhoton, numLeft, resolution_S,
+                    theta, phi, streams);
+            ComputeDirection right = new ComputeDirection(taskID, contrail, firstPhoton + numLeft,
+                    numPhotons - numLeft, resolution_S, theta, phi, streams);
+
+            right.fork();
+            SingleStepResult res = left.compute();
+            res.merge(right.join());
+            return res;
+        }
+    }
+
+    /**
+     * Fork/join task that computes a single direction of incidence in adaptive mode. Photons are simulated in rounds of
+     * {@link CommonParameters#getAdaptiveMinPhotonsOrDefault()} photons, until the relative standard error of the
+     * result drops below {@link CommonParameters#getAdaptiveTargetError()} or
+     * {@link CommonParameters#getAdaptiveMaxPhotonsOrDefault()} photons have been simulated. Directions with rare
+     * interactions thereby receive more photons than directions that converge quickly. Rounds are rounded up to whole
+     * random number streams and continue the photon indices of the previous round, so results for a given seed remain
+     * reproducible.
+     */
+    protected class ComputeAdaptiveDirection extends RecursiveTask<SingleStepResult> {
+        private static final long serialVersionUID = 1L;
+
+        int taskID;
+        Contrail contrail;
+        int resolution_S;
+        double theta;
+        double phi;
+        RandomStreams streams;
+
+        /**
+         * Constructs the task for a single direction of incidence.
+         *
+         * @param contrail     The contrail object that performs the integration for a single photon
+         * @param resolution_S The resolution of the result (lower number = more bins)
+         * @param theta        The angle to the z-axis in the contrail coordinate system
+         * @param phi          The angle to the x-axis in the contrail coordinate system
+         * @param streams      Provides the random number streams of this task or {@code null} to use the generator of
+         *                     the contrail
+         */
+        public ComputeAdaptiveDirection(int taskID, Contrail contrail, int resolution_S, double theta, double phi,
+                                        RandomStreams streams) {
+            this.taskID = taskID;
+            this.contrail = contrail;
+            this.resolution_S = resolution_S;
+            this.theta = theta;
+            this.phi = phi;
+            this.streams = streams;
+        }
+
+        @Override
+        protected SingleStepResult compute() {
+            int perStream = RandomStreams.PHOTONS_PER_STREAM;
+            int round = (commonParams.getAdaptiveMinPhotonsOrDefault() + perStream - 1) / perStream * perStream;
+            int maxPhotons = commonParams.getAdaptiveMaxPhotonsOrDefault();
+            double target = commonParams.getAdaptiveTargetError();
+
+            SingleStepResult res = null;
+            int done = 0;
+            while (done < maxPhotons) {
+                int n = Math.min(round, maxPhotons - done);
+                SingleStepResult part = new ComputeDirection(taskID, contrail, done, n, resolution_S, theta, phi,
+                        streams).invoke();
+                if (res == null)
+                    res = part;
+                else
+                    res.merge(part);
+
+                done += n;
+                if (res.relativeError() <= target)
+                    break;
+            }
+
+            return res;
+        }
     }
 
     /**
@@ -80,10 +351,12 @@ public abstract class Simulation {
         int taskID;
         Contrail contrail;
 
+        int firstPhoton;
         int numPhotons;
         int resolution_S;
         double theta;
         double phi;
+        RandomStreams streams;
 
         /**
          * Constructs the callable for a single simulation step.
@@ -95,12 +368,46 @@ public abstract class Simulation {
          * @param phi          The angle to the x-axis in the contrail coordinate system
          */
         public ComputeSingleStep(int taskID, Contrail contrail, int numPhotons, int resolution_S, double theta, double phi) {
+            this(taskID, contrail, 0, numPhotons, resolution_S, theta, phi, null);
+        }
+
+        /**
+         * Constructs the callable for a range of photons of a single simulation step, which draws random numbers from
+         * reproducible streams.
+         *
+         * @param contrail     The contrail object that performs the integration for a single photon
+         * @param firstPhoton  The index of the first photon of the range within the step. Must be a multiple of
+         *                     {@link RandomStreams#PHOTONS_PER_STREAM}
+         * @param numPhotons   The number of photons to simulate
+         * @param resolution_S The resolution of the result (lower number = more bins)
+         * @param theta        The angle to the z-axis in the contrail coordinate system
+         * @param phi          The angle to the x-axis in the contrail coordinate system
+         * @param streams      Provides the random number streams of this task or {@code null} to use the generator of
+         *                     the contrail
+         */
+        public ComputeSingleStep(int taskID, Contrail contrail, int firstPhoton, int numPhotons, int resolution_S,
+                                 double theta, double phi, RandomStreams streams) {
             this.taskID = taskID;
+            this.firstPhoton = firstPhoton;
             this.contrail = contrail;
             this.numPhotons = numPhotons;
             this.resolution_S = resolution_S;
             this.theta = theta;
             this.phi = phi;
+            this.streams = streams;
+        }
+
+        /**
+         * Gets the random number stream for the block of photons starting at the given photon index.
+         *
+         * @param done The number of photons integrated by this callable before the block
+         * @return The stream or {@code null} if this task does not use reproducible streams
+         */
+        private RandomGenerator streamAt(int done) {
+            if (streams == null)
+                return null;
+
+            return streams.stream(taskID, (firstPhoton + done) / RandomStreams.PHOTONS_PER_STREAM);
         }
 
         /**
@@ -113,57 +420,474 @@ public abstract class Simulation {
         public SingleStepResult call() {
             // Create result variables
             SingleStepResult res = new SingleStepResult(taskID, theta, phi);
+            res.nPhotons = numPhotons;
+
+            res.allocateBins(180 / resolution_S);
 
-            res.scattered_bins = new int[180 / resolution_S];
+            // Quasi-random sampling assigns the coordinates of a sequence point to the random numbers of a photon in the
+            // order they are drawn, which only the scalar engine integrates one photon at a time. Photon weights and
+            // next-event estimation are also only supported by the scalar engine.
+            QuasiRandomStream qmc = null;
+            if (contrail.getSamplingMode().isQuasiRandom()) {
+                RandomGenerator scrambler = streams != null ? streams.scrambler(taskID) : new SplittableRandom();
+                qmc = new QuasiRandomStream(LowDiscrepancySequence.create(contrail.getSamplingMode(), scrambler));
+            }
 
             // Run single simulation step for n photons over a single angle of incidence
-            RePhoton re;
-            for (int i = 0; i < numPhotons; i++) {
+            if (qmc == null && !contrail.hasWeightedPhotons() && !contrail.isNextEvent()
+                    && (transportEngine == TransportEngine.BATCHED || transportEngine == TransportEngine.VECTOR)) {
+                ExtinctionKernel kernel = ExtinctionKernel.create(contrail,
+                        transportEngine == TransportEngine.VECTOR);
+                PhotonBatch batch = new PhotonBatch(contrail, kernel, RandomStreams.PHOTONS_PER_STREAM);
+                for (int done = 0; done < numPhotons; done += batch.size()) {
+                    batch.integrate(theta, phi, Math.min(batch.getCapacity(), numPhotons - done), streamAt(done));
+
+                    for (int i = 0; i < batch.size(); i++)
+                        registerPhoton(res, batch.getTheta(i), batch.getScatEvents(i), 1.0,
+                                batch.getTheta(i) < 0 ? 1.0 : 0.0, 0.0);
+                }
+                res.nFreePaths = batch.getFreePaths();
+                res.nRootIterations = batch.getRootIterations();
+            } else {
+                // The result object is reused for every photon to keep the inner loop free of heap allocations
+                PhotonResult re = new PhotonResult();
+                RandomGenerator stream = null;
+                for (int i = 0; i < numPhotons; i++) {
+                    if (i % RandomStreams.PHOTONS_PER_STREAM == 0)
+                        stream = streamAt(i);
+
+                    // Perform integration of a single photon
+                    if (qmc != null) {
+                        qmc.startPhoton(firstPhoton + i, stream != null ? stream : ThreadLocalRandom.current());
+                        contrail.singlePhotonIntegration(theta, phi, re, qmc);
+                    } else {
+                        contrail.singlePhotonIntegration(theta, phi, re, stream);
+                    }
+                    registerPhoton(res, re.theta, re.scatEvents, re.weight, re.absorbedWeight, re.transmittedWeight);
+                    if (contrail.isNextEvent())
+                        registerExpected(res, re);
+                    res.nFreePaths += re.freePaths;
+                    res.nRootIterations += re.rootIterations;
+                }
+            }
 
-                // Perform integration of a single photon
-                re = contrail.singlePhotonIntegration(theta, phi);
+            return res;
+        }
 
-                // Theta < 0 means absorption by convention
-                if (re.theta < 0) {
-                    res.nAbs += 1;
-                } else {
-                    // If the photon was not scattered it went through the contrail without hitting a particle
-                    if (re.Scat_events == 0)
-                        res.nTrans += 1;
-
-                    // If the photon was scattered we register it instead of just counting,
-                    // as this is the data we're interested in.
-                    if (re.Scat_events > 0) {
-                        for (int j = 0; j < 180 / resolution_S; j++) {
-                            if (re.theta > Math.PI) {
-                                System.err.println("Theta of scattered photon exceeded allowed maximum value of pi, aborting simulation..");
-                                System.exit(1);
-                            }
-
-                            // Only count photons that do not exit along the contrail
-                            if (Math.toRadians(resolution_S * j) < re.theta
-                                    && re.theta <= Math.toRadians(resolution_S * j + resolution_S)) {
-                                if (re.Scat_events > 1)
-                                    res.nScatMultiple++;
-
-                                res.nScat += 1;
-
-                                // Scattered up and down
-                                if (re.theta <= Math.PI / 2.)
-                                    res.nScatUp++;
-                                else
-                                    res.nScatDown++;
-
-                                res.scattered_bins[j] += 1;
-                            }
+        /**
+         * Adds the expected escape of a single photon with next-event estimation to the result of this step.
+         *
+         * @param res The result to update
+         * @param re  The integrated photon
+         */
+        private void registerExpected(SingleStepResult res, PhotonResult re) {
+            res.eScatUp += re.expectedUp;
+            res.eScatDown += re.expectedDown;
+            for (int j = 0; j < res.expected_bins.length; j++)
+                res.expected_bins[j] += re.expectedBins[j];
+        }
+
+        /**
+         * Adds a single integrated photon to the result of this step.
+         *
+         * @param res        The result to update
+         * @param theta      The angle to the z-axis of the photon leaving the contrail or a negative value if absorbed
+         * @param scatEvents The number of scattering events of the photon
+         * @param weight      The weight of the photon leaving the contrail
+         * @param absorbed    The weight absorbed along the path of the photon, including its remaining weight if it
+         *                    was absorbed as a whole
+         * @param transmitted The weight credited to transmission by a forced collision
+         */
+        private void registerPhoton(SingleStepResult res, double theta, int scatEvents, double weight,
+                                    double absorbed, double transmitted) {
+            res.wAbs += absorbed;
+            res.wTrans += transmitted;
+
+            // Theta < 0 means absorption by convention
+            if (theta < 0) {
+                res.nAbs += 1;
+                return;
+            }
+
+            // If the photon was not scattered it went through the contrail without hitting a particle
+            if (scatEvents == 0) {
+                res.nTrans += 1;
+                res.wTrans += weight;
+            }
+
+            // If the photon was scattered we register it instead of just counting,
+            // as this is the data we're interested in.
+            if (scatEvents > 0) {
+                for (int j = 0; j < 180 / resolution_S; j++) {
+                    if (theta > Math.PI) {
+                        System.err.println("Theta of scattered photon exceeded allowed maximum value of pi, aborting simulation..");
+                        System.exit(1);
+                    }
+
+                    // Only count photons that do not exit along the contrail
+                    if (Math.toRadians(resolution_S * j) < theta
+                            && theta <= Math.toRadians(resolution_S * j + resolution_S)) {
+                        if (scatEvents > 1)
+                            res.nScatMultiple++;
+
+                        res.nScat += 1;
+
+                        res.wScat += weight;
+
+                        // Scattered up and down
+                        if (theta <= Math.PI / 2.) {
+                            res.nScatUp++;
+                            res.wScatUp += weight;
+                        } else {
+                            res.nScatDown++;
+                            res.wScatDown += weight;
                         }
 
-                        res.avgScattering = (res.avgScattering * (res.nScat - 1) + re.Scat_events) / res.nScat;
+                        res.scattered_bins[j] += 1;
+                        res.weighted_bins[j] += weight;
                     }
                 }
+
+                res.avgScattering = (res.avgScattering * (res.nScat - 1) + scatEvents) / res.nScat;
             }
+        }
+    }
 
-            return res;
+    /**
+     * Number of directions per thread that may be computed or waiting to be written at the same time in
+     * {@link #simulateDiffuseRadiation(Contrail, int, boolean)}
+     */
+    protected static final int REORDER_WINDOW_PER_THREAD = 16;
+
+    /**
+     * Default minimum time between two checkpoints of the diffuse simulation in milliseconds
+     */
+    protected static final long CHECKPOINT_INTERVAL_MS = 60_000;
+
+    /**
+     * Writes results of the diffuse simulation to the output file on a dedicated thread. Results are taken from a
+     * {@link CompletionService} in the order they complete, so a slow direction does not delay processing of others.
+     * Completed results are kept in a reorder buffer until all previous directions are written, which keeps the rows of
+     * the output file in canonical (theta, phi) order. A permit of the given {@link Semaphore} is released for every
+     * result taken from the buffer, which allows the submitting thread to enqueue the next direction. As no more than
+     * the size of the buffer directions are enqueued ahead of the next result to take, memory consumption is bounded.
+     * <p>
+     * Rows of directions that are not simulated because of a {@link DiffuseSymmetry} are derived from the result of
+     * their representative, which is kept until the last row of its orbit is written.
+     */
+    protected class DiffuseResultWriter implements Runnable {
+        private final FileWriter fwDataOut;
+        private final BinaryTableWriter binDataOut;
+        private final File outputFile;
+        private final SimulationCheckpoint checkpoint;
+        private final CompletionService<SingleStepResult> completionService;
+        private final int numResults;
+        private final DiffuseSymmetry symmetry;
+        private final int[] tasks;
+        private final Semaphore slots;
+
+        /**
+         * Position of every submitted task in {@link #tasks}, indexed by task ID
+         */
+        private final int[] sequence;
+
+        /**
+         * Ring buffer of completed results, indexed by the position of the task in {@link #tasks} modulo its length
+         */
+        private final SingleStepResult[] reorderBuffer;
+
+        /**
+         * Results taken from the reorder buffer, whose rows or symmetric rows are not yet written, indexed by task ID
+         */
+        private final SingleStepResult[] results;
+
+        // Metrics
+        BigDecimal sum_n_trans;
+        BigDecimal sum_n_abs;
+        BigDecimal sum_n_scat;
+        long n_phot_simulated = 0; // Number of photons simulated in this run
+        long n_free_paths = 0; // Number of free path lengths sampled in this run
+        long n_root_iterations = 0; // Number of secant iterations of the free path sampling in this run
+
+        /**
+         * Creates the writer.
+         *
+         * @param fwDataOut         The writer of text output files or {@code null}, the table header must already be
+         *                          written
+         * @param binDataOut        The writer of binary output files or {@code null}, the table header must already
+         *                          be written
+         * @param outputFile        The output file, for writing checkpoints
+         * @param checkpoint        The state to start from, rows before {@code checkpoint.rows} are already written.
+         *                          Updated with every checkpoint
+         * @param completionService The completion service the directions are submitted to
+         * @param symmetry          The symmetry of the direction grid, which determines the rows derived from others
+         * @param tasks             The IDs of the submitted tasks in the order of submission
+         * @param window            The size of the reorder buffer, must not be less than the number of permits of
+         *                          {@code slots}
+         * @param slots             Released once for every result taken from the reorder buffer
+         */
+        public DiffuseResultWriter(FileWriter fwDataOut, BinaryTableWriter binDataOut, File outputFile,
+                                   SimulationCheckpoint checkpoint,
+                                   CompletionService<SingleStepResult> completionService, DiffuseSymmetry symmetry,
+                                   int[] tasks, int window, Semaphore slots) {
+            this.fwDataOut = fwDataOut;
+            this.binDataOut = binDataOut;
+            this.outputFile = outputFile;
+            this.checkpoint = checkpoint;
+            this.sum_n_trans = checkpoint.sum_n_trans;
+            this.sum_n_abs = checkpoint.sum_n_abs;
+            this.sum_n_scat = checkpoint.sum_n_scat;
+            this.completionService = completionService;
+            this.numResults = symmetry.getNumTasks();
+            this.symmetry = symmetry;
+            this.tasks = tasks;
+            this.slots = slots;
+            this.reorderBuffer = new SingleStepResult[window];
+            this.results = new SingleStepResult[numResults];
+            this.sequence = new int[numResults];
+            for (int i = 0; i < tasks.length; i++)
+                sequence[tasks[i]] = i;
+        }
+
+        @Override
+        public void run() {
+            // Simple progress report
+            int numDirections = symmetry.getNumRepresentatives();
+            int progressStart = numDirections - tasks.length;
+            int progress = progressStart;
+            long start = System.currentTimeMillis();
+            long lastCheckpoint = start;
+
+            int nextTask = 0;
+            int nextRow = checkpoint.rows;
+            while (nextRow < numResults) {
+                SingleStepResult res = null;
+                try {
+                    res = completionService.take().get(); // Blocking until any result has arrived
+                    progress++;
+
+                    // Progress report
+                    float perc = progress / (float) numDirections;
+
+                    float f_elapsed = (System.currentTimeMillis() - start) / 1000.0f; // Elapsed time in s
+                    float f_estimated = 0L; // Estimated time to finish in seconds
+                    if (progress > progressStart) {
+                        f_estimated = (numDirections - progress) * f_elapsed / (float) (progress - progressStart);
+                    }
+
+                    long l_elapsed = (long) f_elapsed;
+                    long l_estimated = (long) f_estimated;
+
+                    String elapsed = String.format("%02d:%02d:%02d", l_elapsed / 3600, (l_elapsed % 3600) / 60, l_elapsed % 60);
+                    String estimated = String.format("%02d:%02d:%02d", l_estimated / 3600, (l_estimated % 3600) / 60, l_estimated % 60);
+
+                    System.out.print(String.format("\r***** Processed %d out of %d directions of incoming light (%.2f%%) | Elapsed: %s Estimated time left: %s *****",
+                            progress, numDirections, 100.0f * perc, elapsed, estimated));
+                } catch (InterruptedException | ExecutionException ex) {
+                    if (ex instanceof InterruptedException) {
+                        System.err.println("Step calculation thread was interrupted, exiting...");
+                        System.exit(2); // Exit code 2 for threading exceptions
+                    } else if (ex instanceof ExecutionException) {
+                        System.err.println(String.format(
+                                "Step calculation thread threw exception %s, exiting...",
+                                ((ExecutionException) ex).getCause().toString()));
+                        System.exit(2); // Exit code 2 for threading exceptions
+                    }
+                }
+
+                // Make sure res is not null
+                if (res == null) {
+                    System.err.println("Step calculation thread returned null");
+                    System.exit(1);
+                }
+
+                reorderBuffer[sequence[res.threadID] % reorderBuffer.length] = res;
+
+                // Take all consecutive results from the buffer
+                while (nextTask < tasks.length && reorderBuffer[nextTask % reorderBuffer.length] != null) {
+                    int slot = nextTask % reorderBuffer.length;
+                    results[tasks[nextTask]] = reorderBuffer[slot];
+                    n_phot_simulated += reorderBuffer[slot].nPhotons;
+                    n_free_paths += reorderBuffer[slot].nFreePaths;
+                    n_root_iterations += reorderBuffer[slot].nRootIterations;
+                    reorderBuffer[slot] = null;
+                    nextTask++;
+                    slots.release();
+                }
+
+                // Write all consecutive rows whose representative is complete
+                while (nextRow < numResults && results[symmetry.getRepresentative(nextRow)] != null) {
+                    int rep = symmetry.getRepresentative(nextRow);
+                    if (rep == nextRow)
+                        writeRow(results[rep]);
+                    else
+                        writeRow(results[rep].mirrored(nextRow, thetaOf(nextRow), phiOf(nextRow),
+                                symmetry.flipsTheta(nextRow)));
+
+                    if (symmetry.getLastMember(rep) == nextRow)
+                        results[rep] = null;
+                    nextRow++;
+                }
+
+                if (System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
+                    writeCheckpoint(nextRow);
+                    lastCheckpoint = System.currentTimeMillis();
+                }
+            }
+        }
+
+        /**
+         * Gets the incident angle to the z-axis of a direction.
+         *
+         * @param task The task ID of the direction
+         * @return Theta at the center of the bin
+         */
+        private double thetaOf(int task) {
+            return (0.5 + task / diffuseParams.getBinsPhi()) * (Math.PI / diffuseParams.getBinsTheta());
+        }
+
+        /**
+         * Gets the incident angle to the x-axis of a direction.
+         *
+         * @param task The task ID of the direction
+         * @return Phi at the center of the bin
+         */
+        private double phiOf(int task) {
+            return (0.5 + task % diffuseParams.getBinsPhi()) * (Math.PI * 2 / diffuseParams.getBinsPhi());
+        }
+
+        /**
+         * Flushes the output file and records the number of written rows in the checkpoint file.
+         *
+         * @param rows The number of rows written so far
+         */
+        private void writeCheckpoint(int rows) {
+            try {
+                if (binDataOut != null)
+                    binDataOut.flush();
+                else
+                    fwDataOut.flush();
+            } catch (IOException ex) {
+                System.err.println("Error writing to output file");
+                System.exit(1);
+            }
+
+            checkpoint.rows = rows;
+            checkpoint.bytes = outputFile.length();
+            checkpoint.sum_n_trans = sum_n_trans;
+            checkpoint.sum_n_abs = sum_n_abs;
+            checkpoint.sum_n_scat = sum_n_scat;
+            checkpoint.write(outputFile);
+            checkpointWritten(outputFile, checkpoint);
+        }
+
+        /**
+         * Writes the result of a single direction to the output file and adds it to the metrics.
+         *
+         * @param res The result to write
+         */
+        private void writeRow(SingleStepResult res) {
+            // Process results
+            double alpha = Math.acos(Math.sin(res.theta) * Math.cos(res.phi));
+            double factor = 2.0 * Contrail.launchHalfWidth(diffuseParams, res.theta, res.phi) * Math.sin(alpha) /
+                    res.nPhotons;
+
+            double[] S_Array = new double[180 / diffuseParams.getResolutionS()];
+
+            // With weighted photons, the weights of the photons are tallied instead of their numbers
+            boolean weighted = diffuseParams.hasWeightedTallies();
+            for (int j = 0; j < 180 / diffuseParams.getResolutionS(); j++) {
+                S_Array[j] = (weighted ? res.weighted_bins[j] : res.scattered_bins[j]) * factor;
+            }
+
+            // With next-event estimation, the expected escape is appended after the scattering angles
+            double[] values = S_Array;
+            if (Boolean.TRUE.equals(diffuseParams.getNextEvent())) {
+                values = new double[2 * S_Array.length + 2];
+                System.arraycopy(S_Array, 0, values, 0, S_Array.length);
+                values[S_Array.length] = res.eScatUp;
+                values[S_Array.length + 1] = res.eScatDown;
+                for (int j = 0; j < S_Array.length; j++)
+                    values[S_Array.length + 2 + j] = res.expected_bins[j] * factor;
+            }
+
+            // Write results as a single line to output file, consisting of:
+            // theta, phi, scattered photons, sAbs, avgScattering, number of photons that interacted with the contrail, nAbs
+            // Not using DynamicTable to store all results here in order to save memory
+            try {
+                if (binDataOut != null) {
+                    // Columns in the order of SimulationParser.TableIndex, followed by the scattering angles
+                    int numValues = SimulationParser.TableIndex.values().length;
+                    double[] row = new double[numValues + values.length];
+                    row[0] = res.theta;
+                    row[1] = res.phi;
+                    row[2] = weighted ? res.wAbs : res.nAbs;
+                    row[3] = weighted ? res.wScat : res.nScat;
+                    row[4] = weighted ? res.wScatUp : res.nScatUp;
+                    row[5] = weighted ? res.wScatDown : res.nScatDown;
+                    row[6] = factor;
+                    row[7] = res.avgScattering;
+                    row[8] = weighted ? res.nPhotons - res.wTrans : res.nPhotons - res.nTrans;
+                    System.arraycopy(values, 0, row, numValues, values.length);
+                    binDataOut.writeRow(row);
+                } else {
+                    if (weighted)
+                        fwDataOut.write(res.theta + " " + res.phi + " " + res.wAbs + " " + res.wScat + " " +
+                                res.wScatUp + " " + res.wScatDown + " " + factor + " " + res.avgScattering + " " +
+                                (res.nPhotons - res.wTrans) + " ");
+                    else
+                        fwDataOut.write(res.theta + " " + res.phi + " " + res.nAbs + " " + res.nScat + " " +
+                                res.nScatUp + " " + res.nScatDown + " " + factor + " " + res.avgScattering + " " +
+                                (res.nPhotons - res.nTrans) + " ");
+                    for (int i = 0; i < values.length - 1; i++) {
+                        fwDataOut.write(values[i] + " ");
+                    }
+                    fwDataOut.write(values[values.length - 1] + "\n");
+                }
+
+            } catch (IOException ex) {
+                System.err.println("Error writing to output file");
+                System.exit(1);
+            }
+
+            // Compute metrics, counts of adaptive directions are normalized to the configured number of photons
+            if (weighted) {
+                sum_n_trans = sum_n_trans.add(normalizedCount(res.wTrans, res.nPhotons));
+                sum_n_abs = sum_n_abs.add(normalizedCount(res.wAbs, res.nPhotons));
+                sum_n_scat = sum_n_scat.add(normalizedCount(res.wScat, res.nPhotons));
+            } else {
+                sum_n_trans = sum_n_trans.add(normalizedCount(res.nTrans, res.nPhotons));
+                sum_n_abs = sum_n_abs.add(normalizedCount(res.nAbs, res.nPhotons));
+                sum_n_scat = sum_n_scat.add(normalizedCount(res.nScat, res.nPhotons));
+            }
+        }
+
+        /**
+         * Scales a photon count of a direction to the configured number of photons per direction.
+         *
+         * @param count    The number of photons
+         * @param nPhotons The number of photons simulated for the direction
+         * @return The count for {@link CommonParameters#getNumPhotons()} photons, exact if no scaling is needed
+         */
+        private BigDecimal normalizedCount(int count, int nPhotons) {
+            if (nPhotons == commonParams.getNumPhotons())
+                return BigDecimal.valueOf(count);
+
+            return BigDecimal.valueOf((double) count * commonParams.getNumPhotons() / nPhotons);
+        }
+
+        /**
+         * Scales a summed photon weight of a direction to the configured number of photons per direction.
+         *
+         * @param count    The summed weight of the photons
+         * @param nPhotons The number of photons simulated for the direction
+         * @return The weight for {@link CommonParameters#getNumPhotons()} photons
+         */
+        private BigDecimal normalizedCount(double count, int nPhotons) {
+            if (nPhotons == commonParams.getNumPhotons())
+                return BigDecimal.valueOf(count);
+
+            return BigDecimal.valueOf(count * commonParams.getNumPhotons() / nPhotons);
         }
     }
 
@@ -172,6 +896,32 @@ public abstract class Simulation {
     public DiffuseParameters diffuseParams;
     public DirectParameters directParams;
 
+    /**
+     * The engine used to integrate photons, see {@link #setTransportEngine(TransportEngine)}
+     */
+    protected TransportEngine transportEngine = TransportEngine.SCALAR;
+
+    /**
+     * Seed for reproducible random number streams, see {@link #setSeed(Long)}
+     */
+    protected Long seed = null;
+
+    /**
+     * Whether to resume from checkpoints, see {@link #setResume(boolean)}
+     */
+    protected boolean resume = false;
+
+    /**
+     * The format of the diffuse output file, see {@link #setOutputFormat(OutputFormat)}
+     */
+    protected OutputFormat outputFormat = OutputFormat.TEXT;
+
+    /**
+     * Minimum time between two checkpoints of the diffuse simulation in milliseconds, defaults to
+     * {@link #CHECKPOINT_INTERVAL_MS}
+     */
+    protected long checkpointInterval = CHECKPOINT_INTERVAL_MS;
+
     /**
      * Creates the simulation object with the given parameters.
      *
@@ -188,6 +938,150 @@ public abstract class Simulation {
         this.suffixDiffuse = suffixDiffuse;
     }
 
+    /**
+     * Sets the engine used to integrate photons. Defaults to {@link TransportEngine#SCALAR}.
+     *
+     * @param transportEngine The engine to use
+     */
+    public void setTransportEngine(TransportEngine transportEngine) {
+        if (transportEngine == TransportEngine.VECTOR && !ExtinctionKernel.isVectorApiAvailable()) {
+            System.out.println("Warning: the Vector API is not available, the " + transportEngine.getName() +
+                    " engine falls back to scalar kernels. Start the JVM with --add-modules " +
+                    ExtinctionKernel.VECTOR_MODULE + " to enable SIMD kernels");
+        }
+
+        this.transportEngine = transportEngine;
+    }
+
+    /**
+     * Sets the seed of the simulation. If a seed is set, every task draws random numbers from its own deterministic
+     * stream (see {@link RandomStreams}), so the simulation runs fully multithreaded and still produces bit-identical
+     * output for the same seed, engine and parameters. By default, no seed is set and results are not reproducible.
+     *
+     * @param seed The seed or {@code null} to disable reproducible streams
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Enables resuming interrupted diffuse simulations. If enabled and a checkpoint exists next to the diffuse output
+     * file, directions that were already written are skipped. Otherwise, the simulation starts from scratch.
+     *
+     * @param resume Whether to resume from checkpoints
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Sets the format of the diffuse output file. Defaults to {@link OutputFormat#TEXT}. The direct output of the solar
+     * part is always written as text, since it only contains a single row.
+     *
+     * @param outputFormat The format to write
+     */
+    public void setOutputFormat(OutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    /**
+     * Deletes the diffuse output files of this wavelength in formats other than {@link #outputFormat}, so that
+     * integrating the radiative forcing does not find two outputs for the same wavelength. Terminates the program
+     * instead if resuming and one of them can be resumed, since the format was likely not set as in the interrupted
+     * run.
+     */
+    private void deleteOtherFormats() {
+        for (OutputFormat f : OutputFormat.values()) {
+            File other = getOutputFileWithLambda(suffixDiffuse, f);
+            if (f == outputFormat || !other.isFile())
+                continue;
+
+            if (resume && SimulationCheckpoint.getFile(other).isFile()) {
+                System.err.println("Output file " + other.getName() + " can be resumed, but has a different format " +
+                        "than " + outputFormat.getName() + ". Resume with the format of the interrupted run");
+                System.exit(1);
+            }
+
+            System.out.println("Deleting output file " + other.getName() + " in " + f.getName() + " format");
+            SimulationCheckpoint.delete(other);
+            other.delete();
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the parameters of this simulation, which a checkpoint must match to be resumed.
+     *
+     * @return The fingerprint, see {@link SimulationCheckpoint#fingerprint(String)}
+     */
+    protected String fingerprint() {
+        return SimulationCheckpoint.fingerprint(commonParams.toCommentString() + diffuseParams.toCommentString());
+    }
+
+    /**
+     * Called by the writer thread of the diffuse simulation after every checkpoint. Does nothing by default.
+     *
+     * @param outputFile The diffuse output file, flushed up to the checkpoint
+     * @param checkpoint The checkpoint that was written
+     */
+    protected void checkpointWritten(File outputFile, SimulationCheckpoint checkpoint) {
+    }
+
+    /**
+     * Loads and validates the checkpoint of the diffuse output file and prepares the output file for appending. Adopts
+     * the seed of the checkpoint if no seed was set. Terminates the program if the checkpoint does not match the
+     * current configuration.
+     *
+     * @param outputFile  The diffuse output file
+     * @param fingerprint The fingerprint of the current parameters
+     * @return The checkpoint or {@code null} if there is none
+     */
+    private SimulationCheckpoint loadCheckpoint(File outputFile, String fingerprint) {
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.read(outputFile);
+        if (checkpoint == null) {
+            System.out.println("No checkpoint found for " + outputFile.getName() + ", starting from scratch");
+            return null;
+        }
+
+        if (!checkpoint.matches(fingerprint)) {
+            System.err.println("Parameters differ from the checkpoint of " + outputFile.getName() +
+                    ", cannot resume. Run without resuming to start from scratch");
+            System.exit(1);
+        }
+
+        if (seed == null) {
+            seed = checkpoint.seed;
+        } else if (!seed.equals(checkpoint.seed)) {
+            System.err.println("Seed differs from the checkpoint of " + outputFile.getName() + ", cannot resume");
+            System.exit(1);
+        }
+
+        checkpoint.truncate(outputFile);
+        System.out.println(String.format("Resuming from checkpoint, %d directions already finished",
+                checkpoint.rows));
+        return checkpoint;
+    }
+
+    /**
+     * Creates the random number streams for a part of the simulation. Quasi-random sampling requires streams, so that
+     * all chunks of a direction share the scrambling of its sequence, so they are created from a random seed if no
+     * seed is set.
+     *
+     * @param part The name of the part, e.g. the output file suffix
+     * @return The streams or {@code null} if no seed is set and the sampling mode is pseudo-random
+     */
+    protected RandomStreams createStreams(String part) {
+        if (seed == null) {
+            SamplingMode mode = SamplingMode.fromName(Objects.requireNonNullElse(diffuseParams.getSampling(),
+                    SamplingMode.PSEUDO.getName()));
+            if (mode == null || !mode.isQuasiRandom())
+                return null;
+
+            return new RandomStreams(new SplittableRandom().nextLong(), part);
+        }
+
+        return new RandomStreams(seed, part);
+    }
+
     /**
      * Performs the Monte Carlo Simulation for a given number of angles of incidence, calculating the scattering towards
      * sky and ground as well as the absorption of light caused by the contrail. Output is written to a file in the
@@ -198,8 +1092,9 @@ public abstract class Simulation {
      * @param numThreads     The number of threads to run the simulation with
      * @param writeMetricsFile A boolean indicating whether to write metrics to a file or not. If false, metrics will
      *                         still be printed to stdout
+     * @return The metrics of all directions, including those finished before resuming
      */
-    protected void simulateDiffuseRadiation(Contrail contrail, int numThreads, boolean writeMetricsFile) {
+    protected Metrics simulateDiffuseRadiation(Contrail contrail, int numThreads, boolean writeMetricsFile) {
         System.out.println("\n -= Monte Carlo simulation of optical contrail properties =-");
         System.out.println("Diffuse Radiation calculation\n");
 
@@ -214,7 +1109,16 @@ public abstract class Simulation {
         // This is to preserve memory for large simulations, as storing everything in memory might not be feasible.
         // One could consider writing to storage less often to gain an additional performance increase at the cost
         // of higher memory consumption.
-        FileWriter fwDataOut = getOutputWriter(suffixDiffuse);
+        File outputFile = getOutputFileWithLambda(suffixDiffuse, outputFormat);
+        String fingerprint = fingerprint();
+        SimulationCheckpoint checkpoint = resume ? loadCheckpoint(outputFile, fingerprint) : null;
+        if (checkpoint == null) {
+            checkpoint = new SimulationCheckpoint();
+            checkpoint.parameters = fingerprint;
+            checkpoint.seed = seed;
+            SimulationCheckpoint.delete(outputFile);
+            deleteOtherFormats();
+        }
 
         // Enable MT mode on contrail
         contrail.setMultiThreadedMode(true);
@@ -241,22 +1145,87 @@ public abstract class Simulation {
             colNames.add("S_" + i);
         }
 
-        DynamicTable<Double> tableScattered = new DynamicTable<>("DIFFUSE_SCATTERED_RADIATION", colNames);
-        tableScattered.marshal(fwDataOut, " ");
+        // Expected escape of next-event estimation, the bins are scaled by the correction factor like S_*
+        if (Boolean.TRUE.equals(diffuseParams.getNextEvent())) {
+            colNames.add(SimulationParser.EXPECTED_UP);
+            colNames.add(SimulationParser.EXPECTED_DOWN);
+            for (int i = diffuseParams.getResolutionS(); i <= 180; i += diffuseParams.getResolutionS()) {
+                colNames.add("E_" + i);
+            }
+        }
 
-        // Threading: thread pool executor
-        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        FileWriter fwDataOut = null;
+        BinaryTableWriter binDataOut = null;
+        if (outputFormat == OutputFormat.BINARY) {
+            // Counts are stored as ints, unless the weights of the photons are tallied
+            byte count = diffuseParams.hasWeightedTallies() ? BinaryTableWriter.DOUBLE : BinaryTableWriter.INT;
+            byte[] colTypes = new byte[colNames.size()];
+            Arrays.fill(colTypes, BinaryTableWriter.DOUBLE);
+            colTypes[SimulationParser.TableIndex.NUM_ABS.ordinal()] = count;
+            colTypes[SimulationParser.TableIndex.NUM_SCATTERED.ordinal()] = count;
+            colTypes[SimulationParser.TableIndex.NUM_SCATTERED_UP.ordinal()] = count;
+            colTypes[SimulationParser.TableIndex.NUM_SCATTERED_DOWN.ordinal()] = count;
+            colTypes[SimulationParser.TableIndex.NUM_AFFECTED.ordinal()] = count;
+
+            binDataOut = getBinaryOutputWriter(outputFile, colTypes, checkpoint.rows > 0);
+            if (checkpoint.rows == 0) {
+                try {
+                    binDataOut.writeHeader(commonParams.toCommentString() + diffuseParams.toCommentString(),
+                            "DIFFUSE_SCATTERED_RADIATION", colNames);
+                } catch (IOException ex) {
+                    System.err.println("Error writing to output file");
+                    System.exit(1);
+                }
+            }
+        } else {
+            fwDataOut = checkpoint.rows > 0 ? IOHelpers.tryOpen(outputFile, true, true) : getOutputWriter(outputFile);
+            DynamicTable<Double> tableScattered = new DynamicTable<>("DIFFUSE_SCATTERED_RADIATION", colNames);
+            if (checkpoint.rows == 0)
+                tableScattered.marshal(fwDataOut, " ");
+        }
 
-        // Threading: FIFO queue for threads
-        List<Future<SingleStepResult>> results = new ArrayList<>();
+        // Threading: work-stealing pool, directions are split into chunks of photons, see ComputeDirection
+        ForkJoinPool executorService = new ForkJoinPool(numThreads);
+
+        // Threading: results are collected in completion order and written by a separate thread, see
+        // DiffuseResultWriter. At most window directions are computed or waiting to be written at the same time.
+        CompletionService<SingleStepResult> completionService = new ExecutorCompletionService<>(executorService);
+        int window = REORDER_WINDOW_PER_THREAD * numThreads;
+        Semaphore slots = new Semaphore(window);
 
         int taskID = 0;
+        RandomStreams streams = createStreams(suffixDiffuse);
 
         int bins_total = diffuseParams.getBinsTheta() * (int) diffuseParams.getBinsPhi();
-        System.out.println(String.format("Enqueueing %d tasks", bins_total));
+        DiffuseSymmetry symmetry = commonParams.useDiffuseSymmetry() ? DiffuseSymmetry.detect(contrail.getParams())
+                : DiffuseSymmetry.none(diffuseParams.getBinsTheta(), diffuseParams.getBinsPhi());
+
+        // Directions to simulate: representatives of rows that are not yet written, including those finished before
+        // resuming, whose symmetric rows are still missing
+        List<Integer> taskList = new ArrayList<>();
+        for (int i = 0; i < bins_total; i++) {
+            if (symmetry.isRepresentative(i) && symmetry.getLastMember(i) >= checkpoint.rows)
+                taskList.add(i);
+        }
+        int[] tasks = taskList.stream().mapToInt(Integer::intValue).toArray();
+
+        if (commonParams.useDiffuseSymmetry()) {
+            System.out.println(String.format("Exploiting symmetry (%s): simulating %d of %d directions", symmetry,
+                    symmetry.getNumRepresentatives(), bins_total));
+            if (!symmetry.mirrorsTheta())
+                System.out.println(String.format("Not mirroring at the flight level, the shear ratio of the " +
+                        "cross-section exceeds %g", DiffuseSymmetry.SHEAR_TOLERANCE));
+        }
+        System.out.println(String.format("Enqueueing %d tasks", tasks.length));
+
+        DiffuseResultWriter writer = new DiffuseResultWriter(fwDataOut, binDataOut, outputFile, checkpoint,
+                completionService, symmetry, tasks, window, slots);
+        Thread writerThread = new Thread(writer, "diffuse-result-writer");
+        writerThread.start();
 
         /**
-         * Threading aspect: this loop enqueues single step tasks to a thread pool, which executes them.
+         * Threading aspect: this loop enqueues single step tasks to a thread pool, which executes them. Enqueueing
+         * blocks while the reorder window is full.
          */
         for (int i_theta = 0; i_theta < diffuseParams.getBinsTheta(); i_theta++) {
             for (int i_phi = 0; i_phi < diffuseParams.getBinsPhi(); i_phi++) {
@@ -264,98 +1233,32 @@ public abstract class Simulation {
                 theta = (0.5 + i_theta) * d_theta;
                 phi = (0.5 + i_phi) * d_phi;
 
-                Callable<SingleStepResult> task = new ComputeSingleStep(taskID, contrail, commonParams.getNumPhotons(),
-                        diffuseParams.getResolutionS(), theta, phi);
-                taskID++;
-
-                // Enqueue the tasks in a thread pool instead of executing single-threaded
-                Future<SingleStepResult> future = executorService.submit(task);
-                results.add(future);
-            }
-        }
-
-        // Simple progress report
-        int progress = 0;
-        long start = System.currentTimeMillis();
-
-        // Metrics
-        BigDecimal sum_n_trans = BigDecimal.ZERO;
-        BigDecimal sum_n_abs = BigDecimal.ZERO;
-        BigDecimal sum_n_scat = BigDecimal.ZERO;
-
-        // Process results in FIFO order: first task submitted is waited for
-        for (Future<SingleStepResult> future : results) {
-            SingleStepResult res = null;
-            try {
-                res = future.get(); // Blocking until the result has arrived
-                progress++;
-
-                // Progress report
-                float perc = progress / (float) bins_total;
-
-                float f_elapsed = (System.currentTimeMillis() - start) / 1000.0f; // Elapsed time in s
-                float f_estimated = 0L; // Estimated time to finish in seconds
-                if (progress > 0) {
-                    f_estimated = (bins_total * f_elapsed / (float) progress) - f_elapsed;
+                // Skip directions finished before resuming and directions derived from symmetric ones
+                if (Arrays.binarySearch(tasks, taskID) < 0) {
+                    taskID++;
+                    continue;
                 }
 
-                long l_elapsed = (long) f_elapsed;
-                long l_estimated = (long) f_estimated;
-
-                String elapsed = String.format("%02d:%02d:%02d", l_elapsed / 3600, (l_elapsed % 3600) / 60, l_elapsed % 60);
-                String estimated = String.format("%02d:%02d:%02d", l_estimated / 3600, (l_estimated % 3600) / 60, l_estimated % 60);
-
-                System.out.print(String.format("\r***** Processed %d out of %d directions of incoming light (%.2f%%) | Elapsed: %s Estimated time left: %s *****",
-                        progress, bins_total, 100.0f * perc, elapsed, estimated));
-            } catch (InterruptedException | ExecutionException ex) {
-                if (ex instanceof InterruptedException) {
-                    System.err.println("Step calculation thread was interrupted, exiting...");
-                    System.exit(2); // Exit code 2 for threading exceptions
-                } else if (ex instanceof ExecutionException) {
-                    System.err.println(String.format(
-                            "Step calculation thread threw exception %s, exiting...",
-                            ((ExecutionException) ex).getCause().toString()));
-                    System.exit(2); // Exit code 2 for threading exceptions
-                }
-            }
-
-            // Make sure res is not null
-            if (res == null) {
-                System.err.println("Step calculation thread returned null");
-                System.exit(1);
-            }
-
-            // Process results
-            double alpha = Math.acos(Math.sin(res.theta) * Math.cos(res.phi));
-            double factor = 2.0 * diffuseParams.getIncidentRadius() * Math.sin(alpha) / commonParams.getNumPhotons();
-
-            double[] S_Array = new double[180 / diffuseParams.getResolutionS()];
-
-            for (int j = 0; j < 180 / diffuseParams.getResolutionS(); j++) {
-                S_Array[j] = res.scattered_bins[j] * factor;
-            }
-
-            // Write results as a single line to output file, consisting of:
-            // theta, phi, scattered photons, sAbs, avgScattering, number of photons that interacted with the contrail, nAbs
-            // Not using DynamicTable to store all results here in order to save memory
-            try {
-                fwDataOut.write(res.theta + " " + res.phi + " " + res.nAbs + " " + res.nScat + " " +
-                        res.nScatUp + " " + res.nScatDown + " " + factor + " " + res.avgScattering + " " +
-                        (commonParams.getNumPhotons() - res.nTrans) + " ");
-                for (int i = 0; i < S_Array.length - 1; i++) {
-                    fwDataOut.write(S_Array[i] + " ");
-                }
-                fwDataOut.write(S_Array[S_Array.length - 1] + "\n");
+                RecursiveTask<SingleStepResult> task;
+                if (commonParams.isAdaptive())
+                    task = new ComputeAdaptiveDirection(taskID, contrail, diffuseParams.getResolutionS(), theta, phi,
+                            streams);
+                else
+                    task = new ComputeDirection(taskID, contrail, 0, commonParams.getNumPhotons(),
+                            diffuseParams.getResolutionS(), theta, phi, streams);
+                taskID++;
 
-            } catch (IOException ex) {
-                System.err.println("Error writing to output file");
-                System.exit(1);
+                slots.acquireUninterruptibly();
+                completionService.submit(task::invoke);
             }
+        }
 
-            // Compute metrics
-            sum_n_trans = sum_n_trans.add(BigDecimal.valueOf(res.nTrans));
-            sum_n_abs = sum_n_abs.add(BigDecimal.valueOf(res.nAbs));
-            sum_n_scat = sum_n_scat.add(BigDecimal.valueOf(res.nScat));
+        // Wait until all results are written
+        try {
+            writerThread.join();
+        } catch (InterruptedException ex) {
+            System.err.println("Interrupted while waiting for results to be written, exiting...");
+            System.exit(2); // Exit code 2 for threading exceptions
         }
 
         // Shutdown executor to properly terminate the program
@@ -363,40 +1266,32 @@ public abstract class Simulation {
 
         // All results written to output file, close it
         try {
-            fwDataOut.close();
+            if (binDataOut != null)
+                binDataOut.close();
+            else
+                fwDataOut.close();
         } catch (IOException ex) {
             System.err.println("Error closing output file");
             System.exit(1);
         }
+        SimulationCheckpoint.delete(outputFile);
 
         System.out.println("\n");
         System.out.println(" - Simulation finished successfully! -");
+        if (commonParams.isAdaptive())
+            System.out.println("Adaptive mode simulated " + writer.n_phot_simulated + " photons in this run");
+        if (writer.n_free_paths > 0)
+            System.out.format("Free path sampling (%s) needed %.4f secant iterations per free path in this run\n",
+                    contrail.getFreePathSampler().getName(), (double) writer.n_root_iterations / writer.n_free_paths);
 
         // Calculate metrics
-        BigDecimal b_photNo = BigDecimal.valueOf(commonParams.getNumPhotons());
-        BigDecimal b_bins_total = BigDecimal.valueOf(bins_total);
-        BigDecimal sum_n_phot = b_photNo.multiply(b_bins_total);
-        BigDecimal sum_n_affected = b_bins_total.multiply(b_photNo).subtract(sum_n_trans);
-
-        BigDecimal avg_n_trans = sum_n_trans.divide(b_bins_total, 4, RoundingMode.HALF_UP);
-        BigDecimal avg_n_abs = sum_n_abs.divide(b_bins_total, 4, RoundingMode.HALF_UP);
-        BigDecimal avg_n_scat = sum_n_scat.divide(b_bins_total, 4, RoundingMode.HALF_UP);
-        BigDecimal avg_n_affected = b_photNo.subtract(sum_n_trans.divide(b_bins_total, 4, RoundingMode.HALF_UP));
+        BigDecimal sum_n_trans = writer.sum_n_trans;
+        BigDecimal sum_n_abs = writer.sum_n_abs;
+        BigDecimal sum_n_scat = writer.sum_n_scat;
 
         // Print metrics
-        Metrics m = new Metrics();
-        m.n_phot_per_angle = commonParams.getNumPhotons();
-        m.num_bins_phi = diffuseParams.getBinsPhi();
-        m.num_bins_theta = diffuseParams.getBinsTheta();
-        m.n_phot = sum_n_phot;
-        m.sum_n_abs = sum_n_abs;
-        m.sum_n_affected = sum_n_affected;
-        m.sum_n_trans = sum_n_trans;
-        m.sum_n_scat = sum_n_scat;
-        m.avg_n_trans = avg_n_trans;
-        m.avg_n_abs = avg_n_abs;
-        m.avg_n_scat = avg_n_scat;
-        m.avg_n_affected = avg_n_affected;
+        Metrics m = Metrics.fromSums(commonParams.getNumPhotons(), diffuseParams.getBinsPhi(),
+                diffuseParams.getBinsTheta(), sum_n_trans, sum_n_abs, sum_n_scat);
 
         System.out.println(m);
 
@@ -407,6 +1302,8 @@ public abstract class Simulation {
 
             m.writeToFile(fileName);
         }
+
+        return m;
     }
 
     /**
@@ -451,6 +1348,30 @@ public abstract class Simulation {
         return fwDataOut;
     }
 
+    /**
+     * Gets the writer for a binary output file of the Monte Carlo Simulation. Terminates the program if the file cannot
+     * be opened.
+     *
+     * @param outputFile The {@link File} to get the output writer for
+     * @param colTypes   The types of the columns of the output
+     * @param append     Whether to append rows to an existing output
+     * @return The {@link BinaryTableWriter} object for the output file
+     */
+    protected BinaryTableWriter getBinaryOutputWriter(File outputFile, byte[] colTypes, boolean append) {
+        try {
+            if (!outputFile.getParentFile().isDirectory()) {
+                outputFile.getParentFile().mkdirs();
+            }
+
+            return new BinaryTableWriter(outputFile, colTypes, append);
+        } catch (IOException ex) {
+            System.err.println("Error creating the file " + outputFile);
+            System.exit(1);
+        }
+
+        return null;
+    }
+
     /**
      * Gets the output file writer for any output file of the Monte Carlo Simulation.
      *
@@ -459,9 +1380,33 @@ public abstract class Simulation {
      * @return The {@link FileWriter} object for the output file
      */
     protected FileWriter getOutputWriter(String additionalSuffix) {
+        return getOutputWriter(getOutputFileWithLambda(additionalSuffix));
+    }
+
+    /**
+     * Gets a file handle to an output file of the Monte Carlo simulation, whose name contains the wavelength.
+     *
+     * @param additionalSuffix If there are multiple output files, e.g. for direct and diffuse parts, a suffix for the
+     *                         respective part can be specified here
+     * @return The {@link File} object representing the output file
+     */
+    protected File getOutputFileWithLambda(String additionalSuffix) {
+        return getOutputFileWithLambda(additionalSuffix, OutputFormat.TEXT);
+    }
+
+    /**
+     * Gets a file handle to an output file of the Monte Carlo simulation in the given format, whose name contains the
+     * wavelength.
+     *
+     * @param additionalSuffix If there are multiple output files, e.g. for direct and diffuse parts, a suffix for the
+     *                         respective part can be specified here
+     * @param format           The format of the output file, which determines the file extension
+     * @return The {@link File} object representing the output file
+     */
+    protected File getOutputFileWithLambda(String additionalSuffix, OutputFormat format) {
         // Add lambda suffix
         String suffixLambda = String.format(Locale.US, "_%.2f", diffuseParams.getLambda());
-        return getOutputWriter(getOutputFile(additionalSuffix + suffixLambda));
+        return getOutputFile(additionalSuffix + suffixLambda, format);
     }
 
     /**
@@ -472,7 +1417,19 @@ public abstract class Simulation {
      * @return The {@link File} object representing the output file
      */
     protected File getOutputFile(String additionalSuffix) {
-        String fileName = commonParams.getOutputFilePrefix() + additionalSuffix + ".csv";
+        return getOutputFile(additionalSuffix, OutputFormat.TEXT);
+    }
+
+    /**
+     * Gets a file handle to an output file of the Monte Carlo simulation in the given format.
+     *
+     * @param additionalSuffix If there are multiple output files, e.g. for direct and diffuse parts, a suffix for the
+     *                         respective part can be specified here
+     * @param format           The format of the output file, which determines the file extension
+     * @return The {@link File} object representing the output file
+     */
+    protected File getOutputFile(String additionalSuffix, OutputFormat format) {
+        String fileName = commonParams.getOutputFilePrefix() + additionalSuffix + format.getExtension();
         if (commonParams.getOutputFilePrefix().contains(File.separator)) {
             return new File(fileName);
         } else {
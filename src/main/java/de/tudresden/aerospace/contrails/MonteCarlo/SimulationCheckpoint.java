@@ -0,0 +1,236 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Records the progress of a diffuse simulation, so that an interrupted run can be resumed. The checkpoint is stored
+ * next to the output file with the additional extension {@link #EXTENSION}. As rows of the output file are written in
+ * canonical order, the progress is fully described by the number of finished directions and the length of the output
+ * file after writing them. The seed is recorded as the random number state, since the random number streams of the
+ * remaining directions only depend on the seed (see {@link RandomStreams}). A resumed seeded run therefore produces the
+ * same output as an uninterrupted one.
+ */
+public class SimulationCheckpoint {
+    /**
+     * Extension appended to the name of the output file
+     */
+    public static final String EXTENSION = ".checkpoint";
+
+    private static final String KEY_ROWS = "rows";
+    private static final String KEY_BYTES = "bytes";
+    private static final String KEY_SEED = "seed";
+    private static final String KEY_PARAMETERS = "parameters";
+    private static final String KEY_SUM_N_TRANS = "sum_n_trans";
+    private static final String KEY_SUM_N_ABS = "sum_n_abs";
+    private static final String KEY_SUM_N_SCAT = "sum_n_scat";
+
+    /**
+     * Number of directions written to the output file
+     */
+    public int rows;
+
+    /**
+     * Length of the output file in bytes after writing {@link #rows} directions
+     */
+    public long bytes;
+
+    /**
+     * Seed of the simulation or {@code null} if the simulation is not reproducible
+     */
+    public Long seed;
+
+    /**
+     * Fingerprint of the simulation parameters, see {@link #fingerprint(String)}
+     */
+    public String parameters;
+
+    // Metrics of the finished directions
+    public BigDecimal sum_n_trans = BigDecimal.ZERO;
+    public BigDecimal sum_n_abs = BigDecimal.ZERO;
+    public BigDecimal sum_n_scat = BigDecimal.ZERO;
+
+    /**
+     * Gets the checkpoint file belonging to an output file.
+     *
+     * @param outputFile The output file of the simulation
+     * @return The checkpoint file
+     */
+    public static File getFile(File outputFile) {
+        return new File(outputFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * Computes a fingerprint of the simulation parameters to detect changed configurations when resuming. The
+     * fingerprint is the SHA-256 hash of the parameters, so that changed parameters are not mistaken for the recorded
+     * ones.
+     *
+     * @param parameters The comment string representation of all parameters
+     * @return The fingerprint as a hexadecimal string
+     */
+    public static String fingerprint(String parameters) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(parameters.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Checks whether this checkpoint was written with the given parameters.
+     *
+     * @param fingerprint The fingerprint of the current parameters, see {@link #fingerprint(String)}
+     * @return {@code true} if the recorded fingerprint matches, {@code false} otherwise
+     */
+    public boolean matches(String fingerprint) {
+        return parameters.equals(fingerprint);
+    }
+
+    /**
+     * Reads the checkpoint of an output file. Terminates the program if the checkpoint cannot be read.
+     *
+     * @param outputFile The output file of the simulation
+     * @return The checkpoint or {@code null} if there is none
+     */
+    public static SimulationCheckpoint read(File outputFile) {
+        File file = getFile(outputFile);
+        if (!file.isFile())
+            return null;
+
+        Properties props = new Properties();
+        try (Reader r = new FileReader(file)) {
+            props.load(r);
+
+            SimulationCheckpoint c = new SimulationCheckpoint();
+            c.rows = Integer.parseInt(getRequired(props, KEY_ROWS, file));
+            c.bytes = Long.parseLong(getRequired(props, KEY_BYTES, file));
+            String seed = props.getProperty(KEY_SEED);
+            c.seed = seed == null ? null : Long.parseLong(seed);
+            c.parameters = getRequired(props, KEY_PARAMETERS, file);
+            c.sum_n_trans = new BigDecimal(getRequired(props, KEY_SUM_N_TRANS, file));
+            c.sum_n_abs = new BigDecimal(getRequired(props, KEY_SUM_N_ABS, file));
+            c.sum_n_scat = new BigDecimal(getRequired(props, KEY_SUM_N_SCAT, file));
+            return c;
+        } catch (IOException | NumberFormatException ex) {
+            System.err.println("Error reading checkpoint file " + file);
+            System.exit(1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the value of a key that every checkpoint contains. Terminates the program if the key is missing.
+     *
+     * @param props The properties read from the checkpoint file
+     * @param key   The key
+     * @param file  The checkpoint file, for the error message
+     * @return The value of the key
+     */
+    private static String getRequired(Properties props, String key, File file) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            System.err.println("Checkpoint file " + file + " does not contain " + key);
+            System.exit(1);
+        }
+        return value;
+    }
+
+    /**
+     * Writes the checkpoint of an output file. The file is replaced atomically, so a crash while writing leaves the
+     * previous checkpoint intact.
+     *
+     * @param outputFile The output file of the simulation
+     */
+    public void write(File outputFile) {
+        Properties props = new Properties();
+        props.setProperty(KEY_ROWS, Integer.toString(rows));
+        props.setProperty(KEY_BYTES, Long.toString(bytes));
+        if (seed != null)
+            props.setProperty(KEY_SEED, Long.toString(seed));
+        props.setProperty(KEY_PARAMETERS, parameters);
+        props.setProperty(KEY_SUM_N_TRANS, sum_n_trans.toString());
+        props.setProperty(KEY_SUM_N_ABS, sum_n_abs.toString());
+        props.setProperty(KEY_SUM_N_SCAT, sum_n_scat.toString());
+
+        File file = getFile(outputFile);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer w = new FileWriter(tmp)) {
+            props.store(w, "Checkpoint of " + outputFile.getName());
+        } catch (IOException ex) {
+            System.err.println("Error writing checkpoint file " + tmp);
+            System.exit(1);
+        }
+
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Error replacing checkpoint file " + file);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Deletes the checkpoint of an output file, if it exists.
+     *
+     * @param outputFile The output file of the simulation
+     */
+    public static void delete(File outputFile) {
+        getFile(outputFile).delete();
+    }
+
+    /**
+     * Truncates the output file to the state recorded by this checkpoint, discarding rows written after the checkpoint.
+     * Terminates the program if the output file is shorter than recorded.
+     *
+     * @param outputFile The output file of the simulation
+     */
+    public void truncate(File outputFile) {
+        if (outputFile.length() < bytes) {
+            System.err.println("Output file " + outputFile + " is shorter than recorded in its checkpoint, " +
+                    "cannot resume");
+            System.exit(1);
+        }
+
+        try (FileChannel ch = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE)) {
+            ch.truncate(bytes);
+        } catch (IOException ex) {
+            System.err.println("Error truncating output file " + outputFile);
+            System.exit(1);
+        }
+    }
+}
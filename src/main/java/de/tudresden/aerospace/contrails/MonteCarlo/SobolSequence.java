@@ -0,0 +1,155 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Sobol sequence with 32-bit precision, randomized by a random linear matrix scramble and a random digital shift
+ * (Matousek, 1998). Direction numbers are those of Joe and Kuo (2008) for the first {@link #DIMENSIONS} dimensions.
+ * The first dimension is the van der Corput sequence in base 2.
+ */
+public class SobolSequence extends LowDiscrepancySequence {
+    /**
+     * Number of dimensions
+     */
+    public static final int DIMENSIONS = 21;
+
+    private static final int BITS = 32;
+
+    /**
+     * Degree s, coefficients a of the primitive polynomial and initial direction numbers m of the dimensions after the
+     * first one
+     */
+    private static final int[][] PARAMETERS = {
+            {1, 0, 1},
+            {2, 1, 1, 3},
+            {3, 1, 1, 3, 1},
+            {3, 2, 1, 1, 1},
+            {4, 1, 1, 1, 3, 3},
+            {4, 4, 1, 3, 5, 13},
+            {5, 2, 1, 1, 5, 5, 17},
+            {5, 4, 1, 1, 5, 5, 5},
+            {5, 7, 1, 1, 7, 11, 19},
+            {5, 11, 1, 1, 5, 1, 1},
+            {5, 13, 1, 1, 1, 3, 11},
+            {5, 14, 1, 3, 5, 5, 31},
+            {6, 1, 1, 3, 3, 9, 7, 49},
+            {6, 13, 1, 1, 1, 15, 21, 21},
+            {6, 16, 1, 3, 1, 13, 27, 49},
+            {6, 19, 1, 1, 1, 15, 7, 5},
+            {6, 22, 1, 3, 1, 15, 13, 25},
+            {6, 25, 1, 1, 5, 5, 19, 61},
+            {7, 1, 1, 3, 7, 11, 23, 15, 103},
+            {7, 4, 1, 3, 7, 13, 13, 15, 69}
+    };
+
+    /**
+     * Unscrambled direction numbers, indexed by dimension and bit of the index
+     */
+    private static final int[][] DIRECTIONS = directionNumbers();
+
+    /**
+     * Scrambled direction numbers, indexed by dimension and bit of the index
+     */
+    private final int[][] directions = new int[DIMENSIONS][BITS];
+
+    /**
+     * Random digital shift of every dimension
+     */
+    private final int[] shift = new int[DIMENSIONS];
+
+    /**
+     * Creates a randomly scrambled Sobol sequence.
+     *
+     * @param scrambler The generator to draw the random scrambling from
+     */
+    public SobolSequence(RandomGenerator scrambler) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            // Random lower triangular matrix with unit diagonal, row r computes bit r counted from the most
+            // significant bit and depends on the r more significant bits of the direction number only
+            int[] rows = new int[BITS];
+            for (int r = 0; r < BITS; r++) {
+                int diagonal = 1 << (BITS - 1 - r);
+                rows[r] = (scrambler.nextInt() & -diagonal) | diagonal;
+            }
+
+            for (int k = 0; k < BITS; k++) {
+                int v = 0;
+                for (int r = 0; r < BITS; r++)
+                    v |= (Integer.bitCount(rows[r] & DIRECTIONS[d][k]) & 1) << (BITS - 1 - r);
+                directions[d][k] = v;
+            }
+
+            shift[d] = scrambler.nextInt();
+        }
+    }
+
+    @Override
+    public double get(long index, int dimension) {
+        int[] v = directions[dimension];
+        int x = shift[dimension];
+        for (int k = 0; index != 0; k++, index >>>= 1) {
+            if ((index & 1) != 0)
+                x ^= v[k];
+        }
+
+        return (Integer.toUnsignedLong(x) + 0.5) * 0x1p-32;
+    }
+
+    @Override
+    public int getDimensions() {
+        return DIMENSIONS;
+    }
+
+    /**
+     * Computes the direction numbers of all dimensions from their primitive polynomials and initial direction
+     * numbers.
+     *
+     * @return The direction numbers, indexed by dimension and bit of the index
+     */
+    private static int[][] directionNumbers() {
+        int[][] v = new int[DIMENSIONS][BITS];
+        for (int k = 0; k < BITS; k++)
+            v[0][k] = 1 << (BITS - 1 - k);
+
+        for (int d = 1; d < DIMENSIONS; d++) {
+            int[] p = PARAMETERS[d - 1];
+            int s = p[0];
+            int a = p[1];
+            for (int k = 0; k < s; k++)
+                v[d][k] = p[2 + k] << (BITS - 1 - k);
+
+            for (int k = s; k < BITS; k++) {
+                int x = v[d][k - s] ^ (v[d][k - s] >>> s);
+                for (int j = 1; j < s; j++) {
+                    if (((a >>> (s - 1 - j)) & 1) != 0)
+                        x ^= v[d][k - j];
+                }
+                v[d][k] = x;
+            }
+        }
+
+        return v;
+    }
+}
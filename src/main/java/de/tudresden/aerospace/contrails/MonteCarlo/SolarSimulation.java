@@ -23,9 +23,11 @@ package de.tudresden.aerospace.contrails.MonteCarlo;
  */
 
 import de.tudresden.aerospace.contrails.Configuration.IO.DynamicTable;
+import de.tudresden.aerospace.contrails.Configuration.IO.SimulationParser;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
 import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
 import de.tudresden.aerospace.contrails.Modeling.SolarContrail;
 import de.tudresden.aerospace.contrails.Utility.IOHelpers;
 
@@ -54,29 +56,46 @@ public class SolarSimulation extends Simulation {
      * Performs the Monte Carlo Simulation for a single direction of incoming light, calculating the scattering towards
      * sky and ground as well as the absorption of light caused by the contrail. Output is written to a file. This
      * function is used to compute the direct part of incoming radiation by supplying {@code sza} and {@code phi0}
-     * as theta and phi in the configuration file.
+     * as theta and phi in the configuration file. Runs single-threaded.
      */
     public void simulateDirectRadiation() {
+        simulateDirectRadiation(1);
+    }
+
+    /**
+     * Performs the Monte Carlo Simulation for the direct part of incoming radiation like
+     * {@link #simulateDirectRadiation()}. The photons of the single direction are split into chunks, which are
+     * computed in parallel.
+     *
+     * @param numThreads The number of threads to run the simulation with
+     */
+    public void simulateDirectRadiation(int numThreads) {
         System.out.println("\n -= Monte Carlo simulation of optical contrail properties =-");
         System.out.println("Solar part: direct radiation calculation\n");
 
         // Initialize Monte Carlo - Simulation
         SolarContrail contrail = new SolarContrail(diffuseParams);
+        contrail.setMultiThreadedMode(numThreads > 1);
 
         // Compute single direction
         SingleStepResult res = null;
-        Callable<SingleStepResult> task = new ComputeSingleStep(0, contrail, commonParams.getNumPhotons(),
-                diffuseParams.getResolutionS(), directParams.getSza(), directParams.getPhi0());
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        ComputeDirection task = new ComputeDirection(0, contrail, 0, commonParams.getNumPhotons(),
+                diffuseParams.getResolutionS(), directParams.getSza(), directParams.getPhi0(),
+                createStreams(suffixDirect));
         try {
-            res = task.call();
+            res = pool.invoke(task);
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            pool.shutdown();
         }
 
         // Add weighting (see also dissertation page 85ff)
         double alpha = Math.acos(Math.sin(directParams.getSza()) * Math.cos(directParams.getPhi0()));
-        double factor = 2.0 * diffuseParams.getIncidentRadius() * Math.sin(alpha) / commonParams.getNumPhotons();
+        double factor = 2.0 * Contrail.launchHalfWidth(diffuseParams, directParams.getSza(), directParams.getPhi0()) *
+                Math.sin(alpha) / commonParams.getNumPhotons();
 
         // Print results
         System.out.format("Number of absorbed photons = %d, with correction factor = %g\n",
@@ -92,6 +111,25 @@ public class SolarSimulation extends Simulation {
         System.out.format("Number of transmitted photons = %d, with correction factor = %g\n\n",
                 res.nTrans, res.nTrans * factor);
         System.out.format("Average number of scattering events per photon = %g\n", res.avgScattering);
+        if (res.nFreePaths > 0)
+            System.out.format("Secant iterations per free path (%s) = %.4f\n",
+                    contrail.getFreePathSampler().getName(), (double) res.nRootIterations / res.nFreePaths);
+
+        // With weighted photons, the weights of the photons are tallied instead of their numbers
+        boolean weighted = diffuseParams.hasWeightedTallies();
+        if (weighted) {
+            System.out.format("Absorbed weight = %g, with correction factor = %g\n", res.wAbs, res.wAbs * factor);
+            System.out.format("Scattered weight = %g, with correction factor = %g\n", res.wScat, res.wScat * factor);
+            System.out.format("Transmitted weight = %g, with correction factor = %g\n", res.wTrans,
+                    res.wTrans * factor);
+        }
+        boolean nextEvent = Boolean.TRUE.equals(diffuseParams.getNextEvent());
+        if (nextEvent) {
+            System.out.format("Expected upwards escaping weight = %g, with correction factor = %g\n", res.eScatUp,
+                    res.eScatUp * factor);
+            System.out.format("Expected downwards escaping weight = %g, with correction factor = %g\n",
+                    res.eScatDown, res.eScatDown * factor);
+        }
 
         // Save results to file
         FileWriter fwDataOut = getOutputWriter(suffixDirect);
@@ -105,16 +143,24 @@ public class SolarSimulation extends Simulation {
         cNames.add("num_scattered_up");
         cNames.add("num_scattered_down");
         cNames.add("correction_factor"); // Multiply any num_x by correction_factor to apply correction by angle and incident radius
+        if (nextEvent) {
+            cNames.add(SimulationParser.EXPECTED_UP);
+            cNames.add(SimulationParser.EXPECTED_DOWN);
+        }
 
         DynamicTable<Double> table = new DynamicTable<>("DIRECT_SCATTERED_RADIATION", cNames);
         List<Double> row = new ArrayList<>();
         row.add(directParams.getSza());
         row.add(directParams.getPhi0());
-        row.add(Double.valueOf(res.nAbs));
-        row.add(Double.valueOf(res.nScat));
-        row.add(Double.valueOf(res.nScatUp));
-        row.add(Double.valueOf(res.nScatDown));
+        row.add(weighted ? res.wAbs : Double.valueOf(res.nAbs));
+        row.add(weighted ? res.wScat : Double.valueOf(res.nScat));
+        row.add(weighted ? res.wScatUp : Double.valueOf(res.nScatUp));
+        row.add(weighted ? res.wScatDown : Double.valueOf(res.nScatDown));
         row.add(factor);
+        if (nextEvent) {
+            row.add(res.eScatUp);
+            row.add(res.eScatDown);
+        }
         table.addRow(row);
 
         table.marshal(fwDataOut, " ");
@@ -142,6 +188,12 @@ public class SolarSimulation extends Simulation {
             for (File f : fDiffuse) {
                 DiffuseParameters p = IOHelpers.getDiffuseParametersFromFile(f);
                 if (p.getSpectralBandIndex() == diffuseParams.getSpectralBandIndex()) {
+                    if (resume && SimulationCheckpoint.getFile(f).isFile()) {
+                        System.out.println("Output file for multiple directions (" + f.getName() + ") is incomplete " +
+                                "and will be resumed");
+                        break;
+                    }
+
                     System.out.println("Output file for multiple directions (" + f.getName() + ") already exists");
                     runDiffuse = IOHelpers.promptUserDecision("Would you like to re-run the solar simulation for multiple directions" +
                             " and overwrite the file?");
@@ -156,7 +208,7 @@ public class SolarSimulation extends Simulation {
         // Set by promptCheckOutputFiles()
         if (runDirect) {
             System.out.println("Running solar direct simulation");
-            simulateDirectRadiation();
+            simulateDirectRadiation(numThreads);
         }
 
         if (runDiffuse) {
@@ -53,6 +53,11 @@ public class TerrestrialSimulation extends Simulation {
             for (File f : fOut) {
                 DiffuseParameters p = IOHelpers.getDiffuseParametersFromFile(f);
                 if (p.getSpectralBandIndex() == diffuseParams.getSpectralBandIndex()) {
+                    if (resume && SimulationCheckpoint.getFile(f).isFile()) {
+                        System.out.println("Output file (" + f.getName() + ") is incomplete and will be resumed");
+                        break;
+                    }
+
                     System.out.println("Output file (" + f.getName() + ") already exists");
                     runDirect = IOHelpers.promptUserDecision("Would you like to re-run the terrestrial simulation" +
                             " and overwrite the file?");
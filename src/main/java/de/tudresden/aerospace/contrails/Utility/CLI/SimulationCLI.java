@@ -22,6 +22,8 @@ package de.tudresden.aerospace.contrails.Utility.CLI;
  * #L%
  */
 
+import de.tudresden.aerospace.contrails.Configuration.IO.OutputFormat;
+import de.tudresden.aerospace.contrails.Modeling.TransportEngine;
 import org.apache.commons.cli.*;
 
 /**
@@ -33,6 +35,10 @@ public class SimulationCLI extends CLIArgs {
     private String configFileName = "";
     private boolean overwrite = false;
     private boolean writeMetricsFile = false;
+    private TransportEngine transportEngine = TransportEngine.SCALAR;
+    private Long seed = null;
+    private boolean resume = false;
+    private OutputFormat outputFormat = OutputFormat.TEXT;
 
     /**
      * Creates the CLI arguments object for the simulation part.
@@ -64,6 +70,36 @@ public class SimulationCLI extends CLIArgs {
         oWriteMetricsFile.setRequired(false);
         options.addOption(oWriteMetricsFile);
 
+        Option oEngine = new Option("e", "engine", true,
+                "Photon transport engine [" +
+                        TransportEngine.SCALAR.getName() + " - one photon at a time, " +
+                        TransportEngine.BATCHED.getName() + " - blocks of photons in lockstep, " +
+                        TransportEngine.VECTOR.getName() + " - batched with SIMD kernels; optional; default: " +
+                        TransportEngine.SCALAR.getName() + "]");
+        oEngine.setRequired(false);
+        options.addOption(oEngine);
+
+        Option oSeed = new Option("s", "seed", true,
+                "Seed for reproducible results, the output is identical for the same seed regardless of the " +
+                        "number of threads [optional; default: not reproducible]");
+        oSeed.setRequired(false);
+        oSeed.setType(Long.class);
+        options.addOption(oSeed);
+
+        Option oResume = new Option("r", "resume", false,
+                "Resume interrupted diffuse simulations from their checkpoints and skip finished directions " +
+                        "[optional; default: false]");
+        oResume.setRequired(false);
+        options.addOption(oResume);
+
+        Option oFormat = new Option("o", "format", true,
+                "Format of diffuse output files [" +
+                        OutputFormat.TEXT.getName() + " - space-separated values, " +
+                        OutputFormat.BINARY.getName() + " - compact binary rows; optional; default: " +
+                        OutputFormat.TEXT.getName() + "]");
+        oFormat.setRequired(false);
+        options.addOption(oFormat);
+
         // Part is added here since the whole argument string is passed, which contains p and parsing would stop
         // if p is not part of options.
         Option oPart = new Option("p", "part", true,
@@ -118,6 +154,42 @@ public class SimulationCLI extends CLIArgs {
         return writeMetricsFile;
     }
 
+    /**
+     * Gets the value of the {@code engine} CLI argument.
+     *
+     * @return The photon transport engine to use
+     */
+    public TransportEngine getTransportEngine() {
+        return transportEngine;
+    }
+
+    /**
+     * Gets the value of the {@code seed} CLI argument.
+     *
+     * @return The seed or {@code null} if results should not be reproducible
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the value of the {@code resume} CLI argument.
+     *
+     * @return A boolean indicating whether interrupted simulations should be resumed
+     */
+    public boolean doesResume() {
+        return resume;
+    }
+
+    /**
+     * Gets the value of the {@code format} CLI argument.
+     *
+     * @return The format of diffuse output files
+     */
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
     @Override
     protected void parseHook(CommandLine cmd) throws ParseException {
         numThreads = cmd.getParsedOptionValue("t", Runtime.getRuntime().availableProcessors());
@@ -128,5 +200,18 @@ public class SimulationCLI extends CLIArgs {
         configFileName = cmd.getOptionValue("c");
         overwrite = cmd.hasOption("f");
         writeMetricsFile = cmd.hasOption("m");
+
+        String engine = cmd.getOptionValue("e", TransportEngine.SCALAR.getName());
+        transportEngine = TransportEngine.fromName(engine);
+        if (transportEngine == null)
+            throw new ParseException("Invalid value for argument engine: " + engine);
+
+        seed = cmd.getParsedOptionValue("s");
+        resume = cmd.hasOption("r");
+
+        String format = cmd.getOptionValue("o", OutputFormat.TEXT.getName());
+        outputFormat = OutputFormat.fromName(format);
+        if (outputFormat == null)
+            throw new ParseException("Invalid value for argument format: " + format);
     }
 }
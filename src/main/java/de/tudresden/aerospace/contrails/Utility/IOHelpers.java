@@ -51,7 +51,8 @@ public final class IOHelpers {
     }
 
     /**
-     * Retrieves file handles to all simulation output files in a given directory with the given suffix.
+     * Retrieves file handles to all simulation output files in a given directory with the given suffix. Outputs of all
+     * {@link de.tudresden.aerospace.contrails.Configuration.IO.OutputFormat}s are included.
      *
      * @param dir The directory to search in
      * @param prefix The prefix of the filename (can be used to distinguish based on output_file_prefix)
@@ -60,7 +61,7 @@ public final class IOHelpers {
      * @return The array containing the {@link File} handles of found files
      */
     public static File[] getSimulationOutputFiles(File dir, String prefix, String suffix) {
-        String regex = prefix + suffix + "_[+]?([0-9]*[.])?[0-9]+\\.csv";
+        String regex = prefix + suffix + "_[+]?([0-9]*[.])?[0-9]+\\.(csv|bin)";
         return findMatchingFiles(dir, regex);
     }
 
@@ -116,8 +117,21 @@ public final class IOHelpers {
      * @return The {@link FileWriter} object on success or {@code null} on failure
      */
     public static FileWriter tryOpen(File file, boolean terminate) {
+        return tryOpen(file, terminate, false);
+    }
+
+    /**
+     * Tries to open a {@link FileWriter} to the given file.
+     *
+     * @param file The file to write to
+     * @param terminate If {@code true}, the program is terminated on error, otherwise the error is only printed to
+     *                  stderr
+     * @param append If {@code true}, bytes are written to the end of the file instead of replacing its content
+     * @return The {@link FileWriter} object on success or {@code null} on failure
+     */
+    public static FileWriter tryOpen(File file, boolean terminate, boolean append) {
         try {
-            FileWriter fwOut = new FileWriter(file);
+            FileWriter fwOut = new FileWriter(file, append);
             return fwOut;
         } catch (IOException e) {
             System.err.println("Error opening file " + file.getAbsolutePath() + " for writing");
@@ -22,6 +22,7 @@ package de.tudresden.aerospace.contrails.Modeling;
  * #L%
  */
 
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
 import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
 import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
 import de.tudresden.aerospace.contrails.Configuration.XMLParametersLegacy;
@@ -96,4 +97,140 @@ public class ContrailTest {
             Assertions.assertThat(res.Scat_events).isEqualTo(resLegacy.Scat_events);
         }
     }
+
+    @Test
+    @DisplayName("Analytic free path solves the extinction integral")
+    void testAnalyticFreePath() {
+        double sigmaH = c.getParams().getSigmaH();
+        double sigmaV = c.getParams().getSigmaV();
+        double sigmaS = c.getParams().getSigmaS();
+        double radius = c.getParams().getIncidentRadius();
+        double hDetsigma = c.getCompiled().hDetsigma;
+
+        for (int i = 0; i < 1_000_000; i++) {
+            // Random segment starting inside the incident circle
+            double r = radius * Math.sqrt(rand.nextDouble());
+            double angle = rand.nextDouble() * 2 * Math.PI;
+            double y0 = r * Math.cos(angle);
+            double z0 = r * Math.sin(angle);
+            double uz = rand.nextDouble() * 2 - 1;
+            double uy = Math.sqrt(1 - uz * uz) * Math.sin(rand.nextDouble() * 2 * Math.PI);
+            double Zs = rand.nextDouble();
+
+            // Coefficients as in Contrail.singlePhotonIntegration()
+            double a = hDetsigma * (sigmaV * uy * uy - 2 * sigmaS * uy * uz + sigmaH * uz * uz);
+            double b = -hDetsigma * (2 * (sigmaV * y0 - sigmaS * z0) * uy + 2 * (sigmaH * z0 - sigmaS * y0) * uz);
+            double cc = -hDetsigma * (sigmaV * y0 * y0 - 2 * sigmaS * y0 * z0 + sigmaH * z0 * z0);
+            double wa = Math.sqrt(a);
+            double u0 = -b / (2 * wa);
+            double k = c.getCompiled().c1 * CompiledContrail.SQRT_PI / (2. * wa) * Math.exp(b * b / (4 * a) + cc);
+            double erf0 = c.getErfPrecision().erf(u0);
+
+            double s = c.analyticFreePath(wa, u0, k, Zs);
+            if (Double.isNaN(s))
+                continue; // Falls back to the secant method
+
+            if (s == Double.POSITIVE_INFINITY) {
+                // The photon must not be able to interact along the remaining flight path
+                Assertions.assertThat(1.0 - Math.exp(k * (1.0 - erf0))).isLessThanOrEqualTo(Zs + 1e-12);
+            } else {
+                Assertions.assertThat(s).isGreaterThanOrEqualTo(0.0);
+                Assertions.assertThat(c.segmentExtinction(wa, u0, erf0, k, s)).isCloseTo(Zs,
+                        Assertions.within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Elliptical launch region places photons on its boundary")
+    void testEllipseEntry() {
+        DiffuseParameters params = c.getParams().clone();
+        params.setSigmaS(20.0);
+        params.setFreePath(FreePathSampler.ANALYTIC.getName());
+        params.setLaunchRegion(LaunchRegion.ELLIPSE.getName());
+        Contrail e = new SolarContrail(params, new Random(12345678));
+        Assertions.assertThat(e.getLaunchRegion()).isEqualTo(LaunchRegion.ELLIPSE);
+
+        for (int i = 0; i < 100_000; i++) {
+            double angle = rand.nextDouble() * 2 * Math.PI;
+            double dy = Math.sin(angle);
+            double dz = Math.cos(angle);
+            double w = e.ellipseHalfWidth(dy, dz);
+            double t = w * (rand.nextDouble() * 2 - 1);
+            double h = e.ellipseEntry(dy, dz, t);
+            double y = t * dz + h * dy;
+            double z = h * dz - t * dy;
+
+            // Mahalanobis distance of launch_sigmas
+            double m = (params.getSigmaV() * y * y - 2 * params.getSigmaS() * y * z + params.getSigmaH() * z * z) /
+                    (params.getSigmaH() * params.getSigmaV() - params.getSigmaS() * params.getSigmaS());
+            Assertions.assertThat(Math.sqrt(m)).isCloseTo(params.getLaunchSigmasOrDefault(),
+                    Assertions.within(1e-6));
+            Assertions.assertThat(e.isInLaunchRegion(y, z)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Elliptical launch region is rejected with the secant method")
+    void testEllipseRequiresAnalyticFreePath() {
+        // The default free path sampler is the secant method
+        DiffuseParameters params = c.getParams().clone();
+        params.setLaunchRegion(LaunchRegion.ELLIPSE.getName());
+        Assertions.assertThatThrownBy(() -> new SolarContrail(params, new Random(12345678)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        params.setFreePath(FreePathSampler.SECANT.getName());
+        Assertions.assertThatThrownBy(() -> new SolarContrail(params, new Random(12345678)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Next-event estimation is rejected with the secant method")
+    void testNextEventRequiresAnalyticFreePath() {
+        DiffuseParameters params = c.getParams().clone();
+        params.setNextEvent(true);
+        Assertions.assertThatThrownBy(() -> new SolarContrail(params, new Random(12345678)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        params.setFreePath(FreePathSampler.ANALYTIC.getName());
+        Assertions.assertThat(new SolarContrail(params, new Random(12345678)).isNextEvent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Elliptical launch region yields the same weighted results as the circle")
+    void testEllipseMatchesCircle() {
+        double theta = 0.4;
+        double phi = 1.5;
+
+        double[] absorbed = new double[2];
+        double[] scattered = new double[2];
+        LaunchRegion[] regions = {LaunchRegion.CIRCLE, LaunchRegion.ELLIPSE};
+        int[] numPhotons = {500_000, 50_000};
+        for (int j = 0; j < regions.length; j++) {
+            // Spectral band with considerable absorption
+            DiffuseParameters params = c.getParams().clone();
+            params.setSpectralBandIndex(4);
+            params.setFreePath(FreePathSampler.ANALYTIC.getName());
+            params.setLaunchRegion(regions[j].getName());
+            Contrail e = new SolarContrail(params, new Random(12345678));
+
+            PhotonResult res = new PhotonResult();
+            for (int i = 0; i < numPhotons[j]; i++) {
+                e.singlePhotonIntegration(theta, phi, res);
+                if (res.theta < 0)
+                    absorbed[j]++;
+                else if (res.scatEvents > 0)
+                    scattered[j]++;
+            }
+
+            // Correction factor of the simulation
+            double alpha = Math.acos(Math.sin(theta) * Math.cos(phi));
+            double factor = 2.0 * Contrail.launchHalfWidth(params, theta, phi) * Math.sin(alpha) / numPhotons[j];
+            absorbed[j] *= factor;
+            scattered[j] *= factor;
+        }
+
+        Assertions.assertThat(absorbed[1]).isCloseTo(absorbed[0], Assertions.withinPercentage(5));
+        Assertions.assertThat(scattered[1]).isCloseTo(scattered[0], Assertions.withinPercentage(5));
+    }
 }
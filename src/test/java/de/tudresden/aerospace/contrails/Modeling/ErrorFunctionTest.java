@@ -0,0 +1,81 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ErrorFunctionTest {
+
+    @Test
+    @DisplayName("Double precision error functions match reference values")
+    void testDoublePrecision() {
+        // Reference values of the C library
+        Assertions.assertThat(ErrorFunction.erfDouble(0.1)).isCloseTo(0.1124629160182849, Assertions.within(1e-15));
+        Assertions.assertThat(ErrorFunction.erfDouble(0.5)).isCloseTo(0.5204998778130465, Assertions.within(1e-15));
+        Assertions.assertThat(ErrorFunction.erfDouble(1.0)).isCloseTo(0.8427007929497149, Assertions.within(1e-15));
+        Assertions.assertThat(ErrorFunction.erfDouble(2.5)).isCloseTo(0.999593047982555, Assertions.within(1e-15));
+        Assertions.assertThat(ErrorFunction.erfDouble(-1.7)).isCloseTo(-0.9837904585907745, Assertions.within(1e-15));
+        Assertions.assertThat(ErrorFunction.erfcDouble(3.0)).isCloseTo(2.2090496998585438e-05,
+                Assertions.withinPercentage(1e-11));
+        Assertions.assertThat(ErrorFunction.erfcDouble(6.0)).isCloseTo(2.1519736712498916e-17,
+                Assertions.withinPercentage(1e-11));
+        Assertions.assertThat(ErrorFunction.erfcDouble(10.0)).isCloseTo(2.088487583762545e-45,
+                Assertions.withinPercentage(1e-10));
+        Assertions.assertThat(ErrorFunction.erfcDouble(-2.0)).isCloseTo(1.9953222650189528, Assertions.within(1e-15));
+    }
+
+    @Test
+    @DisplayName("Fast error functions stay within the bound of Abramowitz and Stegun")
+    void testFastPrecision() {
+        for (double x = -6.0; x <= 6.0; x += 1e-4) {
+            Assertions.assertThat(ErrorFunction.erf(x)).isCloseTo(ErrorFunction.erfDouble(x), Assertions.within(1.5e-7));
+            Assertions.assertThat(ErrorFunction.erfc(x)).isCloseTo(ErrorFunction.erfcDouble(x),
+                    Assertions.within(1.5e-7));
+        }
+    }
+
+    @Test
+    @DisplayName("Inverse error functions invert the double precision error functions")
+    void testInverse() {
+        // Below -3, erfc(x) is too close to 2 to be inverted precisely
+        for (double x = -3.0; x <= 5.5; x += 1e-3) {
+            double y = ErrorFunction.erfcDouble(x);
+            Assertions.assertThat(ErrorFunction.erfcinvDouble(y)).isCloseTo(x, Assertions.within(1e-11));
+            if (y > 1e-7)
+                Assertions.assertThat(ErrorFunction.erfcinv(y)).isCloseTo(x, Assertions.within(1e-5));
+
+            if (x < 3.0) {
+                Assertions.assertThat(ErrorFunction.erfinvDouble(ErrorFunction.erfDouble(x))).isCloseTo(x,
+                        Assertions.within(1e-12));
+            }
+        }
+
+        // Deep tail
+        for (double x = 5.5; x <= 26.0; x += 0.01) {
+            double y = ErrorFunction.erfcDouble(x);
+            Assertions.assertThat(ErrorFunction.erfcinvDouble(y)).isCloseTo(x, Assertions.within(1e-12 * x));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Compares the SIMD {@link VectorExtinctionKernel} against the scalar implementation. Tests are skipped if the JVM was
+ * started without {@code --add-modules jdk.incubator.vector}.
+ */
+public class ExtinctionKernelTest {
+    // Odd number of lanes to also cover the masked remainder of the vector loop
+    private static final int NUM_LANES = 100_003;
+
+    private Contrail c;
+    private Random rand;
+
+    @BeforeEach
+    void setup() {
+        File configFolder = new File(PropertiesManager.getInstance().getDirResourcesTest(), "test_contrail");
+        XMLParameters p = XMLParameters.unmarshal(configFolder.toString(), "test.xml");
+
+        c = new SolarContrail(p.getSolarDiffuse());
+        rand = new Random(12345678);
+    }
+
+    @Test
+    @DisplayName("Vectorized Iextinction matches scalar Iextinction")
+    void testVectorExtinctionIntegral() {
+        Assumptions.assumeTrue(ExtinctionKernel.isVectorApiAvailable(), "Vector API not available");
+
+        double r = c.getParams().getIncidentRadius();
+        double[] y0 = new double[NUM_LANES];
+        double[] z0 = new double[NUM_LANES];
+        double[] theta = new double[NUM_LANES];
+        double[] phi = new double[NUM_LANES];
+        double[] s = new double[NUM_LANES];
+        for (int k = 0; k < NUM_LANES; k++) {
+            // Positions within the incident circle, as during the photon lifetime
+            double angle = rand.nextDouble() * 2 * Math.PI;
+            double dist = rand.nextDouble() * r;
+            y0[k] = Math.sin(angle) * dist;
+            z0[k] = Math.cos(angle) * dist;
+            theta[k] = rand.nextDouble() * Math.PI; // Range [0, Pi]
+            phi[k] = rand.nextDouble() * 2 * Math.PI; // Range [0, 2*Pi]
+            s[k] = rand.nextDouble() * 2.01 * r;
+        }
+
+        double[] resScalar = new double[NUM_LANES];
+        double[] resVector = new double[NUM_LANES];
+        new ScalarExtinctionKernel(c).iextinction(y0, z0, theta, phi, s, resScalar, NUM_LANES);
+        ExtinctionKernel kernel = ExtinctionKernel.create(c, true);
+        Assertions.assertThat(kernel).isInstanceOf(VectorExtinctionKernel.class);
+        kernel.iextinction(y0, z0, theta, phi, s, resVector, NUM_LANES);
+
+        for (int k = 0; k < NUM_LANES; k++) {
+            Assertions.assertThat(resVector[k]).isCloseTo(resScalar[k], Assertions.within(1e-9));
+        }
+    }
+
+    @Test
+    @DisplayName("Hoisted segment coefficients reproduce Iextinction")
+    void testSegmentExtinction() {
+        double r = c.getParams().getIncidentRadius();
+        double[] y0 = new double[NUM_LANES];
+        double[] z0 = new double[NUM_LANES];
+        double[] uy = new double[NUM_LANES];
+        double[] uz = new double[NUM_LANES];
+        double[] s = new double[NUM_LANES];
+        double[] expected = new double[NUM_LANES];
+        for (int k = 0; k < NUM_LANES; k++) {
+            double angle = rand.nextDouble() * 2 * Math.PI;
+            double dist = rand.nextDouble() * r;
+            y0[k] = Math.sin(angle) * dist;
+            z0[k] = Math.cos(angle) * dist;
+            double theta = rand.nextDouble() * Math.PI;
+            double phi = rand.nextDouble() * 2 * Math.PI;
+            uy[k] = Math.sin(theta) * Math.sin(phi);
+            uz[k] = Math.cos(theta);
+            s[k] = rand.nextDouble() * 2.01 * r;
+            expected[k] = c.Iextinction(y0[k], z0[k], theta, phi, s[k]);
+        }
+
+        double[] wa = new double[NUM_LANES];
+        double[] u0 = new double[NUM_LANES];
+        double[] erf0 = new double[NUM_LANES];
+        double[] k0 = new double[NUM_LANES];
+        double[] res = new double[NUM_LANES];
+        ExtinctionKernel scalar = new ScalarExtinctionKernel(c);
+        scalar.prepareSegments(y0, z0, uy, uz, wa, u0, erf0, k0, NUM_LANES);
+        scalar.segmentExtinction(wa, u0, erf0, k0, s, res, NUM_LANES);
+        for (int k = 0; k < NUM_LANES; k++) {
+            Assertions.assertThat(res[k]).isCloseTo(expected[k], Assertions.within(1e-9));
+        }
+
+        if (!ExtinctionKernel.isVectorApiAvailable())
+            return;
+
+        ExtinctionKernel vector = ExtinctionKernel.create(c, true);
+        vector.prepareSegments(y0, z0, uy, uz, wa, u0, erf0, k0, NUM_LANES);
+        vector.segmentExtinction(wa, u0, erf0, k0, s, res, NUM_LANES);
+        for (int k = 0; k < NUM_LANES; k++) {
+            Assertions.assertThat(res[k]).isCloseTo(expected[k], Assertions.within(1e-9));
+        }
+    }
+
+    @Test
+    @DisplayName("Vectorized erf matches scalar erf")
+    void testVectorErf() {
+        Assumptions.assumeTrue(ExtinctionKernel.isVectorApiAvailable(), "Vector API not available");
+
+        double[] x = new double[NUM_LANES];
+        for (int k = 0; k < NUM_LANES; k++) {
+            x[k] = rand.nextDouble() * 10 - 5; // Range [-5, 5]
+        }
+        x[0] = 0.0;
+
+        double[] res = new double[NUM_LANES];
+        VectorExtinctionKernel.erf(x, res, NUM_LANES);
+
+        for (int k = 0; k < NUM_LANES; k++) {
+            Assertions.assertThat(res[k]).isCloseTo(ErrorFunction.erf(x[k]), Assertions.within(1e-14));
+        }
+
+        VectorExtinctionKernel.erfDouble(x, res, NUM_LANES);
+        for (int k = 0; k < NUM_LANES; k++) {
+            Assertions.assertThat(res[k]).isCloseTo(ErrorFunction.erfDouble(x[k]), Assertions.within(1e-14));
+        }
+    }
+}
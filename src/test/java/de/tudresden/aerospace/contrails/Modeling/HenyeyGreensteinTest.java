@@ -0,0 +1,80 @@
+package de.tudresden.aerospace.contrails.Modeling;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.MonteCarlo.Distribution;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class HenyeyGreensteinTest {
+
+    @Test
+    @DisplayName("Analytic sampler reproduces the asymmetry factor")
+    void testAnalyticMeanCosine() {
+        Random rand = new Random(12345678);
+        int n = 1_000_000;
+        for (double g : new double[]{-0.5, 0., 0.3, 0.85}) {
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += Math.cos(HenyeyGreenstein.sampleAngle(g, rand.nextDouble()));
+            }
+
+            // The mean cosine of the Henyey-Greenstein phase function equals g
+            Assertions.assertThat(sum / n).isCloseTo(g, Assertions.within(5e-3));
+        }
+    }
+
+    @Test
+    @DisplayName("Lookup table matches the binned distribution and is shared")
+    void testTable() {
+        double g = 0.77;
+        int numSca = 18;
+        HenyeyGreenstein table = HenyeyGreenstein.getTable(g, numSca);
+        Assertions.assertThat(HenyeyGreenstein.getTable(g, numSca)).isSameAs(table);
+
+        double d_sca_ang = Math.PI / numSca;
+        double[] sca_ang = new double[numSca];
+        double[] sca_p = new double[numSca];
+        for (int i = 0; i < numSca; i++) {
+            sca_ang[i] = i * d_sca_ang;
+            sca_p[i] = HenyeyGreenstein.phaseFunction(g, i * d_sca_ang);
+        }
+        Distribution dist = new Distribution(sca_ang, sca_p);
+
+        // Exact at the nodes of the table
+        for (int j = 0; j < HenyeyGreenstein.TABLE_SIZE; j += 7) {
+            double u = (double) j / HenyeyGreenstein.TABLE_SIZE;
+            Assertions.assertThat(table.sample(u)).isCloseTo(dist.sample(u), Assertions.within(1e-12));
+        }
+
+        // Close everywhere else
+        Random rand = new Random(12345678);
+        for (int k = 0; k < 100_000; k++) {
+            double u = rand.nextDouble();
+            Assertions.assertThat(table.sample(u)).isCloseTo(dist.sample(u), Assertions.within(1e-2));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
+import de.tudresden.aerospace.contrails.Modeling.ExtinctionKernel;
+import de.tudresden.aerospace.contrails.Modeling.FreePathSampler;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+import de.tudresden.aerospace.contrails.Modeling.TransportEngine;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class ComputeDirectionTest {
+    // Index and incident direction of the simulated direction
+    private static final int INDEX = 7;
+    private static final double THETA = 1.1;
+    private static final double PHI = 0.4;
+
+    // Number of photons of the comparisons of weighted and analog estimates and of the transport engines
+    private static final int NUM_PHOTONS_WEIGHTED = 64 * RandomStreams.PHOTONS_PER_STREAM;
+
+    private DiffuseParameters diffuse;
+    private TerrestrialSimulation sim;
+    private RandomStreams streams;
+    private int resolution;
+
+    @BeforeEach
+    void setup() {
+        File configFolder = new File(PropertiesManager.getInstance().getDirResourcesTest(), "test_simulation");
+        XMLParameters params = XMLParameters.unmarshal(configFolder.toString(), "test.xml");
+        diffuse = params.getTerrestrialDiffuse();
+        resolution = diffuse.getResolutionS();
+
+        sim = new TerrestrialSimulation(params);
+        sim.setSeed(12345678L);
+        streams = sim.createStreams(sim.suffixDiffuse);
+    }
+
+    @Test
+    @DisplayName("Chunked direction gives the same result as a single step")
+    void testChunkedDirection() {
+        int numPhotons = 3 * Simulation.CHUNK_PHOTONS + 500;
+        Contrail contrail = createContrail();
+
+        Simulation.SingleStepResult expected = runStep(contrail, numPhotons);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Simulation.SingleStepResult res = pool.invoke(sim.new ComputeDirection(INDEX, contrail, 0, numPhotons,
+                resolution, THETA, PHI, streams));
+        pool.shutdown();
+
+        Assertions.assertThat(res.scattered_bins).isEqualTo(expected.scattered_bins);
+        Assertions.assertThat(res.nAbs).isEqualTo(expected.nAbs);
+        Assertions.assertThat(res.nScat).isEqualTo(expected.nScat);
+        Assertions.assertThat(res.nTrans).isEqualTo(expected.nTrans);
+        Assertions.assertThat(res.nScatUp).isEqualTo(expected.nScatUp);
+        Assertions.assertThat(res.nScatDown).isEqualTo(expected.nScatDown);
+        Assertions.assertThat(res.nScatMultiple).isEqualTo(expected.nScatMultiple);
+        Assertions.assertThat(res.avgScattering).isCloseTo(expected.avgScattering, Assertions.within(1e-12));
+    }
+
+    @Test
+    @DisplayName("Adaptive direction stops at the target error or the photon limit")
+    void testAdaptiveDirection() {
+        sim.commonParams.setAdaptiveMinPhotons(2 * RandomStreams.PHOTONS_PER_STREAM);
+        sim.commonParams.setAdaptiveMaxPhotons(8 * RandomStreams.PHOTONS_PER_STREAM);
+        Contrail contrail = createContrail();
+
+        // Unreachable target, the direction runs until the limit and matches a fixed run of the same size
+        sim.commonParams.setAdaptiveTargetError(1e-9);
+        Simulation.SingleStepResult res = sim.new ComputeAdaptiveDirection(INDEX, contrail, resolution, THETA, PHI,
+                streams).invoke();
+        Simulation.SingleStepResult expected = runStep(contrail, 8 * RandomStreams.PHOTONS_PER_STREAM);
+
+        Assertions.assertThat(res.nPhotons).isEqualTo(8 * RandomStreams.PHOTONS_PER_STREAM);
+        Assertions.assertThat(res.scattered_bins).isEqualTo(expected.scattered_bins);
+        Assertions.assertThat(res.nAbs).isEqualTo(expected.nAbs);
+        Assertions.assertThat(res.nTrans).isEqualTo(expected.nTrans);
+        Assertions.assertThat(res.relativeError()).isGreaterThan(1e-9);
+
+        // Trivial target, the direction stops after the first round
+        sim.commonParams.setAdaptiveTargetError(1e9);
+        res = sim.new ComputeAdaptiveDirection(INDEX, contrail, resolution, THETA, PHI, streams).invoke();
+        Assertions.assertThat(res.nPhotons).isEqualTo(2 * RandomStreams.PHOTONS_PER_STREAM);
+    }
+
+    @Test
+    @DisplayName("Transport engines estimate the same absorbed and scattered fractions")
+    void testTransportEngines() {
+        TransportEngine[] engines = ExtinctionKernel.isVectorApiAvailable()
+                ? TransportEngine.values() : new TransportEngine[]{TransportEngine.SCALAR, TransportEngine.BATCHED};
+
+        for (FreePathSampler sampler : FreePathSampler.values()) {
+            diffuse.setFreePath(sampler.getName());
+            sim.setTransportEngine(TransportEngine.SCALAR);
+            Simulation.SingleStepResult scalar = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+            for (TransportEngine engine : engines) {
+                sim.setTransportEngine(engine);
+                Simulation.SingleStepResult res = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+                // The engines draw the random numbers in a different order, so only the fractions agree
+                Assertions.assertThat(res.nAbs + res.nScat + res.nTrans).isEqualTo(NUM_PHOTONS_WEIGHTED);
+                assertWithinError(res.nAbs, scalar.nAbs);
+                assertWithinError(res.nScat, scalar.nScat);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Implicit absorption estimates the same absorbed and scattered fractions")
+    void testImplicitAbsorption() {
+        Simulation.SingleStepResult analog = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        diffuse.setImplicitAbsorption(true);
+        Simulation.SingleStepResult res = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        // Analog tallies equal the counts
+        Assertions.assertThat(analog.wAbs).isEqualTo(analog.nAbs);
+        Assertions.assertThat(analog.wScat).isEqualTo(analog.nScat);
+
+        // Weight is conserved apart from Russian roulette and both estimates agree within their statistical error
+        assertSameFractions(analog, res);
+        Assertions.assertThat(res.wScatUp + res.wScatDown).isCloseTo(res.wScat, Assertions.within(1e-6));
+    }
+
+    @Test
+    @DisplayName("Forced collisions estimate the same absorbed, scattered and transmitted fractions")
+    void testForcedCollision() {
+        // On the elliptical launch region, every entry line has a non-negligible interaction probability. The exact
+        // free path sampler places the forced interactions inside the launch region.
+        diffuse.setLaunchRegion("ellipse");
+        diffuse.setFreePath("analytic");
+        Simulation.SingleStepResult analog = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        diffuse.setForcedCollision(true);
+        Simulation.SingleStepResult res = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        // Analog tallies equal the counts
+        Assertions.assertThat(analog.wTrans).isEqualTo(analog.nTrans);
+
+        // Almost every photon interacts, weight is conserved and both estimates agree within their statistical error
+        Assertions.assertThat(res.nTrans).isLessThan(analog.nTrans / 10);
+        Assertions.assertThat(res.wAbs + res.wScat + res.wTrans).isCloseTo(NUM_PHOTONS_WEIGHTED,
+                Assertions.within(1e-6));
+        assertSameFractions(analog, res);
+    }
+
+    @Test
+    @DisplayName("Launch offsets sampled by optical depth estimate the same absorbed and scattered fractions")
+    void testOpticalDepthLaunchSampling() {
+        Simulation.SingleStepResult analog = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        diffuse.setLaunchSampling("optical_depth");
+        Simulation.SingleStepResult res = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        // Many more photons interact, weight is conserved and both estimates agree within their statistical error
+        Assertions.assertThat(res.nAbs + res.nScat).isGreaterThan(10 * (analog.nAbs + analog.nScat));
+        Assertions.assertThat(res.wAbs + res.wScat + res.wTrans).isCloseTo(NUM_PHOTONS_WEIGHTED,
+                Assertions.within(0.05 * NUM_PHOTONS_WEIGHTED));
+        assertSameFractions(analog, res);
+    }
+
+    @Test
+    @DisplayName("Next-event estimation estimates the same upwards and downwards scattered fractions")
+    void testNextEvent() {
+        // The exact free path sampler leaves the launch region with the probability of the expected escape
+        diffuse.setLaunchRegion("ellipse");
+        diffuse.setFreePath("analytic");
+        diffuse.setNextEvent(true);
+        Simulation.SingleStepResult res = runStep(createContrail(), NUM_PHOTONS_WEIGHTED);
+
+        // The expected escape agrees with the actual escape of the same photons within its statistical error
+        assertWithinError(res.eScatUp, res.nScatUp);
+        assertWithinError(res.eScatDown, res.nScatDown);
+        Assertions.assertThat(Arrays.stream(res.expected_bins).sum()).isCloseTo(res.eScatUp + res.eScatDown,
+                Assertions.within(1e-6));
+    }
+
+    /**
+     * Creates a contrail from the current diffuse parameters, which may be modified by the test.
+     */
+    private Contrail createContrail() {
+        Contrail contrail = new TerrestrialContrail(diffuse);
+        contrail.setMultiThreadedMode(true);
+        return contrail;
+    }
+
+    /**
+     * Integrates the photons of the test direction in a single step.
+     */
+    private Simulation.SingleStepResult runStep(Contrail contrail, int numPhotons) {
+        return sim.new ComputeSingleStep(INDEX, contrail, 0, numPhotons, resolution, THETA, PHI, streams).call();
+    }
+
+    /**
+     * Asserts that the weighted tallies of absorption and scattering agree with the counts of an analog run.
+     */
+    private static void assertSameFractions(Simulation.SingleStepResult analog, Simulation.SingleStepResult res) {
+        assertWithinError(res.wAbs, analog.nAbs);
+        assertWithinError(res.wScat, analog.nScat);
+    }
+
+    /**
+     * Asserts that an estimate of the number of photons agrees with a count of {@link #NUM_PHOTONS_WEIGHTED} photons
+     * within five standard deviations of the binomial distribution of the count.
+     */
+    private static void assertWithinError(double estimate, double count) {
+        double p = count / NUM_PHOTONS_WEIGHTED;
+        double tol = 5.0 * Math.sqrt(p * (1.0 - p) / NUM_PHOTONS_WEIGHTED);
+        Assertions.assertThat(estimate / NUM_PHOTONS_WEIGHTED).isCloseTo(p, Assertions.within(tol));
+    }
+}
@@ -0,0 +1,264 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DiffuseResultWriterTest {
+    private static final int BINS_PHI = 8;
+    private static final int BINS_THETA = 4;
+    private static final int NUM_PHOTONS = 2000;
+
+    // Size of the reorder window, much smaller than the number of directions
+    private static final int WINDOW = 4;
+
+    @TempDir
+    File dirOut;
+
+    private TerrestrialSimulation sim;
+    private Contrail contrail;
+
+    @BeforeEach
+    void setup() {
+        File configFolder = new File(PropertiesManager.getInstance().getDirResourcesTest(), "test_simulation");
+        XMLParameters params = XMLParameters.unmarshal(configFolder.toString(), "test.xml");
+        params.getCommon().setNumPhotons(NUM_PHOTONS);
+        params.getTerrestrialDiffuse().setBinsPhi(BINS_PHI);
+        params.getTerrestrialDiffuse().setBinsTheta(BINS_THETA);
+
+        sim = new TerrestrialSimulation(params);
+        sim.setSeed(12345678L);
+        contrail = new TerrestrialContrail(sim.diffuseParams);
+        contrail.setMultiThreadedMode(true);
+    }
+
+    @Test
+    @DisplayName("Results completing in any order are written in canonical order")
+    void testShuffledResults() throws IOException {
+        DiffuseSymmetry[] symmetries = {DiffuseSymmetry.none(BINS_THETA, BINS_PHI),
+                DiffuseSymmetry.detect(contrail.getParams())};
+        for (DiffuseSymmetry symmetry : symmetries) {
+            Simulation.SingleStepResult[] results = computeResults(symmetry);
+
+            File expected = new File(dirOut, "expected.txt");
+            runWriter(expected, symmetry, results, CompletionOrder.FIFO);
+
+            // Rows of all directions in canonical order
+            List<String> rows = Files.readAllLines(expected.toPath());
+            Assertions.assertThat(rows).hasSize(BINS_THETA * BINS_PHI);
+            for (int i = 0; i < rows.size(); i++) {
+                String[] values = rows.get(i).split(" ");
+                Assertions.assertThat(Double.parseDouble(values[0])).isCloseTo(theta(i), Assertions.within(1e-12));
+                Assertions.assertThat(Double.parseDouble(values[1])).isCloseTo(phi(i), Assertions.within(1e-12));
+            }
+
+            for (int order : new int[]{CompletionOrder.RANDOM, CompletionOrder.LIFO}) {
+                File actual = new File(dirOut, "actual.txt");
+                CompletionOrder service = runWriter(actual, symmetry, results, order);
+
+                Assertions.assertThat(Files.readAllBytes(actual.toPath()))
+                        .isEqualTo(Files.readAllBytes(expected.toPath()));
+
+                // The window is filled, but never exceeded
+                Assertions.assertThat(service.maxInFlight).isEqualTo(WINDOW);
+                Assertions.assertThat(service.taken).isEqualTo(results.length);
+            }
+        }
+    }
+
+    /**
+     * Computes the results of all directions the writer expects for the given symmetry.
+     */
+    private Simulation.SingleStepResult[] computeResults(DiffuseSymmetry symmetry) {
+        RandomStreams streams = sim.createStreams(sim.suffixDiffuse);
+        List<Simulation.SingleStepResult> results = new ArrayList<>();
+        for (int i = 0; i < BINS_THETA * BINS_PHI; i++) {
+            if (symmetry.isRepresentative(i))
+                results.add(sim.new ComputeSingleStep(i, contrail, 0, NUM_PHOTONS, sim.diffuseParams.getResolutionS(),
+                        theta(i), phi(i), streams).call());
+        }
+
+        return results.toArray(new Simulation.SingleStepResult[0]);
+    }
+
+    /**
+     * Submits the results in canonical order, acquiring a permit for every result like
+     * {@link Simulation#simulateDiffuseRadiation(Contrail, int, boolean)}, and waits until the writer has written all
+     * rows to the given file.
+     *
+     * @return The completion service the results were submitted to
+     */
+    private CompletionOrder runWriter(File file, DiffuseSymmetry symmetry, Simulation.SingleStepResult[] results,
+                                      int order) throws IOException {
+        AtomicInteger released = new AtomicInteger();
+        CompletionOrder service = new CompletionOrder(order, results.length, released);
+        Semaphore slots = new Semaphore(WINDOW) {
+            @Override
+            public void release() {
+                released.incrementAndGet();
+                super.release();
+            }
+        };
+
+        int[] tasks = new int[results.length];
+        for (int i = 0; i < results.length; i++)
+            tasks[i] = results[i].threadID;
+
+        SimulationCheckpoint checkpoint = new SimulationCheckpoint();
+        checkpoint.parameters = sim.fingerprint();
+
+        try (FileWriter fw = new FileWriter(file)) {
+            Simulation.DiffuseResultWriter writer = sim.new DiffuseResultWriter(fw, null, file, checkpoint, service,
+                    symmetry, tasks, WINDOW, slots);
+            Thread writerThread = new Thread(writer, "diffuse-result-writer");
+            writerThread.start();
+
+            for (Simulation.SingleStepResult res : results) {
+                slots.acquireUninterruptibly();
+                service.submit(() -> res);
+            }
+
+            writerThread.join(60_000);
+            Assertions.assertThat(writerThread.isAlive()).isFalse();
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        return service;
+    }
+
+    private static double theta(int task) {
+        return (0.5 + task / BINS_PHI) * (Math.PI / BINS_THETA);
+    }
+
+    private static double phi(int task) {
+        return (0.5 + task % BINS_PHI) * (Math.PI * 2 / BINS_PHI);
+    }
+
+    /**
+     * Completion service that completes the submitted tasks in a given order. Results are only returned once the window
+     * is full or all results are submitted, so that the order applies to all results in flight. With {@link #LIFO},
+     * the oldest result is only returned when no other result is pending, which holds back all rows as long as
+     * possible.
+     */
+    private static class CompletionOrder implements CompletionService<Simulation.SingleStepResult> {
+        static final int FIFO = 0;
+        static final int RANDOM = 1;
+        static final int LIFO = 2;
+
+        private final int order;
+        private final int total;
+        private final AtomicInteger released;
+        private final Random rand = new Random(12345678);
+        private final List<Future<Simulation.SingleStepResult>> pending = new ArrayList<>();
+        private int submitted = 0;
+        private int taken = 0;
+
+        // Largest number of results submitted, but not yet taken from the reorder buffer of the writer
+        private int maxInFlight = 0;
+
+        CompletionOrder(int order, int total, AtomicInteger released) {
+            this.order = order;
+            this.total = total;
+            this.released = released;
+        }
+
+        private int inFlight() {
+            return submitted - released.get();
+        }
+
+        @Override
+        public synchronized Future<Simulation.SingleStepResult> submit(Callable<Simulation.SingleStepResult> task) {
+            Future<Simulation.SingleStepResult> f;
+            try {
+                f = CompletableFuture.completedFuture(task.call());
+            } catch (Exception ex) {
+                f = CompletableFuture.failedFuture(ex);
+            }
+            pending.add(f);
+            submitted++;
+            maxInFlight = Math.max(maxInFlight, inFlight());
+            notifyAll();
+            return f;
+        }
+
+        @Override
+        public Future<Simulation.SingleStepResult> submit(Runnable task, Simulation.SingleStepResult result) {
+            return submit(() -> {
+                task.run();
+                return result;
+            });
+        }
+
+        @Override
+        public synchronized Future<Simulation.SingleStepResult> take() throws InterruptedException {
+            // The writer releases a permit for every result taken from its buffer, so the window fills up again
+            while (pending.isEmpty() || (inFlight() < WINDOW && submitted < total))
+                wait();
+
+            return poll();
+        }
+
+        @Override
+        public synchronized Future<Simulation.SingleStepResult> poll() {
+            if (pending.isEmpty())
+                return null;
+
+            int i = switch (order) {
+                case FIFO -> 0;
+                case RANDOM -> rand.nextInt(pending.size());
+                default -> pending.size() - 1;
+            };
+            taken++;
+            return pending.remove(i);
+        }
+
+        @Override
+        public Future<Simulation.SingleStepResult> poll(long timeout, TimeUnit unit) {
+            return poll();
+        }
+    }
+}
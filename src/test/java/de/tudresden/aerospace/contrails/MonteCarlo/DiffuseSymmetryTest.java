@@ -0,0 +1,95 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.DiffuseParameters;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DiffuseSymmetryTest {
+
+    @Test
+    @DisplayName("Orbits of the direction grid are closed under the mirror operations")
+    void testOrbits() {
+        int binsTheta = 5;
+        int binsPhi = 6;
+        DiffuseSymmetry symmetry = new DiffuseSymmetry(binsTheta, binsPhi, true, true);
+
+        // 3 theta classes (0/4, 1/3, 2) times 4 phi classes (0/2, 1, 3/5, 4)
+        Assertions.assertThat(symmetry.getNumRepresentatives()).isEqualTo(12);
+
+        double dTheta = Math.PI / binsTheta;
+        double dPhi = 2 * Math.PI / binsPhi;
+        for (int task = 0; task < binsTheta * binsPhi; task++) {
+            int rep = symmetry.getRepresentative(task);
+            Assertions.assertThat(rep).isLessThanOrEqualTo(task);
+            Assertions.assertThat(symmetry.isRepresentative(rep)).isTrue();
+            Assertions.assertThat(symmetry.getLastMember(rep)).isGreaterThanOrEqualTo(task);
+
+            // The direction must be a mirror image of its representative
+            double theta = (0.5 + task / binsPhi) * dTheta;
+            double phi = (0.5 + task % binsPhi) * dPhi;
+            double repTheta = (0.5 + rep / binsPhi) * dTheta;
+            double repPhi = (0.5 + rep % binsPhi) * dPhi;
+            double expectedTheta = symmetry.flipsTheta(task) ? Math.PI - repTheta : repTheta;
+            Assertions.assertThat(theta).isCloseTo(expectedTheta, Assertions.within(1e-12));
+            Assertions.assertThat(Math.cos(phi) * Math.cos(phi)).isCloseTo(Math.cos(repPhi) * Math.cos(repPhi),
+                    Assertions.within(1e-12));
+            Assertions.assertThat(Math.sin(phi)).isCloseTo(Math.sin(repPhi), Assertions.within(1e-12));
+        }
+    }
+
+    @Test
+    @DisplayName("Without mirroring every direction is simulated")
+    void testNone() {
+        DiffuseSymmetry symmetry = DiffuseSymmetry.none(4, 7);
+        Assertions.assertThat(symmetry.getNumRepresentatives()).isEqualTo(28);
+        for (int task = 0; task < 28; task++) {
+            Assertions.assertThat(symmetry.isRepresentative(task)).isTrue();
+            Assertions.assertThat(symmetry.getLastMember(task)).isEqualTo(task);
+            Assertions.assertThat(symmetry.flipsTheta(task)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Negligible shear keeps the mirroring at the flight level")
+    void testDetectShear() {
+        DiffuseParameters params = new DiffuseParameters();
+        params.setBinsTheta(4);
+        params.setBinsPhi(8);
+        params.setSigmaH(2306.17);
+        params.setSigmaV(53.65);
+
+        // Shear of the example config
+        params.setSigmaS(0.002);
+        DiffuseSymmetry symmetry = DiffuseSymmetry.detect(params);
+        Assertions.assertThat(symmetry.mirrorsTheta()).isTrue();
+        Assertions.assertThat(symmetry.getNumRepresentatives()).isEqualTo(8);
+
+        params.setSigmaS(10.0);
+        symmetry = DiffuseSymmetry.detect(params);
+        Assertions.assertThat(symmetry.mirrorsTheta()).isFalse();
+        Assertions.assertThat(symmetry.getNumRepresentatives()).isEqualTo(16);
+    }
+}
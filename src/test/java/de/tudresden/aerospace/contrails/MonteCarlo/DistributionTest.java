@@ -0,0 +1,81 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class DistributionTest {
+
+    /**
+     * Reference implementation of {@link Distribution#inverse(double)} using a linear scan.
+     */
+    private static double inverseLinear(double[] x, double[] p, double P) {
+        double dx = x[1] - x[0];
+        double[] xn = new double[x.length + 2];
+        double[] I = new double[x.length + 2];
+        for (int i = 1; i < xn.length - 1; i++)
+            xn[i] = x[i - 1];
+        xn[0] = x[0] - dx;
+        xn[xn.length - 1] = xn[xn.length - 2] + dx;
+        I[1] = p[0];
+        for (int i = 1; i < p.length; i++)
+            I[i + 1] = I[i] + p[i];
+        I[I.length - 1] = I[I.length - 2];
+
+        for (int i = 1; i < I.length; i++) {
+            if (I[i] >= P) {
+                double m = dx / (I[i] - I[i - 1]);
+                double n = xn[i] - m * I[i];
+                return m * P + n + dx / 2.;
+            }
+        }
+        return -777.;
+    }
+
+    @Test
+    @DisplayName("Guide table sampling matches linear search")
+    void testInverse() {
+        Random rand = new Random(12345678);
+        int numClasses = 721;
+        double[] x = new double[numClasses];
+        double[] p = new double[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            x[i] = (i + 0.5) * Math.PI / numClasses;
+            // strongly peaked with some empty classes, similar to a scattering phase function
+            p[i] = i % 17 == 0 ? 0. : Math.exp(-i / 20.) * rand.nextDouble();
+        }
+        Distribution d = new Distribution(x, p);
+
+        double total = d.Ihelp;
+        for (int k = 0; k < 200_000; k++) {
+            double P = rand.nextDouble() * total;
+            Assertions.assertThat(d.inverse(P)).isEqualTo(inverseLinear(x, p, P));
+        }
+        Assertions.assertThat(d.inverse(total)).isEqualTo(inverseLinear(x, p, total));
+        Assertions.assertThat(d.inverse(total * 1.5)).isEqualTo(-777.);
+    }
+}
@@ -0,0 +1,108 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Modeling.SamplingMode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+public class LowDiscrepancySequenceTest {
+
+    @Test
+    @DisplayName("Every dimension of the scrambled Sobol sequence is stratified")
+    void testSobolStratification() {
+        LowDiscrepancySequence seq = LowDiscrepancySequence.create(SamplingMode.SOBOL, new SplittableRandom(42));
+        int n = 1 << 10;
+        for (int d = 0; d < seq.getDimensions(); d++) {
+            // The first 2^m points of a (0, m, 1)-net fall into distinct intervals of width 2^-m
+            boolean[] hit = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                double x = seq.get(i, d);
+                Assertions.assertThat(x).isBetween(0.0, 1.0).isNotEqualTo(1.0);
+                hit[(int) (x * n)] = true;
+            }
+            Assertions.assertThat(hit).as("dimension %d", d).doesNotContain(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Pairs of dimensions of the scrambled Sobol sequence are well distributed")
+    void testSobolTwoDimensional() {
+        LowDiscrepancySequence seq = LowDiscrepancySequence.create(SamplingMode.SOBOL, new SplittableRandom(7));
+        int n = 1 << 12;
+        int cells = 16;
+        for (int d = 1; d < seq.getDimensions(); d++) {
+            // Every cell of a 16 x 16 grid receives the same number of points for the first 2^12 points of a good
+            // net, allow for a small deviation due to the quality parameter of higher dimensions
+            int[] count = new int[cells * cells];
+            for (int i = 0; i < n; i++)
+                count[(int) (seq.get(i, 0) * cells) * cells + (int) (seq.get(i, d) * cells)]++;
+            for (int c : count)
+                Assertions.assertThat(c).as("dimensions 0 and %d", d).isBetween(8, 24);
+        }
+    }
+
+    @Test
+    @DisplayName("Every dimension of the scrambled Halton sequence is stratified")
+    void testHaltonStratification() {
+        LowDiscrepancySequence seq = LowDiscrepancySequence.create(SamplingMode.HALTON, new SplittableRandom(42));
+        int[] primes = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71, 73};
+        for (int d = 0; d < seq.getDimensions(); d++) {
+            // The first b^2 points fall into distinct intervals of width b^-2
+            int n = primes[d] * primes[d];
+            boolean[] hit = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                double x = seq.get(i, d);
+                Assertions.assertThat(x).isBetween(0.0, 1.0).isNotEqualTo(1.0);
+                hit[(int) (x * n)] = true;
+            }
+            Assertions.assertThat(hit).as("dimension %d", d).doesNotContain(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Scrambling is reproducible and depends on the generator")
+    void testScrambling() {
+        LowDiscrepancySequence a = LowDiscrepancySequence.create(SamplingMode.SOBOL, new SplittableRandom(1));
+        LowDiscrepancySequence b = LowDiscrepancySequence.create(SamplingMode.SOBOL, new SplittableRandom(1));
+        LowDiscrepancySequence c = LowDiscrepancySequence.create(SamplingMode.SOBOL, new SplittableRandom(2));
+        Assertions.assertThat(a.get(123, 5)).isEqualTo(b.get(123, 5));
+        Assertions.assertThat(a.get(123, 5)).isNotEqualTo(c.get(123, 5));
+    }
+
+    @Test
+    @DisplayName("Skipped coordinates and padding draws keep the coordinates of later draws")
+    void testQuasiRandomStreamCoordinates() {
+        LowDiscrepancySequence seq = LowDiscrepancySequence.create(SamplingMode.SOBOL, new SplittableRandom(3));
+        QuasiRandomStream stream = new QuasiRandomStream(seq);
+        stream.startPhoton(17, new SplittableRandom(4));
+
+        Assertions.assertThat(stream.nextDouble()).isEqualTo(seq.get(17, 0));
+        stream.skip();
+        stream.nextPadding();
+        Assertions.assertThat(stream.nextDouble()).isEqualTo(seq.get(17, 2));
+    }
+}
@@ -0,0 +1,146 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.IO.BinaryTableParser;
+import de.tudresden.aerospace.contrails.Configuration.IO.ColumnTable;
+import de.tudresden.aerospace.contrails.Configuration.IO.CustomCSVParser;
+import de.tudresden.aerospace.contrails.Configuration.IO.DynamicTable;
+import de.tudresden.aerospace.contrails.Configuration.IO.MappedCSVParser;
+import de.tudresden.aerospace.contrails.Configuration.IO.OutputFormat;
+import de.tudresden.aerospace.contrails.Configuration.IO.SimulationParser;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class OutputFormatTest {
+    @TempDir
+    File dirOut;
+
+    @Test
+    @DisplayName("Binary output parses to the same table and parameters as text output")
+    void testBinaryMatchesText() {
+        // The second run tallies weights and appends the columns of next-event estimation
+        for (boolean weighted : new boolean[]{false, true}) {
+            File fText = runSimulation(OutputFormat.TEXT, weighted);
+            File fBinary = runSimulation(OutputFormat.BINARY, weighted);
+            Assertions.assertThat(BinaryTableParser.isBinary(fText)).isFalse();
+            Assertions.assertThat(BinaryTableParser.isBinary(fBinary)).isTrue();
+
+            SimulationParser text = new SimulationParser(fText, "\\s+");
+            SimulationParser binary = new SimulationParser(fBinary, "\\s+");
+            text.parse();
+            binary.parse();
+
+            DynamicTable<Double> t = text.getParseResult();
+            DynamicTable<Double> b = binary.getParseResult();
+            Assertions.assertThat(b.getName()).isEqualTo("DIFFUSE_SCATTERED_RADIATION");
+            Assertions.assertThat(b.getColumnNames()).isEqualTo(t.getColumnNames());
+            Assertions.assertThat(b.getRows()).hasSize(8 * 4);
+            Assertions.assertThat(b.getRows()).isEqualTo(t.getRows());
+            Assertions.assertThat(binary.getColumn(SimulationParser.EXPECTED_UP) != null).isEqualTo(weighted);
+
+            Assertions.assertThat(binary.getCommonParameters().toCommentString())
+                    .isEqualTo(text.getCommonParameters().toCommentString());
+            Assertions.assertThat(binary.getDiffuseParameters().toCommentString())
+                    .isEqualTo(text.getDiffuseParameters().toCommentString());
+            Assertions.assertThat(new SimulationParser(fBinary, " ").parseParametersOnly()
+                    .toCommentString()).isEqualTo(text.getDiffuseParameters().toCommentString());
+        }
+    }
+
+    @Test
+    @DisplayName("Mapped text parser produces the same tables and comments as CustomCSVParser")
+    void testMappedMatchesCustom() throws IOException {
+        File fText = runSimulation(OutputFormat.TEXT, false);
+        assertParsersMatch(fText);
+
+        // Values with exponents, signs, many digits and special values, multiple tables and Windows line endings
+        Random rng = new Random(42);
+        File fValues = new File(dirOut, "values.csv");
+        try (FileWriter fw = new FileWriter(fValues)) {
+            fw.write("// comment = 1\r\n  A B\tC\r\n\r\n//TABLE first\r\n");
+            fw.write("0 -0.0 +1.5\r\n1e-5 -2.5E+3 NaN\r\n0.1 123456789012345678901 -Infinity\r\n");
+            fw.write("//TABLE second\n   // indented comment\n");
+            for (int i = 0; i < 1000; i++) {
+                double d = rng.nextDouble() * Math.pow(10, rng.nextInt(80) - 40);
+                fw.write(d + " " + (float) -d + " " + String.format("%.6e", d) + "\n");
+            }
+        }
+        List<ColumnTable> tables = assertParsersMatch(fValues);
+        Assertions.assertThat(tables).hasSize(2);
+        Assertions.assertThat(tables.get(0).getName()).isEqualTo("first");
+        Assertions.assertThat(tables.get(1).getNumRows()).isEqualTo(1000);
+    }
+
+    private List<ColumnTable> assertParsersMatch(File file) {
+        List<String> commentsCustom = new ArrayList<>();
+        List<String> commentsMapped = new ArrayList<>();
+        List<DynamicTable<Double>> custom = CustomCSVParser.parse(file, "\\s+", commentsCustom::add);
+        List<ColumnTable> mapped = MappedCSVParser.parse(file, commentsMapped::add);
+
+        Assertions.assertThat(mapped).hasSameSizeAs(custom);
+        for (int i = 0; i < custom.size(); i++) {
+            DynamicTable<Double> m = mapped.get(i).toDynamicTable();
+            Assertions.assertThat(m.getName()).isEqualTo(custom.get(i).getName());
+            Assertions.assertThat(m.getColumnNames()).isEqualTo(custom.get(i).getColumnNames());
+            Assertions.assertThat(m.getRows()).isEqualTo(custom.get(i).getRows());
+        }
+        Assertions.assertThat(commentsMapped).isEqualTo(commentsCustom);
+        return mapped;
+    }
+
+    private File runSimulation(OutputFormat format, boolean weighted) {
+        File configFolder = new File(PropertiesManager.getInstance().getDirResourcesTest(), "test_simulation");
+        XMLParameters params = XMLParameters.unmarshal(configFolder.toString(), "test.xml");
+        params.getCommon().setOutputFilePrefix(new File(dirOut, "test_" + format.getName()).getPath());
+        params.getCommon().setNumPhotons(2000);
+        params.getTerrestrialDiffuse().setBinsPhi(8);
+        params.getTerrestrialDiffuse().setBinsTheta(4);
+        params.getTerrestrialDiffuse().setImplicitAbsorption(weighted);
+        params.getTerrestrialDiffuse().setNextEvent(weighted);
+        if (weighted)
+            params.getTerrestrialDiffuse().setFreePath("analytic");
+
+        TerrestrialSimulation sim = new TerrestrialSimulation(params);
+        sim.setSeed(12345678L);
+        sim.setOutputFormat(format);
+        sim.simulateDiffuseRadiation(new TerrestrialContrail(params.getTerrestrialDiffuse()), 2, false);
+
+        File[] files = dirOut.listFiles((d, name) -> name.startsWith("test_" + format.getName()) &&
+                name.endsWith(format.getExtension()));
+        Assertions.assertThat(files).hasSize(1);
+        return files[0];
+    }
+}
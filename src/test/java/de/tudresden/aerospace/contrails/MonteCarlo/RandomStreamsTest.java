@@ -0,0 +1,104 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.Contrail;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+import de.tudresden.aerospace.contrails.Modeling.TransportEngine;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RandomStreamsTest {
+    private static final int NUM_PHOTONS = 2 * RandomStreams.PHOTONS_PER_STREAM + 100;
+    private static final int NUM_TASKS = 8;
+
+    @Test
+    @DisplayName("Streams only depend on seed, part, task and block")
+    void testStreams() {
+        RandomStreams a = new RandomStreams(42, Simulation.suffixDiffuseSolar);
+        RandomStreams b = new RandomStreams(42, Simulation.suffixDiffuseSolar);
+
+        Assertions.assertThat(a.stream(3, 1).nextLong()).isEqualTo(b.stream(3, 1).nextLong());
+        Assertions.assertThat(a.stream(3, 1).nextLong()).isNotEqualTo(a.stream(3, 2).nextLong());
+        Assertions.assertThat(a.stream(3, 1).nextLong()).isNotEqualTo(a.stream(4, 1).nextLong());
+        Assertions.assertThat(a.stream(3, 1).nextLong()).isNotEqualTo(
+                new RandomStreams(42, Simulation.suffixDiffuseTerrestrial).stream(3, 1).nextLong());
+        Assertions.assertThat(a.stream(3, 1).nextLong()).isNotEqualTo(
+                new RandomStreams(43, Simulation.suffixDiffuseSolar).stream(3, 1).nextLong());
+    }
+
+    @Test
+    @DisplayName("Seeded tasks give identical results regardless of the number of threads")
+    void testReproducibleTasks() throws Exception {
+        for (TransportEngine engine : new TransportEngine[]{TransportEngine.SCALAR, TransportEngine.BATCHED}) {
+            List<Simulation.SingleStepResult> sequential = runTasks(engine, 1);
+            List<Simulation.SingleStepResult> parallel = runTasks(engine, 4);
+
+            for (int i = 0; i < NUM_TASKS; i++) {
+                Simulation.SingleStepResult s = sequential.get(i);
+                Simulation.SingleStepResult p = parallel.get(i);
+                Assertions.assertThat(p.scattered_bins).isEqualTo(s.scattered_bins);
+                Assertions.assertThat(p.nAbs).isEqualTo(s.nAbs);
+                Assertions.assertThat(p.nTrans).isEqualTo(s.nTrans);
+                Assertions.assertThat(p.avgScattering).isEqualTo(s.avgScattering);
+            }
+        }
+    }
+
+    private List<Simulation.SingleStepResult> runTasks(TransportEngine engine, int numThreads) throws Exception {
+        File configFolder = new File(PropertiesManager.getInstance().getDirResourcesTest(), "test_simulation");
+        XMLParameters params = XMLParameters.unmarshal(configFolder.toString(), "test.xml");
+
+        TerrestrialSimulation sim = new TerrestrialSimulation(params);
+        sim.setTransportEngine(engine);
+        sim.setSeed(12345678L);
+        Contrail contrail = new TerrestrialContrail(params.getTerrestrialDiffuse());
+        contrail.setMultiThreadedMode(true);
+        RandomStreams streams = sim.createStreams(sim.suffixDiffuse);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<Simulation.SingleStepResult>> futures = new ArrayList<>();
+        for (int i = 0; i < NUM_TASKS; i++) {
+            double theta = (0.5 + i) * Math.PI / NUM_TASKS;
+            futures.add(executor.submit(sim.new ComputeSingleStep(i, contrail, 0, NUM_PHOTONS,
+                    params.getTerrestrialDiffuse().getResolutionS(), theta, 0.3, streams)));
+        }
+
+        List<Simulation.SingleStepResult> results = new ArrayList<>();
+        for (Future<Simulation.SingleStepResult> f : futures)
+            results.add(f.get());
+        executor.shutdown();
+
+        return results;
+    }
+}
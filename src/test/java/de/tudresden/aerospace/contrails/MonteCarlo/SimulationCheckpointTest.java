@@ -0,0 +1,158 @@
+package de.tudresden.aerospace.contrails.MonteCarlo;
+
+/*-
+ * #%L
+ * RF-Contrails
+ * %%
+ * Copyright (C) 2024 Institute of Aerospace Engineering, TU Dresden
+ * %%
+ * Copyright 2,024 Institute of Aerospace Engineering, TU Dresden
+ * 
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ * #L%
+ */
+
+import de.tudresden.aerospace.contrails.Configuration.IO.OutputFormat;
+import de.tudresden.aerospace.contrails.Configuration.Parameters.XMLParameters;
+import de.tudresden.aerospace.contrails.Configuration.PropertiesManager;
+import de.tudresden.aerospace.contrails.Modeling.TerrestrialContrail;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class SimulationCheckpointTest {
+    // Directions of the test simulation and number of finished directions at which the first run is stopped
+    private static final int NUM_ROWS = 8 * 4;
+    private static final int STOP_ROWS = NUM_ROWS / 2;
+
+    @TempDir
+    File dirOut;
+
+    @Test
+    @DisplayName("Resumed simulation writes the same output and sums as an uninterrupted one")
+    void testResume() throws IOException {
+        for (OutputFormat format : OutputFormat.values()) {
+            // Uninterrupted run, which also keeps the state of its first checkpoint after STOP_ROWS directions
+            CheckpointingSimulation full = createSimulation(format);
+            Metrics expected = full.simulateDiffuseRadiation(createContrail(full), 2, false);
+            File outputFile = full.outputFile;
+            byte[] expectedBytes = Files.readAllBytes(outputFile.toPath());
+            Assertions.assertThat(SimulationCheckpoint.getFile(outputFile)).doesNotExist();
+
+            // Restore the state of the stopped run, including a partial row written after the checkpoint
+            Assertions.assertThat(full.snapshot).isNotNull();
+            Files.copy(full.snapshotOutput.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(full.snapshotCheckpoint.toPath(), SimulationCheckpoint.getFile(outputFile).toPath());
+            Files.write(outputFile.toPath(), "0.1 0.2 3".getBytes(StandardCharsets.US_ASCII),
+                    StandardOpenOption.APPEND);
+
+            CheckpointingSimulation resumed = createSimulation(format);
+            resumed.setResume(true);
+            Metrics res = resumed.simulateDiffuseRadiation(createContrail(resumed), 2, false);
+
+            // The directions before the checkpoint were not simulated again
+            Assertions.assertThat(resumed.firstRows).isGreaterThanOrEqualTo(full.snapshot.rows);
+
+            Assertions.assertThat(Files.readAllBytes(outputFile.toPath())).isEqualTo(expectedBytes);
+            Assertions.assertThat(res.sum_n_trans).isEqualTo(expected.sum_n_trans);
+            Assertions.assertThat(res.sum_n_abs).isEqualTo(expected.sum_n_abs);
+            Assertions.assertThat(res.sum_n_scat).isEqualTo(expected.sum_n_scat);
+            Assertions.assertThat(SimulationCheckpoint.getFile(outputFile)).doesNotExist();
+        }
+    }
+
+    @Test
+    @DisplayName("Checkpoint of different parameters is rejected")
+    void testFingerprintMismatch() {
+        CheckpointingSimulation sim = createSimulation(OutputFormat.TEXT);
+        sim.simulateDiffuseRadiation(createContrail(sim), 2, false);
+
+        SimulationCheckpoint checkpoint = sim.snapshot;
+        Assertions.assertThat(checkpoint).isNotNull();
+        Assertions.assertThat(checkpoint.parameters).hasSize(64).matches("[0-9a-f]+");
+        Assertions.assertThat(checkpoint.matches(sim.fingerprint())).isTrue();
+
+        // Any changed parameter changes the fingerprint
+        CheckpointingSimulation other = createSimulation(OutputFormat.TEXT);
+        other.commonParams.setNumPhotons(other.commonParams.getNumPhotons() + 1);
+        Assertions.assertThat(checkpoint.matches(other.fingerprint())).isFalse();
+
+        other = createSimulation(OutputFormat.TEXT);
+        other.diffuseParams.setSigmaH(other.diffuseParams.getSigmaH() * (1 + 1e-12));
+        Assertions.assertThat(checkpoint.matches(other.fingerprint())).isFalse();
+    }
+
+    private CheckpointingSimulation createSimulation(OutputFormat format) {
+        File configFolder = new File(PropertiesManager.getInstance().getDirResourcesTest(), "test_simulation");
+        XMLParameters params = XMLParameters.unmarshal(configFolder.toString(), "test.xml");
+        params.getCommon().setOutputFilePrefix(new File(dirOut, "test_" + format.getName()).getPath());
+        params.getCommon().setNumPhotons(2000);
+        params.getTerrestrialDiffuse().setBinsPhi(8);
+        params.getTerrestrialDiffuse().setBinsTheta(4);
+
+        CheckpointingSimulation sim = new CheckpointingSimulation(params, new File(dirOut, "snapshot_" +
+                format.getName()));
+        sim.setSeed(12345678L);
+        sim.setOutputFormat(format);
+        sim.checkpointInterval = 0;
+        return sim;
+    }
+
+    private static TerrestrialContrail createContrail(Simulation sim) {
+        return new TerrestrialContrail(sim.diffuseParams);
+    }
+
+    /**
+     * Writes a checkpoint after every direction and copies the output and checkpoint files of the first checkpoint
+     * with at least {@link #STOP_ROWS} finished directions, which is the state of a run stopped after it.
+     */
+    private static class CheckpointingSimulation extends TerrestrialSimulation {
+        private final File snapshotOutput;
+        private final File snapshotCheckpoint;
+        private File outputFile;
+        private SimulationCheckpoint snapshot;
+        private int firstRows = -1;
+
+        CheckpointingSimulation(XMLParameters params, File snapshotOutput) {
+            super(params);
+            this.snapshotOutput = snapshotOutput;
+            this.snapshotCheckpoint = SimulationCheckpoint.getFile(snapshotOutput);
+        }
+
+        @Override
+        protected void checkpointWritten(File outputFile, SimulationCheckpoint checkpoint) {
+            this.outputFile = outputFile;
+            if (firstRows < 0)
+                firstRows = checkpoint.rows;
+            if (snapshot != null || checkpoint.rows < STOP_ROWS || checkpoint.rows >= NUM_ROWS)
+                return;
+
+            try {
+                Files.copy(outputFile.toPath(), snapshotOutput.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.copy(SimulationCheckpoint.getFile(outputFile).toPath(), snapshotCheckpoint.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+            snapshot = SimulationCheckpoint.read(outputFile);
+        }
+    }
+}